@@ -0,0 +1,33 @@
+package uk.gov.hmcts.reform.sscs.servicebus;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.qpid.jms.JmsSession;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jms.config.JmsListenerEndpointRegistry;
+import org.springframework.jms.listener.DefaultMessageListenerContainer;
+import org.springframework.test.context.junit4.SpringRunner;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {"priority-lanes.enabled=true", "amqp.autoStartup=false"})
+public class PriorityLanesListenerIt {
+
+    @Autowired
+    private JmsListenerEndpointRegistry jmsListenerEndpointRegistry;
+
+    @Test
+    public void givenPriorityLanesEnabled_theDurableSubscriptionIsSharedByTheLaneListeners() {
+        assertEquals(1, jmsListenerEndpointRegistry.getListenerContainers().size());
+        DefaultMessageListenerContainer container =
+            (DefaultMessageListenerContainer) jmsListenerEndpointRegistry.getListenerContainers().iterator().next();
+
+        assertTrue(container.isSubscriptionDurable());
+        assertTrue(container.isSubscriptionShared());
+        assertEquals(2, container.getConcurrentConsumers());
+        assertEquals(JmsSession.INDIVIDUAL_ACKNOWLEDGE, container.getSessionAcknowledgeMode());
+    }
+}
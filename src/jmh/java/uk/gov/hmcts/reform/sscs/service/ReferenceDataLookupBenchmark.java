@@ -0,0 +1,95 @@
+package uk.gov.hmcts.reform.sscs.service;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.ClassPathBeanDefinitionScanner;
+import org.springframework.core.type.filter.RegexPatternTypeFilter;
+import uk.gov.hmcts.reform.sscs.ccd.domain.RegionalProcessingCenter;
+import uk.gov.hmcts.reform.sscs.model.dwp.OfficeMapping;
+
+/**
+ * Compares the sscs-common reference data lookups with the same lookups served through {@link ReferenceDataLookup}.
+ * Only the sscs-common lookup services are started, so the figures exclude everything else the application loads.
+ *
+ * <p>Run with {@code ./gradlew jmh -Pjmh.include=ReferenceDataLookup}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReferenceDataLookupBenchmark {
+
+    private static final String[][] OFFICES = {
+        {"PIP", "DWP PIP (1)"}, {"PIP", "DWP PIP (2)"}, {"PIP", "PIP (AE)"}, {"ESA", "Balham DRT"},
+        {"ESA", "Watford DRT"}, {"UC", "Universal Credit"}
+    };
+    private static final String[] POSTCODES = {"CH5 1AA", "SW1A 1AA", "G1 1XQ", "CF10 1EP", "M1 1AE", "B1 1BB"};
+
+    private AnnotationConfigApplicationContext context;
+    private DwpAddressLookupService dwpAddressLookupService;
+    private RegionalProcessingCenterService regionalProcessingCenterService;
+    private ReferenceDataLookup referenceDataLookup;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new AnnotationConfigApplicationContext();
+        ClassPathBeanDefinitionScanner scanner = new ClassPathBeanDefinitionScanner(context, false);
+        scanner.addIncludeFilter(new RegexPatternTypeFilter(
+            Pattern.compile("uk\\.gov\\.hmcts\\.reform\\.sscs\\.service\\.(DwpAddressLookup|RegionalProcessingCenter|AirLookup)Service")));
+        scanner.scan("uk.gov.hmcts.reform.sscs.service");
+        context.refresh();
+
+        dwpAddressLookupService = context.getBean(DwpAddressLookupService.class);
+        regionalProcessingCenterService = context.getBean(RegionalProcessingCenterService.class);
+        referenceDataLookup = new ReferenceDataLookup(dwpAddressLookupService, regionalProcessingCenterService);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<OfficeMapping> officeMappingFromReferenceData() {
+        String[] office = OFFICES[nextIndex(OFFICES.length)];
+        return dwpAddressLookupService.getDwpMappingByOffice(office[0], office[1]);
+    }
+
+    @Benchmark
+    public Optional<OfficeMapping> officeMappingFromIndex() {
+        String[] office = OFFICES[nextIndex(OFFICES.length)];
+        return referenceDataLookup.getDwpMappingByOffice(office[0], office[1]);
+    }
+
+    @Benchmark
+    public RegionalProcessingCenter regionalProcessingCenterFromReferenceData() {
+        return regionalProcessingCenterService.getByPostcode(POSTCODES[nextIndex(POSTCODES.length)]);
+    }
+
+    @Benchmark
+    public RegionalProcessingCenter regionalProcessingCenterFromIndex() {
+        return referenceDataLookup.getByPostcode(POSTCODES[nextIndex(POSTCODES.length)]);
+    }
+
+    private int nextIndex(int length) {
+        next = next + 1 == Integer.MAX_VALUE ? 0 : next + 1;
+        return next % length;
+    }
+}
@@ -0,0 +1,147 @@
+package uk.gov.hmcts.reform.sscs.load;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+import uk.gov.hmcts.reform.sscs.SscsEvidenceShareApplication;
+import uk.gov.hmcts.reform.sscs.servicebus.TopicConsumer;
+
+/**
+ * Starts the service against {@link StubbedDownstreams} and replays recorded callbacks through
+ * {@link TopicConsumer#onMessage} at a fixed arrival rate, then reports throughput, latency percentiles per
+ * message type and per handler, and heap/GC behaviour.
+ *
+ * <p>Run with {@code ./gradlew loadTest -Dload.rate=20 -Dload.durationSeconds=120}. Message latency is measured
+ * from the moment a message was due to arrive, so a growing backlog shows up as latency rather than being hidden.
+ */
+@Slf4j
+public class EvidenceShareLoadTest {
+
+    private static final int RATE_PER_SECOND = Integer.getInteger("load.rate", 10);
+    private static final int DURATION_SECONDS = Integer.getInteger("load.durationSeconds", 60);
+    private static final int WARM_UP_SECONDS = Integer.getInteger("load.warmUpSeconds", 10);
+    private static final int CONSUMERS = Integer.getInteger("load.consumers", 1);
+    private static final int DOWNSTREAM_LATENCY_MS = Integer.getInteger("load.downstreamLatencyMs", 50);
+    private static final String CALLBACKS = System.getProperty("load.callbacks",
+        "validAppealCreated,appealToProceed,dwpUploadResponse,directionIssued,issueFurtherEvidence");
+    private static final String REPORT = "build/reports/load/evidence-share-load-test.txt";
+
+    @Test
+    public void replayRecordedCallbacksAtConfiguredRate() throws Exception {
+        LatencyRecorder recorder = new LatencyRecorder();
+
+        try (StubbedDownstreams downstreams = new StubbedDownstreams(DOWNSTREAM_LATENCY_MS);
+             ConfigurableApplicationContext context = startApplication(downstreams, recorder)) {
+
+            TopicConsumer consumer = context.getBean(TopicConsumer.class);
+            RecordedCallbacks callbacks = new RecordedCallbacks(asList(CALLBACKS.split(",")), downstreams.baseUrl());
+
+            log.info("Warming up for {}s", WARM_UP_SECONDS);
+            replay(consumer, callbacks, recorder, WARM_UP_SECONDS);
+            recorder.reset();
+
+            int requestsBefore = downstreams.requestsReceived();
+            int emailsBefore = downstreams.emailsReceived();
+            JvmSnapshot.resetPeakHeap();
+            JvmSnapshot before = JvmSnapshot.take();
+            long start = System.nanoTime();
+
+            long completed = replay(consumer, callbacks, recorder, DURATION_SECONDS);
+
+            double elapsedSeconds = (System.nanoTime() - start) / (double) TimeUnit.SECONDS.toNanos(1);
+            JvmSnapshot after = JvmSnapshot.take();
+
+            String report = report(recorder, completed, elapsedSeconds, before, after,
+                downstreams.requestsReceived() - requestsBefore, downstreams.emailsReceived() - emailsBefore);
+            log.info("\n{}", report);
+            FileUtils.writeStringToFile(new File(REPORT), report, StandardCharsets.UTF_8);
+
+            assertTrue("no messages were processed", completed > 0);
+        }
+    }
+
+    private ConfigurableApplicationContext startApplication(StubbedDownstreams downstreams, LatencyRecorder recorder) {
+        ApplicationContextInitializer<ConfigurableApplicationContext> handlerTiming =
+            context -> context.getBeanFactory().addBeanPostProcessor(new HandlerTimingPostProcessor(recorder));
+
+        return new SpringApplicationBuilder(SscsEvidenceShareApplication.class)
+            .properties(downstreams.applicationProperties())
+            .initializers(handlerTiming)
+            .run();
+    }
+
+    private long replay(TopicConsumer consumer, RecordedCallbacks callbacks, LatencyRecorder recorder, int seconds)
+        throws InterruptedException {
+
+        ExecutorService listeners = Executors.newFixedThreadPool(CONSUMERS);
+        ScheduledExecutorService arrivals = Executors.newSingleThreadScheduledExecutor();
+        AtomicLong completed = new AtomicLong();
+
+        arrivals.scheduleAtFixedRate(() -> {
+            RecordedCallbacks.Message message = callbacks.next();
+            long arrivedAt = System.nanoTime();
+            listeners.execute(() -> {
+                boolean failed = false;
+                try {
+                    consumer.onMessage(message.getJson(), message.getMessageId());
+                } catch (RuntimeException e) {
+                    failed = true;
+                    log.warn("Message {} escaped the consumer", message.getMessageId(), e);
+                } finally {
+                    recorder.record("message " + message.getName(), System.nanoTime() - arrivedAt, failed);
+                    completed.incrementAndGet();
+                }
+            });
+        }, 0, TimeUnit.SECONDS.toNanos(1) / RATE_PER_SECOND, TimeUnit.NANOSECONDS);
+
+        TimeUnit.SECONDS.sleep(seconds);
+        arrivals.shutdownNow();
+        listeners.shutdown();
+        if (!listeners.awaitTermination(10, TimeUnit.MINUTES)) {
+            log.warn("Backlog was still draining when the run was stopped");
+            listeners.shutdownNow();
+        }
+        return completed.get();
+    }
+
+    private String report(LatencyRecorder recorder, long completed, double elapsedSeconds, JvmSnapshot before,
+                          JvmSnapshot after, int downstreamRequests, int emails) {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("Offered rate %d msg/s with %d consumer(s) for %ds, downstream latency %dms%n",
+            RATE_PER_SECOND, CONSUMERS, DURATION_SECONDS, DOWNSTREAM_LATENCY_MS));
+        report.append(String.format("Completed %d messages in %.1fs: %.2f msg/s%n",
+            completed, elapsedSeconds, completed / elapsedSeconds));
+        report.append(String.format("Downstream requests %d, emails sent %d%n", downstreamRequests, emails));
+        report.append(String.format("Heap used %dMB -> %dMB, peak %dMB, %d GCs taking %dms%n%n",
+            toMb(before.getHeapUsedBytes()), toMb(after.getHeapUsedBytes()), toMb(JvmSnapshot.peakHeapBytes()),
+            after.gcCountSince(before), after.gcTimeMillisSince(before)));
+
+        report.append(String.format("%-45s %8s %8s %10s %10s %10s %10s%n",
+            "", "count", "failed", "p50 ms", "p95 ms", "p99 ms", "max ms"));
+        for (Map.Entry<String, LatencyRecorder.Summary> entry : recorder.summarise().entrySet()) {
+            LatencyRecorder.Summary summary = entry.getValue();
+            report.append(String.format("%-45s %8d %8d %10.1f %10.1f %10.1f %10.1f%n",
+                entry.getKey(), summary.getCount(), summary.getFailures(), summary.percentileMillis(50),
+                summary.percentileMillis(95), summary.percentileMillis(99), summary.maxMillis()));
+        }
+        return report.toString();
+    }
+
+    private static long toMb(long bytes) {
+        return bytes / (1024 * 1024);
+    }
+}
@@ -0,0 +1,52 @@
+package uk.gov.hmcts.reform.sscs.load;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import uk.gov.hmcts.reform.sscs.callback.CallbackHandler;
+
+/**
+ * Wraps every {@link CallbackHandler} so the time spent in each {@code handle} call is recorded against the
+ * handler's name.
+ */
+public class HandlerTimingPostProcessor implements BeanPostProcessor {
+
+    private final LatencyRecorder recorder;
+
+    public HandlerTimingPostProcessor(LatencyRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof CallbackHandler)) {
+            return bean;
+        }
+        String handlerName = bean.getClass().getSimpleName();
+        return Proxy.newProxyInstance(bean.getClass().getClassLoader(), new Class<?>[]{CallbackHandler.class},
+            (proxy, method, args) -> {
+                if (!"handle".equals(method.getName())) {
+                    return invoke(method, bean, args);
+                }
+                long start = System.nanoTime();
+                boolean failed = false;
+                try {
+                    return invoke(method, bean, args);
+                } catch (Throwable e) {
+                    failed = true;
+                    throw e;
+                } finally {
+                    recorder.record("handler " + handlerName, System.nanoTime() - start, failed);
+                }
+            });
+    }
+
+    private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
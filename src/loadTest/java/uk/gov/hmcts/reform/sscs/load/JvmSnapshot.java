@@ -0,0 +1,58 @@
+package uk.gov.hmcts.reform.sscs.load;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+
+/**
+ * Point-in-time heap and garbage collection figures, diffed across the run to show how the service behaves
+ * under sustained load.
+ */
+public class JvmSnapshot {
+
+    private final long heapUsedBytes;
+    private final long gcCount;
+    private final long gcTimeMillis;
+
+    private JvmSnapshot(long heapUsedBytes, long gcCount, long gcTimeMillis) {
+        this.heapUsedBytes = heapUsedBytes;
+        this.gcCount = gcCount;
+        this.gcTimeMillis = gcTimeMillis;
+    }
+
+    public static JvmSnapshot take() {
+        long count = 0;
+        long time = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+            time += Math.max(0, gc.getCollectionTime());
+        }
+        return new JvmSnapshot(ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed(), count, time);
+    }
+
+    public static void resetPeakHeap() {
+        ManagementFactory.getMemoryPoolMXBeans().stream()
+            .filter(pool -> pool.getType() == MemoryType.HEAP)
+            .forEach(MemoryPoolMXBean::resetPeakUsage);
+    }
+
+    public static long peakHeapBytes() {
+        return ManagementFactory.getMemoryPoolMXBeans().stream()
+            .filter(pool -> pool.getType() == MemoryType.HEAP)
+            .mapToLong(pool -> pool.getPeakUsage().getUsed())
+            .sum();
+    }
+
+    public long getHeapUsedBytes() {
+        return heapUsedBytes;
+    }
+
+    public long gcCountSince(JvmSnapshot before) {
+        return gcCount - before.gcCount;
+    }
+
+    public long gcTimeMillisSince(JvmSnapshot before) {
+        return gcTimeMillis - before.gcTimeMillis;
+    }
+}
@@ -0,0 +1,82 @@
+package uk.gov.hmcts.reform.sscs.load;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collects raw latency samples per key so that exact percentiles can be reported once the run has finished.
+ */
+public class LatencyRecorder {
+
+    private final Map<String, ConcurrentLinkedQueue<Long>> samples = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> failures = new ConcurrentHashMap<>();
+
+    public void record(String key, long elapsedNanos, boolean failed) {
+        samples.computeIfAbsent(key, k -> new ConcurrentLinkedQueue<>()).add(elapsedNanos);
+        if (failed) {
+            failures.computeIfAbsent(key, k -> new AtomicLong()).incrementAndGet();
+        }
+    }
+
+    public void reset() {
+        samples.clear();
+        failures.clear();
+    }
+
+    public long count(String key) {
+        ConcurrentLinkedQueue<Long> values = samples.get(key);
+        return values == null ? 0 : values.size();
+    }
+
+    public Map<String, Summary> summarise() {
+        Map<String, Summary> summaries = new TreeMap<>();
+        samples.forEach((key, values) -> {
+            List<Long> sorted = new ArrayList<>(values);
+            Collections.sort(sorted);
+            AtomicLong failed = failures.get(key);
+            summaries.put(key, new Summary(sorted, failed == null ? 0 : failed.get()));
+        });
+        return summaries;
+    }
+
+    public static class Summary {
+        private final List<Long> sorted;
+        private final long failures;
+
+        Summary(List<Long> sorted, long failures) {
+            this.sorted = sorted;
+            this.failures = failures;
+        }
+
+        public long getCount() {
+            return sorted.size();
+        }
+
+        public long getFailures() {
+            return failures;
+        }
+
+        public double percentileMillis(double percentile) {
+            if (sorted.isEmpty()) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile / 100.0 * sorted.size()) - 1;
+            return toMillis(sorted.get(Math.max(0, Math.min(index, sorted.size() - 1))));
+        }
+
+        public double maxMillis() {
+            return sorted.isEmpty() ? 0 : toMillis(sorted.get(sorted.size() - 1));
+        }
+
+        private static double toMillis(long nanos) {
+            return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+        }
+    }
+}
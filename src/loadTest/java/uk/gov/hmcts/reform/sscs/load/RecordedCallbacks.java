@@ -0,0 +1,99 @@
+package uk.gov.hmcts.reform.sscs.load;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.commons.io.IOUtils;
+import uk.gov.hmcts.reform.sscs.ccd.domain.State;
+
+/**
+ * The recorded CCD callbacks shared with the functional tests, with their placeholders filled in so every replay
+ * looks like a distinct case whose documents live in the stubbed dm-store.
+ */
+public class RecordedCallbacks {
+
+    private static final String[] RECORDED_DM_STORE_HOSTS = {
+        "http://dm-store-aat.service.core-compute-aat.internal",
+        "http://localhost:4603"
+    };
+
+    private final List<Recording> recordings = new ArrayList<>();
+    private final AtomicLong nextCaseId = new AtomicLong(1_600_000_000_000_000L);
+    private final AtomicLong nextMessage = new AtomicLong();
+    private final String dmStoreUrl;
+
+    public RecordedCallbacks(List<String> names, String dmStoreUrl) {
+        this.dmStoreUrl = dmStoreUrl;
+        for (String name : names) {
+            recordings.add(new Recording(name, read(name + "Callback.json")));
+        }
+    }
+
+    public Message next() {
+        long sequence = nextMessage.getAndIncrement();
+        Recording recording = recordings.get((int) (sequence % recordings.size()));
+        String caseId = String.valueOf(nextCaseId.getAndIncrement());
+        String documentUrl = dmStoreUrl + "/documents/" + UUID.randomUUID();
+
+        String json = recording.json
+            .replace("CASE_ID_TO_BE_REPLACED", caseId)
+            .replace("MRN_DATE_TO_BE_REPLACED", LocalDate.now().toString())
+            .replace("CREATED_IN_GAPS_FROM", State.VALID_APPEAL.getId())
+            .replace("EVIDENCE_DOCUMENT_BINARY_URL_PLACEHOLDER", documentUrl + "/binary")
+            .replace("EVIDENCE_DOCUMENT_URL_PLACEHOLDER", documentUrl);
+        for (String host : RECORDED_DM_STORE_HOSTS) {
+            json = json.replace(host, dmStoreUrl);
+        }
+        return new Message(recording.name, "load-" + sequence, json);
+    }
+
+    private static String read(String resource) {
+        try (InputStream in = Objects.requireNonNull(RecordedCallbacks.class.getClassLoader().getResourceAsStream(resource),
+            "no recorded callback " + resource)) {
+            return IOUtils.toString(in, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static class Recording {
+        private final String name;
+        private final String json;
+
+        Recording(String name, String json) {
+            this.name = name;
+            this.json = json;
+        }
+    }
+
+    public static class Message {
+        private final String name;
+        private final String messageId;
+        private final String json;
+
+        Message(String name, String messageId, String json) {
+            this.name = name;
+            this.messageId = messageId;
+            this.json = json;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getMessageId() {
+            return messageId;
+        }
+
+        public String getJson() {
+            return json;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package uk.gov.hmcts.reform.sscs.load;
+
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetup;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.util.HashMap;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Local stand-ins for every downstream the service talks to: a single WireMock server serves the IDAM, S2S, CCD,
+ * dm-store, Docmosis and send-letter stubs under {@code classpath:wiremock}, and GreenMail accepts the robotics
+ * and translation emails.
+ */
+@Slf4j
+public class StubbedDownstreams implements AutoCloseable {
+
+    private final WireMockServer wireMockServer;
+    private final GreenMail greenMail;
+    private final int smtpPort;
+
+    public StubbedDownstreams(int downstreamLatencyMs) {
+        wireMockServer = new WireMockServer(options()
+            .dynamicPort()
+            .containerThreads(50)
+            .usingFilesUnderClasspath("wiremock"));
+        smtpPort = freePort();
+        greenMail = new GreenMail(new ServerSetup(smtpPort, "localhost", ServerSetup.PROTOCOL_SMTP));
+
+        wireMockServer.start();
+        wireMockServer.setGlobalFixedDelay(downstreamLatencyMs);
+        greenMail.start();
+        log.info("Stubbed downstreams started on {} with smtp on port {}", baseUrl(), smtpPort);
+    }
+
+    public String baseUrl() {
+        return wireMockServer.baseUrl();
+    }
+
+    public int emailsReceived() {
+        return greenMail.getReceivedMessages().length;
+    }
+
+    public int requestsReceived() {
+        return wireMockServer.getAllServeEvents().size();
+    }
+
+    public Map<String, Object> applicationProperties() {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("server.port", 0);
+        properties.put("amqp.autoStartup", false);
+        properties.put("idam.url", baseUrl());
+        properties.put("idam.api.url", baseUrl());
+        properties.put("idam.s2s-auth.url", baseUrl());
+        properties.put("core_case_data.api.url", baseUrl());
+        properties.put("document_management.url", baseUrl());
+        properties.put("service.pdf-service.uri", baseUrl() + "/rs/render");
+        properties.put("service.pdf-service.health.uri", baseUrl() + "/rs/status");
+        properties.put("send-letter.url", baseUrl());
+        properties.put("send-letter.enabled", true);
+        properties.put("pdf.api.url", baseUrl());
+        properties.put("appeal.email.host", "localhost");
+        properties.put("appeal.email.port", smtpPort);
+        properties.put("appeal.email.smtp.tls.enabled", false);
+        properties.put("ld.sdk-key", "load-test");
+        properties.put("send-grid.api-key", "load-test");
+        return properties;
+    }
+
+    @Override
+    public void close() {
+        greenMail.stop();
+        wireMockServer.stop();
+    }
+
+    private static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
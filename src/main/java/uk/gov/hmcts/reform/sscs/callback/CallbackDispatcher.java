@@ -2,30 +2,88 @@ package uk.gov.hmcts.reform.sscs.callback;
 
 import static java.util.Objects.requireNonNull;
 
+import brave.Span;
+import brave.Tracer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
 import uk.gov.hmcts.reform.sscs.ccd.callback.Callback;
 import uk.gov.hmcts.reform.sscs.ccd.callback.CallbackType;
 import uk.gov.hmcts.reform.sscs.ccd.callback.DispatchPriority;
 import uk.gov.hmcts.reform.sscs.ccd.domain.CaseData;
+import uk.gov.hmcts.reform.sscs.ccd.domain.EventType;
+import uk.gov.hmcts.reform.sscs.idempotency.IdempotencyLedger;
+import uk.gov.hmcts.reform.sscs.service.DocumentPrefetcher;
 
+@Slf4j
 @Component
 public class CallbackDispatcher<T extends CaseData> {
 
+    static final String HANDLER_TIMER = "evidence_share.handler";
+    static final String HANDLER_SKIPPED = "evidence_share.handler.skipped";
+
     private final List<CallbackHandler<T>> callbackHandlers;
+    private final MeterRegistry meterRegistry;
+    private final Tracer tracer;
+    private final IdempotencyLedger idempotencyLedger;
+    private final DocumentPrefetcher documentPrefetcher;
 
-    public CallbackDispatcher(List<CallbackHandler<T>> callbackHandlers) {
+    public CallbackDispatcher(List<CallbackHandler<T>> callbackHandlers, MeterRegistry meterRegistry, Tracer tracer,
+                              IdempotencyLedger idempotencyLedger, DocumentPrefetcher documentPrefetcher) {
         requireNonNull(callbackHandlers, "callbackHandlers must not be null");
         this.callbackHandlers = callbackHandlers;
+        this.meterRegistry = meterRegistry;
+        this.tracer = tracer;
+        this.idempotencyLedger = idempotencyLedger;
+        this.documentPrefetcher = documentPrefetcher;
     }
 
     public void handle(CallbackType callbackType, Callback<T> callback) {
         requireNonNull(callback, "callback must not be null");
-        Stream.of(DispatchPriority.values())
-            .forEach(dispatchPriority ->
-                dispatchToHandlers(callbackType, callback, getCallbackHandlersByPriority(dispatchPriority)));
+        try (DocumentPrefetcher.Scope ignored = documentPrefetcher.prefetch(documentsToPrefetch(callbackType, callback))) {
+            Stream.of(DispatchPriority.values())
+                .forEach(dispatchPriority ->
+                    dispatchToHandlers(callbackType, callback, getCallbackHandlersByPriority(dispatchPriority)));
+        }
+    }
+
+    public boolean canHandleEvent(EventType eventType) {
+        return callbackHandlers.stream().anyMatch(handler -> handler.canHandleEvent(eventType));
+    }
+
+    public boolean usesCaseDetailsBefore(EventType eventType) {
+        return callbackHandlers.stream()
+            .anyMatch(handler -> handler.canHandleEvent(eventType) && handler.usesCaseDetailsBefore());
+    }
+
+    public boolean isHeavy(EventType eventType) {
+        return callbackHandlers.stream()
+            .anyMatch(handler -> handler.canHandleEvent(eventType) && handler.isHeavy());
+    }
+
+    /**
+     * Prefetching is only an optimisation, so a handler that cannot say what it needs is left to download it itself.
+     * Handlers that have already completed for a redelivered message are skipped, so they are not asked.
+     */
+    private List<String> documentsToPrefetch(CallbackType callbackType, Callback<T> callback) {
+        Optional<DispatchContext> context = DispatchContext.current();
+        return callbackHandlers.stream()
+            .filter(handler -> !hasCompleted(context, ClassUtils.getUserClass(handler).getSimpleName()))
+            .flatMap(handler -> {
+                try {
+                    return handler.documentsToPrefetch(callbackType, callback).stream();
+                } catch (RuntimeException e) {
+                    log.debug("Could not work out the documents {} needs", ClassUtils.getUserClass(handler).getSimpleName(), e);
+                    return Stream.empty();
+                }
+            })
+            .collect(Collectors.toList());
     }
 
     private List<CallbackHandler<T>> getCallbackHandlersByPriority(DispatchPriority dispatchPriority) {
@@ -38,6 +96,43 @@ public class CallbackDispatcher<T extends CaseData> {
                                     List<CallbackHandler<T>> callbackHandlers) {
         callbackHandlers.stream()
             .filter(handler -> handler.canHandle(callbackType, callback))
-            .forEach(handler -> handler.handle(callbackType, callback));
+            .forEach(handler -> handleAndRecord(callbackType, callback, handler));
+    }
+
+    private boolean hasCompleted(Optional<DispatchContext> context, String handlerName) {
+        return context.isPresent()
+            && idempotencyLedger.hasCompleted(context.get().getMessageId(), context.get().getCaseId(), handlerName);
+    }
+
+    private void handleAndRecord(CallbackType callbackType, Callback<T> callback, CallbackHandler<T> handler) {
+        String handlerName = ClassUtils.getUserClass(handler).getSimpleName();
+        String event = callback.getEvent() == null ? "none" : callback.getEvent().name();
+        Optional<DispatchContext> context = DispatchContext.current();
+        if (hasCompleted(context, handlerName)) {
+            log.info("{} already completed for message id {} and case id {}, skipping",
+                handlerName, context.get().getMessageId(), context.get().getCaseId());
+            meterRegistry.counter(HANDLER_SKIPPED, "handler", handlerName, "event", event).increment();
+            return;
+        }
+        Span span = tracer.nextSpan().name(handlerName).tag("case.event", event).start();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String exception = "none";
+        try (Tracer.SpanInScope ignored = tracer.withSpanInScope(span)) {
+            handler.handle(callbackType, callback);
+            context.ifPresent(current ->
+                idempotencyLedger.recordCompleted(current.getMessageId(), current.getCaseId(), handlerName));
+        } catch (RuntimeException e) {
+            exception = e.getClass().getSimpleName();
+            span.error(e);
+            throw e;
+        } finally {
+            span.finish();
+            sample.stop(Timer.builder(HANDLER_TIMER)
+                .tag("handler", handlerName)
+                .tag("event", event)
+                .tag("outcome", "none".equals(exception) ? "success" : "failure")
+                .tag("exception", exception)
+                .register(meterRegistry));
+        }
     }
 }
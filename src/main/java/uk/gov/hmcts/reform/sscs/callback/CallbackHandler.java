@@ -1,9 +1,12 @@
 package uk.gov.hmcts.reform.sscs.callback;
 
+import java.util.Collections;
+import java.util.List;
 import uk.gov.hmcts.reform.sscs.ccd.callback.Callback;
 import uk.gov.hmcts.reform.sscs.ccd.callback.CallbackType;
 import uk.gov.hmcts.reform.sscs.ccd.callback.DispatchPriority;
 import uk.gov.hmcts.reform.sscs.ccd.domain.CaseData;
+import uk.gov.hmcts.reform.sscs.ccd.domain.EventType;
 
 public interface CallbackHandler<T extends CaseData> {
     boolean canHandle(CallbackType callbackType, Callback<T> callback);
@@ -11,4 +14,36 @@ public interface CallbackHandler<T extends CaseData> {
     void handle(CallbackType callbackType, Callback<T> callback);
 
     DispatchPriority getPriority();
+
+    /**
+     * Checked against the event id read from the raw message, before the callback is deserialised. Returning false
+     * means {@link #canHandle} could never be true for this event.
+     */
+    default boolean canHandleEvent(EventType eventType) {
+        return true;
+    }
+
+    /**
+     * Whether {@link #handle} reads {@code Callback.getCaseDetailsBefore()}. When no handler for an event does, the
+     * previous case details are not deserialised.
+     */
+    default boolean usesCaseDetailsBefore() {
+        return true;
+    }
+
+    /**
+     * Whether {@link #handle} generates, prints or sends documents rather than only updating CCD. Events with a heavy
+     * handler are processed in the heavy lane when priority lanes are enabled.
+     */
+    default boolean isHeavy() {
+        return false;
+    }
+
+    /**
+     * The URLs of the documents {@link #handle} will download for this callback, which are fetched in the background
+     * while earlier handlers run. Only documents that are certain to be downloaded should be listed.
+     */
+    default List<String> documentsToPrefetch(CallbackType callbackType, Callback<T> callback) {
+        return Collections.emptyList();
+    }
 }
@@ -0,0 +1,62 @@
+package uk.gov.hmcts.reform.sscs.callback;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The message currently being dispatched on this thread. Opened by the consumer around
+ * {@link CallbackDispatcher#handle} and closed when the message has been processed.
+ */
+public final class DispatchContext implements AutoCloseable {
+
+    private static final ThreadLocal<DispatchContext> CURRENT = new ThreadLocal<>();
+
+    private final String messageId;
+    private final String caseId;
+    private final DispatchContext previous;
+    private final AtomicInteger retries;
+
+    private DispatchContext(String messageId, String caseId, DispatchContext previous) {
+        this.messageId = messageId;
+        this.caseId = caseId;
+        this.previous = previous;
+        // a context opened inside another for the same message shares its retry budget
+        this.retries = previous != null && Objects.equals(previous.messageId, messageId)
+            ? previous.retries : new AtomicInteger();
+    }
+
+    public static DispatchContext open(String messageId, String caseId) {
+        DispatchContext context = new DispatchContext(messageId, caseId, CURRENT.get());
+        CURRENT.set(context);
+        return context;
+    }
+
+    public static Optional<DispatchContext> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    public String getMessageId() {
+        return messageId;
+    }
+
+    public String getCaseId() {
+        return caseId;
+    }
+
+    /**
+     * Uses one of the {@code budget} retries allowed for this message, returning false once they have all been used.
+     */
+    public boolean tryConsumeRetry(int budget) {
+        return retries.getAndUpdate(used -> used < budget ? used + 1 : used) < budget;
+    }
+
+    @Override
+    public void close() {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
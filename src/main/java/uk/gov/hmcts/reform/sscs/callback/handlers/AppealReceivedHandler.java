@@ -4,6 +4,8 @@ import static java.util.Objects.requireNonNull;
 import static uk.gov.hmcts.reform.sscs.ccd.domain.EventType.APPEAL_RECEIVED;
 import static uk.gov.hmcts.reform.sscs.ccd.domain.State.READY_TO_LIST;
 
+import java.util.EnumSet;
+import java.util.Set;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -13,25 +15,31 @@ import uk.gov.hmcts.reform.sscs.ccd.callback.CallbackType;
 import uk.gov.hmcts.reform.sscs.ccd.callback.DispatchPriority;
 import uk.gov.hmcts.reform.sscs.ccd.domain.EventType;
 import uk.gov.hmcts.reform.sscs.ccd.domain.SscsCaseData;
-import uk.gov.hmcts.reform.sscs.ccd.service.CcdService;
 import uk.gov.hmcts.reform.sscs.idam.IdamService;
+import uk.gov.hmcts.reform.sscs.service.ConflictResolvingCaseUpdater;
 
 @Slf4j
 @Service
 public class AppealReceivedHandler implements CallbackHandler<SscsCaseData> {
 
-    private final DispatchPriority dispatchPriority;
+    private static final Set<EventType> HANDLED_EVENTS = EnumSet.of(
+        EventType.VALID_APPEAL_CREATED,
+        EventType.DRAFT_TO_VALID_APPEAL_CREATED,
+        EventType.VALID_APPEAL,
+        EventType.INTERLOC_VALID_APPEAL);
 
-    private final CcdService ccdService;
+    private final DispatchPriority dispatchPriority;
 
     private final IdamService idamService;
 
+    private final ConflictResolvingCaseUpdater caseUpdater;
+
     @Autowired
-    public AppealReceivedHandler(CcdService ccdService,
-                                 IdamService idamService) {
+    public AppealReceivedHandler(IdamService idamService,
+                                 ConflictResolvingCaseUpdater caseUpdater) {
         this.dispatchPriority = DispatchPriority.LATEST;
-        this.ccdService = ccdService;
         this.idamService = idamService;
+        this.caseUpdater = caseUpdater;
     }
 
     @Override
@@ -40,34 +48,35 @@ public class AppealReceivedHandler implements CallbackHandler<SscsCaseData> {
         requireNonNull(callbackType, "callbacktype must not be null");
 
         return callbackType.equals(CallbackType.SUBMITTED)
-            && (callback.getEvent() == EventType.VALID_APPEAL_CREATED
-            || callback.getEvent() == EventType.DRAFT_TO_VALID_APPEAL_CREATED
-            || callback.getEvent() == EventType.VALID_APPEAL
-            || callback.getEvent() == EventType.INTERLOC_VALID_APPEAL)
+            && canHandleEvent(callback.getEvent())
             && READY_TO_LIST.getId().equals(callback.getCaseDetails().getCaseData().getCreatedInGapsFrom());
     }
 
     @Override
-    @SuppressWarnings("squid:S2142")
     public void handle(CallbackType callbackType, Callback<SscsCaseData> callback) {
         if (!canHandle(callbackType, callback)) {
             throw new IllegalStateException("Cannot handle callback");
         }
 
-        try {
-            // This handler was causing 409 conflicts with Send to bulk print handler for digital cases as was trying to trigger the sent to dwp event at the same time.
-            // This sleep should resolve this issue until we address properly with tickets SSCS-7525 and SSCS-7526 which look at removing the appeal received event.
-            Thread.sleep(5000L);
-        } catch (InterruptedException e) {
-            log.error("Thread sleep interrupted: " + e.getMessage());
-        }
-
+        // Doing this at the same time as the send to bulk print handler's sent to dwp event was causing 409 conflicts
+        // for digital cases. The event is now reapplied to the latest case when it conflicts, so it no longer waits
+        // five seconds first. SSCS-7525 and SSCS-7526 look at removing the appeal received event.
         log.info("About to update case with appealReceived event for id {}", callback.getCaseDetails().getId());
-        ccdService.updateCase(callback.getCaseDetails().getCaseData(), callback.getCaseDetails().getId(), APPEAL_RECEIVED.getCcdType(), "Appeal received", "Appeal received event has been triggered from Evidence Share for digital case",  idamService.getIdamTokens());
+        caseUpdater.updateCase(callback.getCaseDetails().getCaseData(), callback.getCaseDetails().getId(), APPEAL_RECEIVED.getCcdType(), "Appeal received", "Appeal received event has been triggered from Evidence Share for digital case", idamService.getIdamTokens(), data -> { });
     }
 
     @Override
     public DispatchPriority getPriority() {
         return this.dispatchPriority;
     }
+
+    @Override
+    public boolean canHandleEvent(EventType eventType) {
+        return HANDLED_EVENTS.contains(eventType);
+    }
+
+    @Override
+    public boolean usesCaseDetailsBefore() {
+        return false;
+    }
 }
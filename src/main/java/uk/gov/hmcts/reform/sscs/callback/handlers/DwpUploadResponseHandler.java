@@ -4,6 +4,8 @@ import static java.util.Objects.requireNonNull;
 import static uk.gov.hmcts.reform.sscs.callback.handlers.HandlerUtils.isANewJointParty;
 import static uk.gov.hmcts.reform.sscs.ccd.domain.State.READY_TO_LIST;
 
+import java.util.EnumSet;
+import java.util.Set;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -23,6 +25,8 @@ import uk.gov.hmcts.reform.sscs.idam.IdamService;
 @Service
 public class DwpUploadResponseHandler implements CallbackHandler<SscsCaseData> {
 
+    private static final Set<EventType> HANDLED_EVENTS = EnumSet.of(EventType.DWP_UPLOAD_RESPONSE);
+
     private CcdService ccdService;
     private IdamService idamService;
 
@@ -151,4 +155,9 @@ public class DwpUploadResponseHandler implements CallbackHandler<SscsCaseData> {
     public DispatchPriority getPriority() {
         return DispatchPriority.LATEST;
     }
+
+    @Override
+    public boolean canHandleEvent(EventType eventType) {
+        return HANDLED_EVENTS.contains(eventType);
+    }
 }
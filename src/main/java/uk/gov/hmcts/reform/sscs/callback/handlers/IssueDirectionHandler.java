@@ -6,6 +6,8 @@ import static org.apache.commons.lang3.exception.ExceptionUtils.getRootCauseMess
 import static uk.gov.hmcts.reform.sscs.ccd.domain.EventType.APPEAL_TO_PROCEED;
 
 import feign.FeignException;
+import java.util.EnumSet;
+import java.util.Set;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -24,6 +26,8 @@ import uk.gov.hmcts.reform.sscs.idam.IdamService;
 @Service
 public class IssueDirectionHandler implements CallbackHandler<SscsCaseData> {
 
+    private static final Set<EventType> HANDLED_EVENTS = EnumSet.of(EventType.DIRECTION_ISSUED);
+
     private final DispatchPriority dispatchPriority;
 
     private final CcdService ccdService;
@@ -73,4 +77,14 @@ public class IssueDirectionHandler implements CallbackHandler<SscsCaseData> {
     public DispatchPriority getPriority() {
         return this.dispatchPriority;
     }
+
+    @Override
+    public boolean canHandleEvent(EventType eventType) {
+        return HANDLED_EVENTS.contains(eventType);
+    }
+
+    @Override
+    public boolean usesCaseDetailsBefore() {
+        return false;
+    }
 }
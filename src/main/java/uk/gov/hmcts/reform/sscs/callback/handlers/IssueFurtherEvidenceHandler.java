@@ -6,8 +6,11 @@ import static uk.gov.hmcts.reform.sscs.ccd.domain.YesNo.NO;
 import static uk.gov.hmcts.reform.sscs.ccd.domain.YesNo.YES;
 import static uk.gov.hmcts.reform.sscs.domain.FurtherEvidenceLetterType.*;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -22,22 +25,27 @@ import uk.gov.hmcts.reform.sscs.domain.FurtherEvidenceLetterType;
 import uk.gov.hmcts.reform.sscs.exception.IssueFurtherEvidenceException;
 import uk.gov.hmcts.reform.sscs.exception.PostIssueFurtherEvidenceTasksException;
 import uk.gov.hmcts.reform.sscs.idam.IdamService;
+import uk.gov.hmcts.reform.sscs.service.CaseDataDiff;
 import uk.gov.hmcts.reform.sscs.service.FurtherEvidenceService;
 
 @Service
 @Slf4j
 public class IssueFurtherEvidenceHandler implements CallbackHandler<SscsCaseData> {
 
+    private static final Set<EventType> HANDLED_EVENTS = EnumSet.of(EventType.ISSUE_FURTHER_EVIDENCE);
+
     private final FurtherEvidenceService furtherEvidenceService;
     private final CcdService ccdService;
     private final IdamService idamService;
+    private final CaseDataDiff caseDataDiff;
 
     @Autowired
     public IssueFurtherEvidenceHandler(FurtherEvidenceService furtherEvidenceService, CcdService ccdService,
-                                       IdamService idamService) {
+                                       IdamService idamService, CaseDataDiff caseDataDiff) {
         this.furtherEvidenceService = furtherEvidenceService;
         this.ccdService = ccdService;
         this.idamService = idamService;
+        this.caseDataDiff = caseDataDiff;
     }
 
     @Override
@@ -57,11 +65,12 @@ public class IssueFurtherEvidenceHandler implements CallbackHandler<SscsCaseData
         log.info("Handling with Issue Further Evidence Handler");
 
         SscsCaseData caseData = callback.getCaseDetails().getCaseData();
+        JsonNode received = caseDataDiff.snapshot(caseData);
 
         issueFurtherEvidence(caseData);
 
 
-        postIssueFurtherEvidenceTasks(caseData);
+        postIssueFurtherEvidenceTasks(caseData, received);
     }
 
     private void issueFurtherEvidence(SscsCaseData caseData) {
@@ -83,18 +92,22 @@ public class IssueFurtherEvidenceHandler implements CallbackHandler<SscsCaseData
         log.info("Issued for caseId {}", caseData.getCcdCaseId());
     }
 
-    private void postIssueFurtherEvidenceTasks(SscsCaseData caseData) {
+    private void postIssueFurtherEvidenceTasks(SscsCaseData caseData, JsonNode received) {
         log.debug("Post Issue Tasks for caseId {}", caseData.getCcdCaseId());
         try {
             if (caseData.getReasonableAdjustmentsLetters() != null) {
                 final SscsCaseDetails sscsCaseDetails = ccdService.getByCaseId(Long.valueOf(caseData.getCcdCaseId()), idamService.getIdamTokens());
                 caseData = sscsCaseDetails.getData();
+                received = caseDataDiff.snapshot(caseData);
             }
 
             final String description = determineDescription(caseData.getSscsDocument());
 
             setEvidenceIssuedFlagToYes(caseData.getSscsDocument());
-            
+
+            if (!caseDataDiff.needsUpdate(received, caseData, EventType.UPDATE_CASE_ONLY.getCcdType())) {
+                return;
+            }
             ccdService.updateCase(caseData, Long.valueOf(caseData.getCcdCaseId()),
                 EventType.UPDATE_CASE_ONLY.getCcdType(),
                 "Update case data",
@@ -141,4 +154,19 @@ public class IssueFurtherEvidenceHandler implements CallbackHandler<SscsCaseData
     public DispatchPriority getPriority() {
         return DispatchPriority.LATEST;
     }
+
+    @Override
+    public boolean canHandleEvent(EventType eventType) {
+        return HANDLED_EVENTS.contains(eventType);
+    }
+
+    @Override
+    public boolean usesCaseDetailsBefore() {
+        return false;
+    }
+
+    @Override
+    public boolean isHeavy() {
+        return true;
+    }
 }
@@ -4,10 +4,19 @@ import static java.util.Objects.requireNonNull;
 import static uk.gov.hmcts.reform.sscs.ccd.domain.EventType.ASSOCIATE_CASE;
 
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 import uk.gov.hmcts.reform.sscs.callback.CallbackHandler;
 import uk.gov.hmcts.reform.sscs.ccd.callback.Callback;
@@ -17,23 +26,40 @@ import uk.gov.hmcts.reform.sscs.ccd.domain.*;
 import uk.gov.hmcts.reform.sscs.ccd.service.CcdService;
 import uk.gov.hmcts.reform.sscs.idam.IdamService;
 import uk.gov.hmcts.reform.sscs.idam.IdamTokens;
+import uk.gov.hmcts.reform.sscs.service.NinoCaseIndex;
 
 @Slf4j
 @Service
 public class ReciprocalLinkHandler implements CallbackHandler<SscsCaseData> {
 
+    private static final Set<EventType> HANDLED_EVENTS = EnumSet.of(
+        EventType.VALID_APPEAL_CREATED,
+        EventType.DRAFT_TO_VALID_APPEAL_CREATED,
+        EventType.NON_COMPLIANT,
+        EventType.DRAFT_TO_NON_COMPLIANT,
+        EventType.INCOMPLETE_APPLICATION_RECEIVED,
+        EventType.DRAFT_TO_INCOMPLETE_APPLICATION);
+
     private final DispatchPriority dispatchPriority;
 
     private final CcdService ccdService;
 
     private final IdamService idamService;
 
+    private final NinoCaseIndex ninoCaseIndex;
+
+    private final Executor executor;
+
     @Autowired
     public ReciprocalLinkHandler(CcdService ccdService,
-                                 IdamService idamService) {
+                                 IdamService idamService,
+                                 NinoCaseIndex ninoCaseIndex,
+                                 @Qualifier("reciprocalLinkExecutor") Executor executor) {
         this.dispatchPriority = DispatchPriority.LATEST;
         this.ccdService = ccdService;
         this.idamService = idamService;
+        this.ninoCaseIndex = ninoCaseIndex;
+        this.executor = executor;
     }
 
     @Override
@@ -42,12 +68,7 @@ public class ReciprocalLinkHandler implements CallbackHandler<SscsCaseData> {
         requireNonNull(callbackType, "callbacktype must not be null");
 
         return callbackType.equals(CallbackType.SUBMITTED)
-            && (callback.getEvent() == EventType.VALID_APPEAL_CREATED
-            || callback.getEvent() == EventType.DRAFT_TO_VALID_APPEAL_CREATED
-            || callback.getEvent() == EventType.NON_COMPLIANT
-            || callback.getEvent() == EventType.DRAFT_TO_NON_COMPLIANT
-            || callback.getEvent() == EventType.INCOMPLETE_APPLICATION_RECEIVED
-            || callback.getEvent() == EventType.DRAFT_TO_INCOMPLETE_APPLICATION);
+            && canHandleEvent(callback.getEvent());
     }
 
     @Override
@@ -58,14 +79,14 @@ public class ReciprocalLinkHandler implements CallbackHandler<SscsCaseData> {
 
         log.info("Reciprocal link handler for case id {}", callback.getCaseDetails().getId());
 
-        IdamTokens idamTokens = idamService.getIdamTokens();
-
         if (callback.getCaseDetails().getCaseData().getAppeal().getAppellant().getIdentity() != null
             && !StringUtils.isEmpty(callback.getCaseDetails().getCaseData().getAppeal().getAppellant().getIdentity().getNino())) {
 
             String nino = callback.getCaseDetails().getCaseData().getAppeal().getAppellant().getIdentity().getNino();
 
-            List<SscsCaseDetails> matchedByNinoCases = getMatchedCases(nino, idamTokens);
+            IdamTokens idamTokens = idamService.getIdamTokens();
+
+            List<SscsCaseDetails> matchedByNinoCases = getMatchedCases(nino, callback.getCaseDetails().getId(), idamTokens);
 
             if (matchedByNinoCases.size() > 0) {
                 log.info("Found " + matchedByNinoCases.size() + " matching cases for Nino " + nino);
@@ -75,37 +96,98 @@ public class ReciprocalLinkHandler implements CallbackHandler<SscsCaseData> {
         }
     }
 
-    protected List<SscsCaseDetails> getMatchedCases(String nino, IdamTokens idamTokens) {
-        return ccdService.findCaseBy("data.appeal.appellant.identity.nino", nino, idamTokens);
+    /**
+     * The cases found by searching CCD for the NINO, with their data. When the search is reused for a retry of the
+     * same case only the ids are known, so those cases are read again before they are linked.
+     */
+    protected List<SscsCaseDetails> getMatchedCases(String nino, Long caseId, IdamTokens idamTokens) {
+        Optional<Set<Long>> searched = ninoCaseIndex.find(nino, caseId);
+        if (searched.isPresent()) {
+            return searched.get().stream()
+                .map(id -> SscsCaseDetails.builder().id(id).build())
+                .collect(Collectors.toList());
+        }
+        List<SscsCaseDetails> cases = ccdService.findCaseBy("data.appeal.appellant.identity.nino", nino, idamTokens);
+        ninoCaseIndex.put(nino, caseId, cases.stream().map(SscsCaseDetails::getId).collect(Collectors.toSet()));
+        return cases;
     }
 
+    /**
+     * Links the matched cases back to this one, up to {@code reciprocal-link.threads} at once across the service,
+     * and waits for all of them so the message is only acknowledged once every link has been made. The first
+     * failure is rethrown once the other links have finished.
+     */
     private void backLinkAssociatedCases(Long caseId, List<SscsCaseDetails> matchedByNinoCases, IdamTokens idamTokens) {
 
         if (matchedByNinoCases.size() > 0 && matchedByNinoCases.size() < 11) {
 
-            CaseLink caseLink = CaseLink.builder().value(
-                CaseLinkDetails.builder().caseReference(caseId.toString()).build()).build();
+            List<CompletableFuture<Void>> links = matchedByNinoCases.stream()
+                .filter(matchedCase -> !matchedCase.getId().equals(caseId))
+                .map(matchedCase -> backLinkAsync(matchedCase, caseId.toString(), idamTokens))
+                .collect(Collectors.toList());
 
-            for (SscsCaseDetails matchedCase : matchedByNinoCases) {
+            try {
+                CompletableFuture.allOf(links.toArray(new CompletableFuture[0])).join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        }
+    }
 
-                if (!matchedCase.getId().equals(caseId)) {
+    private CompletableFuture<Void> backLinkAsync(SscsCaseDetails matchedCase, String linkedCaseId, IdamTokens idamTokens) {
+        try {
+            return CompletableFuture.runAsync(() -> backLink(matchedCase, linkedCaseId, idamTokens), executor);
+        } catch (RejectedExecutionException e) {
+            backLink(matchedCase, linkedCaseId, idamTokens);
+            return CompletableFuture.completedFuture(null);
+        }
+    }
 
-                    List<CaseLink> caseLinks = matchedCase.getData().getAssociatedCase() != null ? matchedCase.getData().getAssociatedCase() : new ArrayList<>();
+    /**
+     * Adds the link unless the matched case already has it, e.g. from an earlier attempt at this message. The data
+     * found by the search is used as it is, a case only known by its id is read first.
+     */
+    private void backLink(SscsCaseDetails matchedCase, String linkedCaseId, IdamTokens idamTokens) {
+        Long matchedCaseId = matchedCase.getId();
+        SscsCaseData caseData = matchedCase.getData();
+        if (caseData == null) {
+            SscsCaseDetails latest = ccdService.getByCaseId(matchedCaseId, idamTokens);
+            if (latest == null) {
+                log.warn("Case id {} no longer exists so cannot be back linked to case id {}", matchedCaseId, linkedCaseId);
+                return;
+            }
+            caseData = latest.getData();
+        }
 
-                    caseLinks.add(caseLink);
-                    matchedCase.getData().setAssociatedCase(caseLinks);
-                    matchedCase.getData().setLinkedCasesBoolean("Yes");
+        List<CaseLink> caseLinks = caseData.getAssociatedCase() != null ? new ArrayList<>(caseData.getAssociatedCase()) : new ArrayList<>();
+        boolean alreadyLinked = caseLinks.stream()
+            .anyMatch(link -> link.getValue() != null && linkedCaseId.equals(link.getValue().getCaseReference()));
+        if (alreadyLinked) {
+            log.info("Case id {} is already back linked to case id {}", matchedCaseId, linkedCaseId);
+            return;
+        }
 
-                    log.info("Back linking case id {} to case id {}", caseId, matchedCase.getId().toString());
+        caseLinks.add(CaseLink.builder().value(CaseLinkDetails.builder().caseReference(linkedCaseId).build()).build());
+        caseData.setAssociatedCase(caseLinks);
+        caseData.setLinkedCasesBoolean("Yes");
 
-                    ccdService.updateCase(matchedCase.getData(), matchedCase.getId(), ASSOCIATE_CASE.getCcdType(), "Associate case", "Associated case added", idamTokens);
-                }
-            }
-        }
+        log.info("Back linking case id {} to case id {}", linkedCaseId, matchedCaseId);
+
+        ccdService.updateCase(caseData, matchedCaseId, ASSOCIATE_CASE.getCcdType(), "Associate case", "Associated case added", idamTokens);
     }
 
     @Override
     public DispatchPriority getPriority() {
         return this.dispatchPriority;
     }
+
+    @Override
+    public boolean canHandleEvent(EventType eventType) {
+        return HANDLED_EVENTS.contains(eventType);
+    }
+
+    @Override
+    public boolean usesCaseDetailsBefore() {
+        return false;
+    }
 }
@@ -5,8 +5,10 @@ import static java.util.Objects.requireNonNull;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Stream;
 import org.apache.commons.collections4.CollectionUtils;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -25,6 +27,8 @@ import uk.gov.hmcts.reform.sscs.service.FurtherEvidenceService;
 @Service
 public class ReissueFurtherEvidenceHandler implements CallbackHandler<SscsCaseData> {
 
+    private static final Set<EventType> HANDLED_EVENTS = EnumSet.of(EventType.REISSUE_FURTHER_EVIDENCE);
+
     private FurtherEvidenceService furtherEvidenceService;
     private CcdService ccdService;
     private IdamService idamService;
@@ -133,4 +137,19 @@ public class ReissueFurtherEvidenceHandler implements CallbackHandler<SscsCaseDa
     public DispatchPriority getPriority() {
         return DispatchPriority.LATEST;
     }
+
+    @Override
+    public boolean canHandleEvent(EventType eventType) {
+        return HANDLED_EVENTS.contains(eventType);
+    }
+
+    @Override
+    public boolean usesCaseDetailsBefore() {
+        return false;
+    }
+
+    @Override
+    public boolean isHeavy() {
+        return true;
+    }
 }
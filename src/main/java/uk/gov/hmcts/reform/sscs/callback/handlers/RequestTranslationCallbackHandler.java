@@ -4,6 +4,9 @@ import static java.util.Objects.requireNonNull;
 import static uk.gov.hmcts.reform.sscs.ccd.domain.EventType.CASE_UPDATED;
 import static uk.gov.hmcts.reform.sscs.ccd.domain.EventType.REQUEST_TRANSLATION_FROM_WLU;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import java.util.EnumSet;
+import java.util.Set;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -11,28 +14,35 @@ import uk.gov.hmcts.reform.sscs.callback.CallbackHandler;
 import uk.gov.hmcts.reform.sscs.ccd.callback.Callback;
 import uk.gov.hmcts.reform.sscs.ccd.callback.CallbackType;
 import uk.gov.hmcts.reform.sscs.ccd.callback.DispatchPriority;
+import uk.gov.hmcts.reform.sscs.ccd.domain.EventType;
 import uk.gov.hmcts.reform.sscs.ccd.domain.SscsCaseData;
 import uk.gov.hmcts.reform.sscs.ccd.service.CcdService;
 import uk.gov.hmcts.reform.sscs.exception.WelshException;
 import uk.gov.hmcts.reform.sscs.idam.IdamService;
+import uk.gov.hmcts.reform.sscs.service.CaseDataDiff;
 import uk.gov.hmcts.reform.sscs.service.RequestTranslationService;
 
 @Slf4j
 @Service
 public class RequestTranslationCallbackHandler implements CallbackHandler<SscsCaseData> {
 
+    private static final Set<EventType> HANDLED_EVENTS = EnumSet.of(EventType.REQUEST_TRANSLATION_FROM_WLU);
+
     private final RequestTranslationService requestTranslationService;
     private final DispatchPriority dispatchPriority;
     private final CcdService ccdService;
     private final IdamService idamService;
+    private final CaseDataDiff caseDataDiff;
 
     @Autowired
     public RequestTranslationCallbackHandler(RequestTranslationService requestTranslationService,
                                              CcdService ccdService,
-                                             IdamService idamService) {
+                                             IdamService idamService,
+                                             CaseDataDiff caseDataDiff) {
         this.requestTranslationService = requestTranslationService;
         this.ccdService = ccdService;
         this.idamService = idamService;
+        this.caseDataDiff = caseDataDiff;
         this.dispatchPriority = DispatchPriority.EARLIEST;
     }
 
@@ -56,7 +66,9 @@ public class RequestTranslationCallbackHandler implements CallbackHandler<SscsCa
 
         try {
             log.info("sending email for case  id {}", callback.getCaseDetails().getId());
-            if (requestTranslationService.sendCaseToWlu(callback.getCaseDetails()) && callback.getEvent() == REQUEST_TRANSLATION_FROM_WLU) {
+            JsonNode received = caseDataDiff.snapshot(callback.getCaseDetails().getCaseData());
+            if (requestTranslationService.sendCaseToWlu(callback.getCaseDetails()) && callback.getEvent() == REQUEST_TRANSLATION_FROM_WLU
+                && caseDataDiff.needsUpdate(received, callback.getCaseDetails().getCaseData(), CASE_UPDATED.getCcdType())) {
                 ccdService.updateCase(callback.getCaseDetails().getCaseData(), Long.valueOf(callback.getCaseDetails().getCaseData().getCcdCaseId()),
                         CASE_UPDATED.getCcdType(), "Case translations sent to wlu", "Updated case with date sent to wlu",
                         idamService.getIdamTokens());
@@ -71,4 +83,19 @@ public class RequestTranslationCallbackHandler implements CallbackHandler<SscsCa
     public DispatchPriority getPriority() {
         return this.dispatchPriority;
     }
-}
\ No newline at end of file
+
+    @Override
+    public boolean canHandleEvent(EventType eventType) {
+        return HANDLED_EVENTS.contains(eventType);
+    }
+
+    @Override
+    public boolean usesCaseDetailsBefore() {
+        return false;
+    }
+
+    @Override
+    public boolean isHeavy() {
+        return true;
+    }
+}
@@ -4,7 +4,12 @@ import static java.util.Objects.requireNonNull;
 import static org.apache.commons.lang3.StringUtils.equalsIgnoreCase;
 import static uk.gov.hmcts.reform.sscs.ccd.domain.EventType.*;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import java.time.LocalDate;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -13,35 +18,51 @@ import uk.gov.hmcts.reform.sscs.ccd.callback.Callback;
 import uk.gov.hmcts.reform.sscs.ccd.callback.CallbackType;
 import uk.gov.hmcts.reform.sscs.ccd.callback.DispatchPriority;
 import uk.gov.hmcts.reform.sscs.ccd.domain.*;
-import uk.gov.hmcts.reform.sscs.ccd.service.CcdService;
 import uk.gov.hmcts.reform.sscs.idam.IdamService;
-import uk.gov.hmcts.reform.sscs.service.RegionalProcessingCenterService;
+import uk.gov.hmcts.reform.sscs.service.CaseDataDiff;
+import uk.gov.hmcts.reform.sscs.service.ConflictResolvingCaseUpdater;
+import uk.gov.hmcts.reform.sscs.service.ReferenceDataLookup;
 import uk.gov.hmcts.reform.sscs.service.RoboticsService;
 
 @Slf4j
 @Service
 public class RoboticsCallbackHandler implements CallbackHandler<SscsCaseData> {
 
+    private static final Set<EventType> HANDLED_EVENTS = EnumSet.of(
+        EventType.VALID_APPEAL_CREATED,
+        EventType.APPEAL_TO_PROCEED,
+        EventType.READY_TO_LIST,
+        EventType.VALID_APPEAL,
+        EventType.INTERLOC_VALID_APPEAL,
+        EventType.REVIEW_CONFIDENTIALITY_REQUEST,
+        EventType.SEND_TO_DWP,
+        EventType.DWP_RAISE_EXCEPTION,
+        EventType.RESEND_CASE_TO_GAPS2);
+
     private final RoboticsService roboticsService;
 
     private final DispatchPriority dispatchPriority;
 
-    private final CcdService ccdService;
+    private final ConflictResolvingCaseUpdater caseUpdater;
 
     private final IdamService idamService;
 
-    private final RegionalProcessingCenterService regionalProcessingCenterService;
+    private final ReferenceDataLookup referenceDataLookup;
+
+    private final CaseDataDiff caseDataDiff;
 
     @Autowired
     public RoboticsCallbackHandler(RoboticsService roboticsService,
-                                   CcdService ccdService,
+                                   ConflictResolvingCaseUpdater caseUpdater,
                                    IdamService idamService,
-                                   RegionalProcessingCenterService regionalProcessingCenterService
+                                   ReferenceDataLookup referenceDataLookup,
+                                   CaseDataDiff caseDataDiff
     ) {
         this.roboticsService = roboticsService;
-        this.ccdService = ccdService;
+        this.caseUpdater = caseUpdater;
         this.idamService = idamService;
-        this.regionalProcessingCenterService = regionalProcessingCenterService;
+        this.referenceDataLookup = referenceDataLookup;
+        this.caseDataDiff = caseDataDiff;
         this.dispatchPriority = DispatchPriority.EARLIEST;
     }
 
@@ -76,6 +97,7 @@ public class RoboticsCallbackHandler implements CallbackHandler<SscsCaseData> {
             log.info("Is case valid to send to robotics {} for case id {}", isCaseValidToSendToRobotics, callback.getCaseDetails().getId());
 
             if (isCaseValidToSendToRobotics) {
+                JsonNode received = caseDataDiff.snapshot(callback.getCaseDetails().getCaseData());
                 updateRpc(callback);
                 roboticsService.sendCaseToRobotics(callback.getCaseDetails());
 
@@ -84,7 +106,8 @@ public class RoboticsCallbackHandler implements CallbackHandler<SscsCaseData> {
                 // end up with a concurrent case modification error from CCD. Therefore, this is an attempt to safely update the case. For events not handled in SendToBulkPrintHandler then trigger a separate updateCase event.
                 // For events that are handled in the SendToBulkPrintHandler then just update the case data here, as the case would be saved to CCD further down the chain as part of the sentToDwp event in SendToBulkPrintHandler.
 
-                callback.getCaseDetails().getCaseData().setDateCaseSentToGaps(LocalDate.now().toString());
+                SscsCaseData caseData = callback.getCaseDetails().getCaseData();
+                caseData.setDateCaseSentToGaps(LocalDate.now().toString());
 
                 String ccdEventType = null;
                 if (callback.getEvent() == REVIEW_CONFIDENTIALITY_REQUEST
@@ -95,10 +118,15 @@ public class RoboticsCallbackHandler implements CallbackHandler<SscsCaseData> {
                     ccdEventType = CASE_UPDATED.getCcdType();
                 }
 
-                if (ccdEventType != null) {
-                    ccdService.updateCase(callback.getCaseDetails().getCaseData(), Long.valueOf(callback.getCaseDetails().getCaseData().getCcdCaseId()),
+                if (ccdEventType != null && caseDataDiff.needsUpdate(received, caseData, ccdEventType)) {
+                    // only the fields set here are carried over if the case has to be read again after a conflict
+                    caseUpdater.updateCase(caseData, Long.valueOf(caseData.getCcdCaseId()),
                         ccdEventType, "Case sent to robotics", "Updated case with date sent to robotics",
-                        idamService.getIdamTokens());
+                        idamService.getIdamTokens(), latest -> {
+                            latest.setRegionalProcessingCenter(caseData.getRegionalProcessingCenter());
+                            latest.setRegion(caseData.getRegion());
+                            latest.setDateCaseSentToGaps(caseData.getDateCaseSentToGaps());
+                        });
                 }
             }
         } catch (Exception e) {
@@ -106,12 +134,20 @@ public class RoboticsCallbackHandler implements CallbackHandler<SscsCaseData> {
         }
     }
 
+    @Override
+    public List<String> documentsToPrefetch(CallbackType callbackType, Callback<SscsCaseData> callback) {
+        if (canHandle(callbackType, callback) && checkCaseValidToSendToRobotics(callback)) {
+            return roboticsService.documentsToDownload(callback.getCaseDetails().getCaseData());
+        }
+        return Collections.emptyList();
+    }
+
     private void updateRpc(final Callback<SscsCaseData> callback) {
         // Updating the RPC also done on CASE_UPDATED in tribunals-api.
         // We should update the case details before sending robotics.
         final SscsCaseData sscsCaseData = callback.getCaseDetails().getCaseData();
         if (sscsCaseData.getAppeal().getAppellant() != null && sscsCaseData.getAppeal().getAppellant().getAddress() != null && sscsCaseData.getAppeal().getAppellant().getAddress().getPostcode() != null) {
-            RegionalProcessingCenter rpc = regionalProcessingCenterService.getByPostcode(sscsCaseData.getAppeal().getAppellant().getAddress().getPostcode());
+            RegionalProcessingCenter rpc = referenceDataLookup.getByPostcode(sscsCaseData.getAppeal().getAppellant().getAddress().getPostcode());
             sscsCaseData.setRegionalProcessingCenter(rpc);
 
             if (rpc != null) {
@@ -143,4 +179,19 @@ public class RoboticsCallbackHandler implements CallbackHandler<SscsCaseData> {
     public DispatchPriority getPriority() {
         return this.dispatchPriority;
     }
+
+    @Override
+    public boolean canHandleEvent(EventType eventType) {
+        return HANDLED_EVENTS.contains(eventType);
+    }
+
+    @Override
+    public boolean usesCaseDetailsBefore() {
+        return false;
+    }
+
+    @Override
+    public boolean isHeavy() {
+        return true;
+    }
 }
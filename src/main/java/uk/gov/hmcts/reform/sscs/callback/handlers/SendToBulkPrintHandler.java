@@ -8,9 +8,7 @@ import feign.FeignException;
 import java.net.URI;
 import java.time.LocalDate;
 import java.util.*;
-import java.util.function.Supplier;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -29,9 +27,10 @@ import uk.gov.hmcts.reform.sscs.exception.*;
 import uk.gov.hmcts.reform.sscs.factory.DocumentRequestFactory;
 import uk.gov.hmcts.reform.sscs.idam.IdamService;
 import uk.gov.hmcts.reform.sscs.idam.IdamTokens;
+import uk.gov.hmcts.reform.sscs.idempotency.HandlerCheckpoints;
 import uk.gov.hmcts.reform.sscs.model.BulkPrintInfo;
 import uk.gov.hmcts.reform.sscs.service.DocumentManagementServiceWrapper;
-import uk.gov.hmcts.reform.sscs.service.EvidenceManagementService;
+import uk.gov.hmcts.reform.sscs.service.DocumentPrefetcher;
 import uk.gov.hmcts.reform.sscs.service.PrintService;
 
 /*
@@ -43,15 +42,27 @@ import uk.gov.hmcts.reform.sscs.service.PrintService;
 @Service
 public class SendToBulkPrintHandler implements CallbackHandler<SscsCaseData> {
 
+    private static final Set<EventType> HANDLED_EVENTS = EnumSet.of(
+        EventType.VALID_APPEAL_CREATED,
+        EventType.DRAFT_TO_VALID_APPEAL_CREATED,
+        EventType.VALID_APPEAL,
+        EventType.INTERLOC_VALID_APPEAL,
+        EventType.APPEAL_TO_PROCEED,
+        EventType.SEND_TO_DWP,
+        EventType.RESEND_TO_DWP);
+
     private static final String DM_STORE_USER_ID = "sscs";
     private static final String SENT_TO_DWP = "Sent to DWP";
+    private static final String CHECKPOINT_NAME = SendToBulkPrintHandler.class.getSimpleName();
+    private static final String DL_DOCUMENT_STEP = "dl-document";
+    private static final String BULK_PRINT_STEP = "bulk-print";
     private final DispatchPriority dispatchPriority;
 
     private final DocumentManagementServiceWrapper documentManagementServiceWrapper;
 
     private final DocumentRequestFactory documentRequestFactory;
 
-    private final EvidenceManagementService evidenceManagementService;
+    private final DocumentPrefetcher documentPrefetcher;
 
     private final PrintService bulkPrintService;
 
@@ -61,23 +72,27 @@ public class SendToBulkPrintHandler implements CallbackHandler<SscsCaseData> {
 
     private final IdamService idamService;
 
+    private final HandlerCheckpoints handlerCheckpoints;
+
     @Autowired
     public SendToBulkPrintHandler(DocumentManagementServiceWrapper documentManagementServiceWrapper,
                                   DocumentRequestFactory documentRequestFactory,
-                                  EvidenceManagementService evidenceManagementService,
+                                  DocumentPrefetcher documentPrefetcher,
                                   PrintService bulkPrintService,
                                   EvidenceShareConfig evidenceShareConfig,
                                   CcdService ccdService,
-                                  IdamService idamService
+                                  IdamService idamService,
+                                  HandlerCheckpoints handlerCheckpoints
     ) {
         this.dispatchPriority = DispatchPriority.LATE;
         this.documentManagementServiceWrapper = documentManagementServiceWrapper;
         this.documentRequestFactory = documentRequestFactory;
-        this.evidenceManagementService = evidenceManagementService;
+        this.documentPrefetcher = documentPrefetcher;
         this.bulkPrintService = bulkPrintService;
         this.evidenceShareConfig = evidenceShareConfig;
         this.ccdService = ccdService;
         this.idamService = idamService;
+        this.handlerCheckpoints = handlerCheckpoints;
     }
 
     @Override
@@ -109,9 +124,11 @@ public class SendToBulkPrintHandler implements CallbackHandler<SscsCaseData> {
         try {
             bulkPrintInfo = bulkPrintCase(callback);
         } catch (NonPdfBulkPrintException | UnableToContactThirdPartyException | NoDl6DocumentException e) {
+            rethrowIfDownstreamUnavailable(e);
             log.info(format("Error when bulk-printing caseId: %s. %s", callback.getCaseDetails().getId(), e.getMessage()), e);
             updateCaseToFlagError(caseData, e.getMessage());
         } catch (Exception e) {
+            rethrowIfDownstreamUnavailable(e);
             log.info("Error when bulk-printing caseId: {}", callback.getCaseDetails().getId(), e);
             updateCaseToFlagError(caseData, "Send to DWP Error event has been triggered from Evidence Share service");
         }
@@ -123,6 +140,14 @@ public class SendToBulkPrintHandler implements CallbackHandler<SscsCaseData> {
         return this.dispatchPriority;
     }
 
+    // The message is redelivered once the downstream is back, so this is not a reason to flag a send to DWP error
+    private static void rethrowIfDownstreamUnavailable(Exception e) {
+        Optional<DownstreamUnavailableException> unavailable = DownstreamUnavailableException.findIn(e);
+        if (unavailable.isPresent()) {
+            throw unavailable.get();
+        }
+    }
+
     private void updateCaseToFlagError(SscsCaseData caseData, String description) {
         caseData.setHmctsDwpState("failedSending");
         ccdService.updateCase(caseData,
@@ -156,12 +181,31 @@ public class SendToBulkPrintHandler implements CallbackHandler<SscsCaseData> {
         }
     }
 
+    @Override
+    public List<String> documentsToPrefetch(CallbackType callbackType, Callback<SscsCaseData> callback) {
+        SscsCaseData caseData = callback.getCaseDetails().getCaseData();
+        if (!canHandle(callbackType, callback) || !isAllowedReceivedTypeForBulkPrint(caseData)
+            || handlerCheckpoints.load(CHECKPOINT_NAME, BULK_PRINT_STEP, BulkPrintInfo.class).isPresent()) {
+            return Collections.emptyList();
+        }
+        return getSscsDocumentsToPrint(caseData.getSscsDocument()).stream()
+            .map(doc -> doc.getValue().getDocumentLink().getDocumentUrl())
+            .collect(Collectors.toList());
+    }
+
     private BulkPrintInfo bulkPrintCase(Callback<SscsCaseData> sscsCaseDataCallback) {
         SscsCaseData caseData = sscsCaseDataCallback.getCaseDetails().getCaseData();
         if (isAllowedReceivedTypeForBulkPrint(sscsCaseDataCallback.getCaseDetails().getCaseData())) {
 
             log.info("Processing bulk print tasks for case id {}", sscsCaseDataCallback.getCaseDetails().getId());
 
+            Optional<BulkPrintInfo> alreadyPrinted = handlerCheckpoints.load(CHECKPOINT_NAME, BULK_PRINT_STEP, BulkPrintInfo.class);
+            if (alreadyPrinted.isPresent()) {
+                log.info("Case id {} was already sent to bulk print with id {}, resuming after printing",
+                    sscsCaseDataCallback.getCaseDetails().getId(), alreadyPrinted.get().getUuid().orElse(null));
+                return alreadyPrinted.get();
+            }
+
             DocumentHolder holder = documentRequestFactory.create(sscsCaseDataCallback.getCaseDetails().getCaseData(),
                 sscsCaseDataCallback.getCaseDetails().getCaseData().getCaseCreated());
 
@@ -178,7 +222,7 @@ public class SendToBulkPrintHandler implements CallbackHandler<SscsCaseData> {
             } catch (FeignException e) {
                 throw new UnableToContactThirdPartyException("idam", e);
             }
-            documentManagementServiceWrapper.generateDocumentAndAddToCcd(holder, caseData, idamTokens);
+            generateOrRestoreDlDocument(holder, caseData, idamTokens);
             List<SscsDocument> sscsDocuments = getSscsDocumentsToPrint(caseData.getSscsDocument());
             if (CollectionUtils.isEmpty(sscsDocuments)
                     || !documentManagementServiceWrapper.checkIfDlDocumentAlreadyExists(sscsDocuments)) {
@@ -197,6 +241,7 @@ public class SendToBulkPrintHandler implements CallbackHandler<SscsCaseData> {
                     .allowedTypeForBulkPrint(true)
                     .desc(buildEventDescription(existingCasePdfs, id.get()))
                     .build();
+                handlerCheckpoints.save(CHECKPOINT_NAME, BULK_PRINT_STEP, info);
 
                 return info;
             } else {
@@ -216,6 +261,30 @@ public class SendToBulkPrintHandler implements CallbackHandler<SscsCaseData> {
         }
     }
 
+    private void generateOrRestoreDlDocument(DocumentHolder holder, SscsCaseData caseData, IdamTokens idamTokens) {
+        Optional<SscsDocument> generated = handlerCheckpoints.load(CHECKPOINT_NAME, DL_DOCUMENT_STEP, SscsDocument.class);
+        if (generated.isPresent()) {
+            log.info("Using the DL document generated by an earlier attempt for case id {}", caseData.getCcdCaseId());
+            List<SscsDocument> documents = caseData.getSscsDocument() == null
+                ? new ArrayList<>() : new ArrayList<>(caseData.getSscsDocument());
+            if (!documentManagementServiceWrapper.checkIfDlDocumentAlreadyExists(documents)) {
+                documents.add(generated.get());
+                caseData.setSscsDocument(documents);
+            }
+            return;
+        }
+
+        documentManagementServiceWrapper.generateDocumentAndAddToCcd(holder, caseData, idamTokens);
+        if (caseData.getSscsDocument() != null) {
+            caseData.getSscsDocument().stream()
+                .filter(doc -> nonNull(doc.getValue()) && nonNull(doc.getValue().getDocumentType()))
+                .filter(doc -> doc.getValue().getDocumentType().equalsIgnoreCase("dl6")
+                    || doc.getValue().getDocumentType().equalsIgnoreCase("dl16"))
+                .findFirst()
+                .ifPresent(dlDocument -> handlerCheckpoints.save(CHECKPOINT_NAME, DL_DOCUMENT_STEP, dlDocument));
+        }
+    }
+
     private String buildEventDescription(List<Pdf> pdfs, UUID bulkPrintId) {
         List<String> arr = new ArrayList<>();
 
@@ -243,7 +312,11 @@ public class SendToBulkPrintHandler implements CallbackHandler<SscsCaseData> {
             return Collections.emptyList();
         }
 
-        Supplier<Stream<SscsDocument>> sscsDocumentStream = () -> sscsDocument.stream()
+        List<SscsDocument> dlDocs = new ArrayList<>();
+        List<SscsDocument> appealDocs = new ArrayList<>();
+        List<SscsDocument> allOtherDocs = new ArrayList<>();
+
+        sscsDocument.stream()
             .filter(doc -> nonNull(doc)
                 && nonNull(doc.getValue())
                 && nonNull(doc.getValue().getDocumentFileName())
@@ -251,9 +324,22 @@ public class SendToBulkPrintHandler implements CallbackHandler<SscsCaseData> {
                 && nonNull(doc.getValue().getDocumentLink())
                 && nonNull(doc.getValue().getDocumentLink().getDocumentUrl())
                 && StringUtils.containsIgnoreCase(doc.getValue().getDocumentFileName(), ".pdf")
-            );
-
-        return buildStreamOfDocuments(sscsDocumentStream);
+            )
+            .forEach(doc -> {
+                String documentType = doc.getValue().getDocumentType();
+                if (documentType.equals("dl6") || documentType.equals("dl16")) {
+                    dlDocs.add(doc);
+                } else if (documentType.equals("sscs1")) {
+                    appealDocs.add(doc);
+                } else {
+                    allOtherDocs.add(doc);
+                }
+            });
+
+        List<SscsDocument> documents = new ArrayList<>(dlDocs);
+        documents.addAll(appealDocs);
+        documents.addAll(allOtherDocs);
+        return documents;
     }
 
     private List<Pdf> toPdf(List<SscsDocument> sscsDocuments) {
@@ -266,21 +352,9 @@ public class SendToBulkPrintHandler implements CallbackHandler<SscsCaseData> {
         return pdfs;
     }
 
-    private List<SscsDocument> buildStreamOfDocuments(Supplier<Stream<SscsDocument>> sscsDocumentStream) {
-        Stream<SscsDocument> dlDocs = sscsDocumentStream.get().filter(doc -> doc.getValue().getDocumentType().equals("dl6") || doc.getValue().getDocumentType().equals("dl16"));
-
-        Stream<SscsDocument> appealDocs = sscsDocumentStream.get().filter(doc -> doc.getValue().getDocumentType().equals("sscs1"));
-
-        Stream<SscsDocument> allOtherDocs = sscsDocumentStream.get().filter(doc -> !doc.getValue().getDocumentType().equals("dl6")
-            && !doc.getValue().getDocumentType().equals("dl16")
-            && !doc.getValue().getDocumentType().equals("sscs1"));
-
-        return Stream.concat(Stream.concat(dlDocs, appealDocs), allOtherDocs).collect(Collectors.toList());
-    }
-
     private byte[] toBytes(SscsDocument sscsDocument) {
         try {
-            return evidenceManagementService.download(
+            return documentPrefetcher.download(
                 URI.create(sscsDocument.getValue().getDocumentLink().getDocumentUrl()),
                 DM_STORE_USER_ID
             );
@@ -288,4 +362,19 @@ public class SendToBulkPrintHandler implements CallbackHandler<SscsCaseData> {
             throw new UnableToContactThirdPartyException("dm-store", e);
         }
     }
+
+    @Override
+    public boolean canHandleEvent(EventType eventType) {
+        return HANDLED_EVENTS.contains(eventType);
+    }
+
+    @Override
+    public boolean usesCaseDetailsBefore() {
+        return false;
+    }
+
+    @Override
+    public boolean isHeavy() {
+        return true;
+    }
 }
@@ -0,0 +1,22 @@
+package uk.gov.hmcts.reform.sscs.config;
+
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import uk.gov.hmcts.reform.sscs.limiter.AimdLimiter;
+import uk.gov.hmcts.reform.sscs.monitoring.Downstream;
+
+@Configuration
+public class ConcurrencyLimitConfig {
+
+    @Bean
+    public AimdLimiter ccdConcurrencyLimiter(@Value("${core_case_data.concurrency.initialLimit}") int initialLimit,
+                                             @Value("${core_case_data.concurrency.minLimit}") int minLimit,
+                                             @Value("${core_case_data.concurrency.maxLimit}") int maxLimit,
+                                             @Value("${core_case_data.concurrency.backoffRatio}") double backoffRatio,
+                                             @Value("${core_case_data.concurrency.latencyThreshold}") Duration latencyThreshold,
+                                             @Value("${core_case_data.concurrency.maxWait}") Duration maxWait) {
+        return new AimdLimiter(Downstream.CCD.getTag(), initialLimit, minLimit, maxLimit, backoffRatio, latencyThreshold, maxWait);
+    }
+}
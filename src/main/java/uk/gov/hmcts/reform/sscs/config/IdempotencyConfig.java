@@ -0,0 +1,25 @@
+package uk.gov.hmcts.reform.sscs.config;
+
+import java.nio.file.Paths;
+import java.time.Clock;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import uk.gov.hmcts.reform.sscs.idempotency.FileIdempotencyStore;
+import uk.gov.hmcts.reform.sscs.idempotency.IdempotencyStore;
+import uk.gov.hmcts.reform.sscs.idempotency.InMemoryIdempotencyStore;
+
+@Configuration
+public class IdempotencyConfig {
+
+    @Bean
+    public IdempotencyStore idempotencyStore(@Value("${idempotency.store}") String store,
+                                             @Value("${idempotency.ttl}") Duration ttl,
+                                             @Value("${idempotency.file.path}") String path) {
+        if ("file".equals(store)) {
+            return new FileIdempotencyStore(Paths.get(path), ttl, Clock.systemUTC());
+        }
+        return new InMemoryIdempotencyStore(ttl, Clock.systemUTC());
+    }
+}
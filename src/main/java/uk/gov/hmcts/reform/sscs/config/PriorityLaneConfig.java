@@ -0,0 +1,32 @@
+package uk.gov.hmcts.reform.sscs.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ThreadPoolExecutor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import uk.gov.hmcts.reform.sscs.servicebus.MessageLane;
+import uk.gov.hmcts.reform.sscs.servicebus.PriorityLanes;
+
+@Configuration
+public class PriorityLaneConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public PriorityLanes priorityLanes(@Value("${priority-lanes.enabled}") boolean enabled,
+                                       Environment environment,
+                                       MeterRegistry meterRegistry) {
+        Map<MessageLane, ThreadPoolExecutor> executors = new EnumMap<>(MessageLane.class);
+        if (enabled) {
+            for (MessageLane lane : MessageLane.values()) {
+                String prefix = "priority-lanes." + lane.getTag();
+                executors.put(lane, PriorityLanes.newLaneExecutor(lane,
+                    environment.getRequiredProperty(prefix + ".threads", Integer.class),
+                    environment.getRequiredProperty(prefix + ".queueCapacity", Integer.class)));
+            }
+        }
+        return new PriorityLanes(executors, meterRegistry);
+    }
+}
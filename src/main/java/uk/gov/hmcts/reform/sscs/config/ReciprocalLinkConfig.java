@@ -0,0 +1,21 @@
+package uk.gov.hmcts.reform.sscs.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class ReciprocalLinkConfig {
+
+    @Bean
+    public ThreadPoolTaskExecutor reciprocalLinkExecutor(@Value("${reciprocal-link.threads}") int threads,
+                                                         @Value("${reciprocal-link.queueCapacity}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("reciprocal-link-");
+        return executor;
+    }
+}
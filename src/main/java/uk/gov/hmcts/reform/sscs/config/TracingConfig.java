@@ -0,0 +1,41 @@
+package uk.gov.hmcts.reform.sscs.config;
+
+import brave.handler.SpanHandler;
+import brave.sampler.Sampler;
+import java.nio.file.Paths;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import uk.gov.hmcts.reform.sscs.tracing.FileSpanHandler;
+import uk.gov.hmcts.reform.sscs.tracing.InMemorySpanHandler;
+import uk.gov.hmcts.reform.sscs.tracing.LoggingSpanHandler;
+
+@Configuration
+public class TracingConfig {
+
+    @Bean
+    @ConditionalOnExpression("'${tracing.exporter:none}' != 'none'")
+    public Sampler tracingSampler(@Value("${tracing.sample-probability}") float probability) {
+        return Sampler.create(probability);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "tracing.exporter", havingValue = "log")
+    public SpanHandler loggingSpanHandler() {
+        return new LoggingSpanHandler();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "tracing.exporter", havingValue = "file")
+    public SpanHandler fileSpanHandler(@Value("${tracing.file.path}") String path) {
+        return new FileSpanHandler(Paths.get(path));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "tracing.exporter", havingValue = "memory")
+    public InMemorySpanHandler inMemorySpanHandler() {
+        return new InMemorySpanHandler();
+    }
+}
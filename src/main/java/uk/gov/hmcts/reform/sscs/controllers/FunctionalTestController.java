@@ -2,6 +2,7 @@ package uk.gov.hmcts.reform.sscs.controllers;
 
 import static org.springframework.util.MimeTypeUtils.APPLICATION_JSON_VALUE;
 
+import java.util.UUID;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -30,7 +31,7 @@ public class FunctionalTestController {
         log.info("authorising service auth header.");
         authorisationService.authorise(serviceAuthHeader);
         log.info("consuming message.");
-        consumer.onMessage(message, "1");
+        consumer.onMessage(message, UUID.randomUUID().toString());
         log.info("done.");
     }
 }
@@ -0,0 +1,12 @@
+package uk.gov.hmcts.reform.sscs.exception;
+
+import static java.lang.String.format;
+
+public class ConcurrencyLimitExceededException extends RuntimeException {
+    public static final long serialVersionUID = -2911839521618406147L;
+
+    public ConcurrencyLimitExceededException(String downstream, long waitedMillis) {
+        super(format("Gave up waiting for a %s call slot after %dms", downstream, waitedMillis));
+    }
+
+}
@@ -0,0 +1,14 @@
+package uk.gov.hmcts.reform.sscs.exception;
+
+/**
+ * Thrown without calling a downstream when this instance already has as many calls to it in flight as its bulkhead
+ * allows. Unlike an open circuit this says nothing about the downstream's health, so the message is worth retrying
+ * shortly rather than handing back to Service Bus.
+ */
+public class DownstreamBusyException extends DownstreamUnavailableException {
+    public static final long serialVersionUID = -6084157013702946521L;
+
+    public DownstreamBusyException(String downstream, String reason, Throwable cause) {
+        super(downstream, reason, cause);
+    }
+}
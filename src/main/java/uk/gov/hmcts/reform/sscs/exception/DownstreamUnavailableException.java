@@ -0,0 +1,37 @@
+package uk.gov.hmcts.reform.sscs.exception;
+
+import static java.lang.String.format;
+
+import java.util.Optional;
+
+/**
+ * Thrown without calling a downstream when its circuit is open or its bulkhead is full, so the message can be
+ * retried later rather than waiting on a dependency that is known to be failing.
+ */
+public class DownstreamUnavailableException extends RuntimeException {
+    public static final long serialVersionUID = 3185741297405126830L;
+
+    private final String downstream;
+
+    public DownstreamUnavailableException(String downstream, String reason, Throwable cause) {
+        super(format("%s is unavailable: %s", downstream, reason), cause);
+        this.downstream = downstream;
+    }
+
+    public String getDownstream() {
+        return downstream;
+    }
+
+    /**
+     * Finds a {@code DownstreamUnavailableException} among the causes of an exception, as services that retry or
+     * wrap downstream failures may have wrapped it.
+     */
+    public static Optional<DownstreamUnavailableException> findIn(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DownstreamUnavailableException) {
+                return Optional.of((DownstreamUnavailableException) cause);
+            }
+        }
+        return Optional.empty();
+    }
+}
@@ -8,7 +8,7 @@ import org.springframework.stereotype.Component;
 import uk.gov.hmcts.reform.sscs.ccd.domain.SscsCaseData;
 import uk.gov.hmcts.reform.sscs.docmosis.domain.DocumentHolder;
 import uk.gov.hmcts.reform.sscs.docmosis.domain.Template;
-import uk.gov.hmcts.reform.sscs.service.DwpAddressLookupService;
+import uk.gov.hmcts.reform.sscs.service.ReferenceDataLookup;
 import uk.gov.hmcts.reform.sscs.service.TemplateService;
 import uk.gov.hmcts.reform.sscs.service.placeholders.PlaceholderService;
 
@@ -20,7 +20,7 @@ public class DocumentRequestFactory {
     private PlaceholderService placeholderService;
 
     @Autowired
-    private DwpAddressLookupService dwpAddressLookupService;
+    private ReferenceDataLookup referenceDataLookup;
 
     @Autowired
     private TemplateService templateService;
@@ -29,7 +29,7 @@ public class DocumentRequestFactory {
         Template template = templateService.findTemplate(caseData);
         Map<String, Object> placeholders = new ConcurrentHashMap<>();
 
-        placeholderService.build(caseData, placeholders, dwpAddressLookupService.lookupDwpAddress(caseData), caseCreatedDate);
+        placeholderService.build(caseData, placeholders, referenceDataLookup.lookupDwpAddress(caseData), caseCreatedDate);
 
         return DocumentHolder.builder()
             .template(template)
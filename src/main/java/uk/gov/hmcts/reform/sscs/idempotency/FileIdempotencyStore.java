@@ -0,0 +1,144 @@
+package uk.gov.hmcts.reform.sscs.idempotency;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps entries in memory and appends every change to a log file, so they survive a restart. The log is
+ * rewritten with only the live entries whenever expired ones are evicted. Entries only survive as long as the file
+ * does, and are never shared with other instances.
+ */
+@Slf4j
+public class FileIdempotencyStore extends InMemoryIdempotencyStore implements Closeable {
+
+    private static final String PUT = "P";
+    private static final String REMOVE = "R";
+    private static final String SEPARATOR = "\t";
+
+    private final Path path;
+    private BufferedWriter writer;
+
+    public FileIdempotencyStore(Path path, Duration ttl, Clock clock) {
+        super(ttl, clock);
+        this.path = path;
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            if (Files.exists(path)) {
+                load(Files.readAllLines(path, StandardCharsets.UTF_8));
+            }
+            this.writer = openWriter();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public synchronized void put(String key, String value) {
+        super.put(key, value);
+        Entry entry = entries().get(key);
+        append(PUT, key, value, entry.getExpiresAt());
+    }
+
+    @Override
+    public synchronized void remove(String key) {
+        super.remove(key);
+        append(REMOVE, key, "", Instant.EPOCH);
+    }
+
+    @Override
+    public synchronized int evictExpired() {
+        int evicted = super.evictExpired();
+        if (evicted > 0) {
+            compact();
+        }
+        return evicted;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        writer.close();
+    }
+
+    private void load(List<String> lines) {
+        Instant now = clock.instant();
+        for (String line : lines) {
+            String[] fields = line.split(SEPARATOR, -1);
+            if (fields.length != 4) {
+                log.warn("Skipping malformed idempotency entry in {}", path);
+                continue;
+            }
+            String key = decode(fields[2]);
+            if (REMOVE.equals(fields[0])) {
+                super.remove(key);
+            } else {
+                Instant expiresAt = Instant.ofEpochMilli(Long.parseLong(fields[1]));
+                if (expiresAt.isAfter(now)) {
+                    putUntil(key, decode(fields[3]), expiresAt);
+                }
+            }
+        }
+    }
+
+    private void append(String operation, String key, String value, Instant expiresAt) {
+        try {
+            writer.write(line(operation, key, value, expiresAt));
+            writer.newLine();
+            writer.flush();
+        } catch (IOException e) {
+            log.error("Could not write idempotency entry {} to {}", key, path, e);
+        }
+    }
+
+    private void compact() {
+        Path compacted = path.resolveSibling(path.getFileName() + ".compact");
+        try (BufferedWriter out = Files.newBufferedWriter(compacted, StandardCharsets.UTF_8)) {
+            for (Map.Entry<String, Entry> entry : entries().entrySet()) {
+                out.write(line(PUT, entry.getKey(), entry.getValue().getValue(), entry.getValue().getExpiresAt()));
+                out.newLine();
+            }
+        } catch (IOException e) {
+            log.error("Could not compact idempotency store {}", path, e);
+            return;
+        }
+        try {
+            writer.close();
+            Files.move(compacted, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            writer = openWriter();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private BufferedWriter openWriter() throws IOException {
+        return Files.newBufferedWriter(path, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private static String line(String operation, String key, String value, Instant expiresAt) {
+        return String.join(SEPARATOR, operation, String.valueOf(expiresAt.toEpochMilli()), encode(key), encode(value));
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static String decode(String value) {
+        return URLDecoder.decode(value, StandardCharsets.UTF_8);
+    }
+}
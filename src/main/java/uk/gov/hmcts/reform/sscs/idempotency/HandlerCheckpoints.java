@@ -0,0 +1,55 @@
+package uk.gov.hmcts.reform.sscs.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.Optional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import uk.gov.hmcts.reform.sscs.callback.DispatchContext;
+
+/**
+ * Saves the result of a completed step of a handler against the message being dispatched, so a retry or
+ * redelivery of the same message can resume after that step instead of repeating it. Outside a dispatch nothing
+ * is saved or loaded.
+ */
+@Slf4j
+@Component
+public class HandlerCheckpoints {
+
+    private final IdempotencyStore idempotencyStore;
+    private final ObjectMapper objectMapper;
+
+    public HandlerCheckpoints(IdempotencyStore idempotencyStore, ObjectMapper objectMapper) {
+        this.idempotencyStore = idempotencyStore;
+        this.objectMapper = objectMapper;
+    }
+
+    public <T> Optional<T> load(String handler, String step, Class<T> type) {
+        return DispatchContext.current()
+            .flatMap(context -> idempotencyStore.get(key(context, handler, step)))
+            .flatMap(json -> read(json, type, handler, step));
+    }
+
+    public void save(String handler, String step, Object result) {
+        DispatchContext.current().ifPresent(context -> {
+            try {
+                idempotencyStore.put(key(context, handler, step), objectMapper.writeValueAsString(result));
+            } catch (JsonProcessingException e) {
+                log.warn("Could not checkpoint step {} of {} for case id {}", step, handler, context.getCaseId(), e);
+            }
+        });
+    }
+
+    private <T> Optional<T> read(String json, Class<T> type, String handler, String step) {
+        try {
+            return Optional.of(objectMapper.readValue(json, type));
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring unreadable checkpoint for step {} of {}", step, handler, e);
+            return Optional.empty();
+        }
+    }
+
+    private static String key(DispatchContext context, String handler, String step) {
+        return context.getMessageId() + ":" + context.getCaseId() + ":" + handler + ":" + step;
+    }
+}
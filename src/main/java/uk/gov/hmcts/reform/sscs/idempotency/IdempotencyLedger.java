@@ -0,0 +1,46 @@
+package uk.gov.hmcts.reform.sscs.idempotency;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Records which handlers have already completed for a message and case, so a redelivered or retried message does
+ * not repeat their work.
+ *
+ * <p>The ledger is local to each instance. A message redelivered to another replica, or to a pod whose storage was
+ * not kept, finds no record and runs its handlers again, so it only saves repeated work and handlers must still
+ * check CCD themselves before doing anything that must not happen twice.
+ */
+@Slf4j
+@Component
+public class IdempotencyLedger {
+
+    private static final String COMPLETED = "completed";
+
+    private final IdempotencyStore idempotencyStore;
+
+    public IdempotencyLedger(IdempotencyStore idempotencyStore) {
+        this.idempotencyStore = idempotencyStore;
+    }
+
+    public boolean hasCompleted(String messageId, String caseId, String handler) {
+        return idempotencyStore.get(key(messageId, caseId, handler)).isPresent();
+    }
+
+    public void recordCompleted(String messageId, String caseId, String handler) {
+        idempotencyStore.put(key(messageId, caseId, handler), COMPLETED);
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.evictionInterval}")
+    public void evictExpired() {
+        int evicted = idempotencyStore.evictExpired();
+        if (evicted > 0) {
+            log.info("Evicted {} expired idempotency entries", evicted);
+        }
+    }
+
+    static String key(String messageId, String caseId, String handler) {
+        return messageId + ":" + caseId + ":" + handler;
+    }
+}
@@ -0,0 +1,20 @@
+package uk.gov.hmcts.reform.sscs.idempotency;
+
+import java.util.Optional;
+
+/**
+ * A small key value store whose entries expire a fixed time after they were written.
+ */
+public interface IdempotencyStore {
+
+    Optional<String> get(String key);
+
+    void put(String key, String value);
+
+    void remove(String key);
+
+    /**
+     * Drops every expired entry, returning how many were removed.
+     */
+    int evictExpired();
+}
@@ -0,0 +1,77 @@
+package uk.gov.hmcts.reform.sscs.idempotency;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Duration ttl;
+    protected final Clock clock;
+
+    public InMemoryIdempotencyStore(Duration ttl, Clock clock) {
+        this.ttl = ttl;
+        this.clock = clock;
+    }
+
+    @Override
+    public Optional<String> get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null || entry.isExpiredAt(clock.instant())) {
+            return Optional.empty();
+        }
+        return Optional.of(entry.getValue());
+    }
+
+    @Override
+    public void put(String key, String value) {
+        putUntil(key, value, clock.instant().plus(ttl));
+    }
+
+    @Override
+    public void remove(String key) {
+        entries.remove(key);
+    }
+
+    @Override
+    public int evictExpired() {
+        Instant now = clock.instant();
+        int before = entries.size();
+        entries.values().removeIf(entry -> entry.isExpiredAt(now));
+        return before - entries.size();
+    }
+
+    protected void putUntil(String key, String value, Instant expiresAt) {
+        entries.put(key, new Entry(value, expiresAt));
+    }
+
+    protected Map<String, Entry> entries() {
+        return entries;
+    }
+
+    protected static class Entry {
+        private final String value;
+        private final Instant expiresAt;
+
+        Entry(String value, Instant expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        String getValue() {
+            return value;
+        }
+
+        Instant getExpiresAt() {
+            return expiresAt;
+        }
+
+        boolean isExpiredAt(Instant now) {
+            return !expiresAt.isAfter(now);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package uk.gov.hmcts.reform.sscs.limiter;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import uk.gov.hmcts.reform.sscs.exception.ConcurrencyLimitExceededException;
+
+/**
+ * Caps the number of calls in flight to a downstream and adjusts the cap to what the downstream can take, using
+ * additive increase and multiplicative decrease. A call that completes within the latency threshold while the
+ * limit is at least half used raises the limit by {@code 1 / limit}, so it creeps up while the downstream keeps up.
+ * A call that is slower than the threshold, or that failed because the downstream was overloaded, cuts the limit
+ * by the backoff ratio. Callers over the limit queue for up to {@code maxWait} and are then rejected.
+ */
+public class AimdLimiter {
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long latencyThresholdNanos;
+    private final long maxWaitNanos;
+
+    private final ReentrantLock lock = new ReentrantLock(true);
+    private final Condition released = lock.newCondition();
+    private double limit;
+    private int inFlight;
+    private int queued;
+
+    public AimdLimiter(String name, int initialLimit, int minLimit, int maxLimit, double backoffRatio,
+                       Duration latencyThreshold, Duration maxWait) {
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyThresholdNanos = latencyThreshold.toNanos();
+        this.maxWaitNanos = maxWait.toNanos();
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    /**
+     * Waits for a slot, throwing {@link ConcurrencyLimitExceededException} if none frees up within the maximum wait.
+     * Every successful call must be paired with a call to {@link #release}.
+     */
+    public void acquire() {
+        lock.lock();
+        try {
+            long remaining = maxWaitNanos;
+            queued++;
+            try {
+                while (inFlight >= (int) limit) {
+                    if (remaining <= 0) {
+                        throw new ConcurrencyLimitExceededException(name, TimeUnit.NANOSECONDS.toMillis(maxWaitNanos));
+                    }
+                    remaining = released.awaitNanos(remaining);
+                }
+            } finally {
+                queued--;
+            }
+            inFlight++;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConcurrencyLimitExceededException(name, TimeUnit.NANOSECONDS.toMillis(maxWaitNanos));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void release(long latencyNanos, boolean overloaded) {
+        lock.lock();
+        try {
+            if (overloaded || latencyNanos > latencyThresholdNanos) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+            } else if (inFlight * 2 >= limit) {
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            }
+            inFlight--;
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getQueued() {
+        lock.lock();
+        try {
+            return queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package uk.gov.hmcts.reform.sscs.limiter;
+
+import feign.FeignException;
+import feign.RetryableException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.TimeUnit;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import uk.gov.hmcts.reform.sscs.exception.ConcurrencyLimitExceededException;
+
+/**
+ * Puts every CCD call through the {@link AimdLimiter}, so that all the handlers back off together when
+ * CCD slows down instead of piling more requests on to it. Runs inside the circuit breaker, so an open circuit
+ * fails without queueing, and outside the downstream timing, so the time spent queueing is reported separately
+ * from CCD's own latency.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class CcdConcurrencyLimitAspect {
+
+    static final String LIMIT_GAUGE = "evidence_share.ccd.concurrency.limit";
+    static final String IN_FLIGHT_GAUGE = "evidence_share.ccd.concurrency.in_flight";
+    static final String QUEUED_GAUGE = "evidence_share.ccd.concurrency.queued";
+    static final String QUEUE_TIMER = "evidence_share.ccd.concurrency.queue";
+
+    private final AimdLimiter ccdConcurrencyLimiter;
+    private final MeterRegistry meterRegistry;
+
+    public CcdConcurrencyLimitAspect(AimdLimiter ccdConcurrencyLimiter, MeterRegistry meterRegistry) {
+        this.ccdConcurrencyLimiter = ccdConcurrencyLimiter;
+        this.meterRegistry = meterRegistry;
+        Gauge.builder(LIMIT_GAUGE, ccdConcurrencyLimiter, AimdLimiter::getLimit).register(meterRegistry);
+        Gauge.builder(IN_FLIGHT_GAUGE, ccdConcurrencyLimiter, AimdLimiter::getInFlight).register(meterRegistry);
+        Gauge.builder(QUEUED_GAUGE, ccdConcurrencyLimiter, AimdLimiter::getQueued).register(meterRegistry);
+    }
+
+    @Around("execution(public * uk.gov.hmcts.reform.sscs.ccd.service.CcdService.*(..))")
+    public Object limit(ProceedingJoinPoint joinPoint) throws Throwable {
+        long queuedAt = System.nanoTime();
+        try {
+            ccdConcurrencyLimiter.acquire();
+        } catch (ConcurrencyLimitExceededException e) {
+            recordQueueTime(queuedAt, "rejected");
+            throw e;
+        }
+        recordQueueTime(queuedAt, "acquired");
+
+        long start = System.nanoTime();
+        boolean overloaded = false;
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            overloaded = isOverload(e);
+            throw e;
+        } finally {
+            ccdConcurrencyLimiter.release(System.nanoTime() - start, overloaded);
+        }
+    }
+
+    /**
+     * Timeouts, refused connections and throttling or gateway responses say CCD is struggling. Anything else, such
+     * as a conflict or a missing case, is about the request rather than CCD's capacity.
+     */
+    static boolean isOverload(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RetryableException) {
+                return true;
+            }
+            if (cause instanceof FeignException) {
+                int status = ((FeignException) cause).status();
+                return status == 429 || status == 502 || status == 503 || status == 504;
+            }
+        }
+        return false;
+    }
+
+    private void recordQueueTime(long queuedAt, String outcome) {
+        Timer.builder(QUEUE_TIMER)
+            .tag("outcome", outcome)
+            .register(meterRegistry)
+            .record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+    }
+}
@@ -4,9 +4,11 @@ import java.util.Optional;
 import java.util.UUID;
 import lombok.Builder;
 import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
 
 @Value
 @Builder
+@Jacksonized
 public class BulkPrintInfo {
     UUID uuid;
     boolean allowedTypeForBulkPrint;
@@ -0,0 +1,37 @@
+package uk.gov.hmcts.reform.sscs.model;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import uk.gov.hmcts.reform.sscs.ccd.domain.AbstractDocument;
+
+/**
+ * The documents on a case keyed by binary URL, built in one pass so matching other documents against the case takes
+ * time in proportion to the number of documents rather than their product. It reflects the documents as they were
+ * when it was built, so it should be rebuilt after documents are added to the case.
+ */
+public final class CaseDocumentIndex<T extends AbstractDocument> {
+
+    private final Map<String, T> byBinaryUrl = new HashMap<>();
+
+    private CaseDocumentIndex(List<T> documents) {
+        for (T document : documents) {
+            if (document != null && document.getValue() != null && document.getValue().getDocumentLink() != null
+                && document.getValue().getDocumentLink().getDocumentBinaryUrl() != null) {
+                byBinaryUrl.putIfAbsent(document.getValue().getDocumentLink().getDocumentBinaryUrl(), document);
+            }
+        }
+    }
+
+    public static <T extends AbstractDocument> CaseDocumentIndex<T> of(List<T> documents) {
+        return new CaseDocumentIndex<>(documents == null ? List.of() : documents);
+    }
+
+    /**
+     * The first document on the case with the binary URL.
+     */
+    public Optional<T> byBinaryUrl(String documentBinaryUrl) {
+        return Optional.ofNullable(documentBinaryUrl).map(byBinaryUrl::get);
+    }
+}
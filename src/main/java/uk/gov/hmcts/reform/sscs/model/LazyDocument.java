@@ -0,0 +1,34 @@
+package uk.gov.hmcts.reform.sscs.model;
+
+import java.util.function.Supplier;
+
+/**
+ * A document whose content is only downloaded the first time it is asked for, so documents that end up not being
+ * sent are never fetched.
+ */
+public final class LazyDocument {
+
+    private final Supplier<byte[]> download;
+    private byte[] content;
+    private boolean fetched;
+
+    private LazyDocument(Supplier<byte[]> download) {
+        this.download = download;
+    }
+
+    public static LazyDocument of(Supplier<byte[]> download) {
+        return new LazyDocument(download);
+    }
+
+    public synchronized byte[] getContent() {
+        if (!fetched) {
+            content = download.get();
+            fetched = true;
+        }
+        return content;
+    }
+
+    public synchronized boolean isFetched() {
+        return fetched;
+    }
+}
@@ -10,4 +10,6 @@ import uk.gov.hmcts.reform.sscs.docmosis.domain.Pdf;
 public class PdfDocument {
     Pdf pdf;
     AbstractDocument document;
+    // the pdf is the document's existing resized rendition, so it does not need checking or storing again
+    boolean resized;
 }
@@ -0,0 +1,27 @@
+package uk.gov.hmcts.reform.sscs.monitoring;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+public enum Downstream {
+    IDAM("idam"),
+    CCD("ccd"),
+    DM_STORE("dm-store"),
+    DOCMOSIS("docmosis"),
+    SEND_LETTER("send-letter"),
+    SMTP("smtp");
+
+    private final String tag;
+
+    Downstream(String tag) {
+        this.tag = tag;
+    }
+
+    public String getTag() {
+        return tag;
+    }
+
+    public static Optional<Downstream> fromTag(String tag) {
+        return Arrays.stream(values()).filter(downstream -> downstream.tag.equals(tag)).findFirst();
+    }
+}
@@ -0,0 +1,95 @@
+package uk.gov.hmcts.reform.sscs.monitoring;
+
+import brave.Span;
+import brave.Tracer;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * Wraps every call this service makes to the systems it depends on in a span and a timer, tagged by downstream,
+ * operation and outcome, and records the size of any document bytes that come back.
+ */
+@Aspect
+@Component
+public class DownstreamCallAspect {
+
+    static final String DOWNSTREAM_TIMER = "evidence_share.downstream";
+    static final String DOWNSTREAM_PAYLOAD = "evidence_share.downstream.payload";
+
+    private final MeterRegistry meterRegistry;
+    private final Tracer tracer;
+
+    public DownstreamCallAspect(MeterRegistry meterRegistry, Tracer tracer) {
+        this.meterRegistry = meterRegistry;
+        this.tracer = tracer;
+    }
+
+    @Around("execution(public * uk.gov.hmcts.reform.sscs.idam.IdamService.*(..))")
+    public Object idam(ProceedingJoinPoint joinPoint) throws Throwable {
+        return record(Downstream.IDAM, joinPoint);
+    }
+
+    @Around("execution(public * uk.gov.hmcts.reform.sscs.ccd.service.CcdService.*(..))")
+    public Object ccd(ProceedingJoinPoint joinPoint) throws Throwable {
+        return record(Downstream.CCD, joinPoint);
+    }
+
+    @Around("execution(public * uk.gov.hmcts.reform.sscs.service.EvidenceManagementService.*(..))")
+    public Object dmStore(ProceedingJoinPoint joinPoint) throws Throwable {
+        return record(Downstream.DM_STORE, joinPoint);
+    }
+
+    @Around("execution(public * uk.gov.hmcts.reform.sscs.docmosis.service.DocmosisPdfGenerationService.generatePdf(..))")
+    public Object docmosis(ProceedingJoinPoint joinPoint) throws Throwable {
+        return record(Downstream.DOCMOSIS, joinPoint);
+    }
+
+    @Around("execution(public * uk.gov.hmcts.reform.sendletter.api.SendLetterApi.sendLetter(..))")
+    public Object sendLetter(ProceedingJoinPoint joinPoint) throws Throwable {
+        return record(Downstream.SEND_LETTER, joinPoint);
+    }
+
+    @Around("execution(public * org.springframework.mail.javamail.JavaMailSender.send(..))")
+    public Object smtp(ProceedingJoinPoint joinPoint) throws Throwable {
+        return record(Downstream.SMTP, joinPoint);
+    }
+
+    private Object record(Downstream downstream, ProceedingJoinPoint joinPoint) throws Throwable {
+        String operation = joinPoint.getSignature().getName();
+        Span span = tracer.nextSpan()
+            .name(downstream.getTag() + " " + operation)
+            .tag("downstream", downstream.getTag())
+            .start();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String exception = "none";
+        try (Tracer.SpanInScope ignored = tracer.withSpanInScope(span)) {
+            Object result = joinPoint.proceed();
+            if (result instanceof byte[]) {
+                DistributionSummary.builder(DOWNSTREAM_PAYLOAD)
+                    .baseUnit("bytes")
+                    .tag("downstream", downstream.getTag())
+                    .tag("operation", operation)
+                    .register(meterRegistry)
+                    .record(((byte[]) result).length);
+            }
+            return result;
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            span.error(e);
+            throw e;
+        } finally {
+            span.finish();
+            sample.stop(Timer.builder(DOWNSTREAM_TIMER)
+                .tag("downstream", downstream.getTag())
+                .tag("operation", operation)
+                .tag("outcome", "none".equals(exception) ? "success" : "failure")
+                .tag("exception", exception)
+                .register(meterRegistry));
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package uk.gov.hmcts.reform.sscs.resilience;
+
+import com.netflix.hystrix.HystrixCircuitBreaker;
+import com.netflix.hystrix.HystrixCommand;
+import com.netflix.hystrix.HystrixCommandGroupKey;
+import com.netflix.hystrix.HystrixCommandKey;
+import com.netflix.hystrix.HystrixCommandProperties;
+import com.netflix.hystrix.exception.HystrixBadRequestException;
+import com.netflix.hystrix.exception.HystrixRuntimeException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import uk.gov.hmcts.reform.sscs.exception.DownstreamBusyException;
+import uk.gov.hmcts.reform.sscs.exception.DownstreamUnavailableException;
+import uk.gov.hmcts.reform.sscs.monitoring.Downstream;
+
+/**
+ * Runs every downstream call as a Hystrix command keyed by the downstream. Each downstream gets a semaphore
+ * bulkhead, so one slow dependency cannot tie up every consumer thread, and a circuit breaker that opens once
+ * enough of its recent calls have failed. A call that finds the circuit open is not made and fails straight away
+ * with {@link DownstreamUnavailableException}, and one that finds the bulkhead full with its subclass
+ * {@link DownstreamBusyException}, as only the first says the downstream is unhealthy.
+ *
+ * <p>Calls run on the caller's thread with no Hystrix timeout, as the clients already have their own, and only
+ * failures that say the downstream is unhealthy count towards opening the circuit.
+ */
+@Slf4j
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class DownstreamCircuitBreakerAspect {
+
+    static final String CIRCUIT_OPEN_GAUGE = "evidence_share.downstream.circuit_open";
+    static final String REJECTED_COUNTER = "evidence_share.downstream.rejected";
+
+    private final Map<Downstream, HystrixCommand.Setter> setters = new EnumMap<>(Downstream.class);
+    private final MeterRegistry meterRegistry;
+
+    public DownstreamCircuitBreakerAspect(MeterRegistry meterRegistry,
+                                          Environment environment,
+                                          @Value("${resilience.bulkhead.default}") int defaultBulkhead,
+                                          @Value("${resilience.circuitBreaker.requestVolumeThreshold}") int requestVolumeThreshold,
+                                          @Value("${resilience.circuitBreaker.errorThresholdPercentage}") int errorThresholdPercentage,
+                                          @Value("${resilience.circuitBreaker.sleepWindow}") Duration sleepWindow) {
+        this.meterRegistry = meterRegistry;
+        for (Downstream downstream : Downstream.values()) {
+            int bulkhead = environment.getProperty("resilience.bulkhead." + downstream.getTag(), Integer.class, defaultBulkhead);
+            HystrixCommandKey key = HystrixCommandKey.Factory.asKey(downstream.getTag());
+            setters.put(downstream, HystrixCommand.Setter
+                .withGroupKey(HystrixCommandGroupKey.Factory.asKey(downstream.getTag()))
+                .andCommandKey(key)
+                .andCommandPropertiesDefaults(HystrixCommandProperties.Setter()
+                    .withExecutionIsolationStrategy(HystrixCommandProperties.ExecutionIsolationStrategy.SEMAPHORE)
+                    .withExecutionIsolationSemaphoreMaxConcurrentRequests(bulkhead)
+                    .withExecutionTimeoutEnabled(false)
+                    .withFallbackEnabled(false)
+                    .withRequestCacheEnabled(false)
+                    .withRequestLogEnabled(false)
+                    .withCircuitBreakerRequestVolumeThreshold(requestVolumeThreshold)
+                    .withCircuitBreakerErrorThresholdPercentage(errorThresholdPercentage)
+                    .withCircuitBreakerSleepWindowInMilliseconds((int) sleepWindow.toMillis())));
+            Gauge.builder(CIRCUIT_OPEN_GAUGE, key, DownstreamCircuitBreakerAspect::circuitOpen)
+                .tag("downstream", downstream.getTag())
+                .register(meterRegistry);
+        }
+    }
+
+    @Around("execution(public * uk.gov.hmcts.reform.sscs.idam.IdamService.*(..))")
+    public Object idam(ProceedingJoinPoint joinPoint) throws Throwable {
+        return call(Downstream.IDAM, joinPoint);
+    }
+
+    @Around("execution(public * uk.gov.hmcts.reform.sscs.ccd.service.CcdService.*(..))")
+    public Object ccd(ProceedingJoinPoint joinPoint) throws Throwable {
+        return call(Downstream.CCD, joinPoint);
+    }
+
+    @Around("execution(public * uk.gov.hmcts.reform.sscs.service.EvidenceManagementService.*(..))")
+    public Object dmStore(ProceedingJoinPoint joinPoint) throws Throwable {
+        return call(Downstream.DM_STORE, joinPoint);
+    }
+
+    @Around("execution(public * uk.gov.hmcts.reform.sscs.docmosis.service.DocmosisPdfGenerationService.generatePdf(..))")
+    public Object docmosis(ProceedingJoinPoint joinPoint) throws Throwable {
+        return call(Downstream.DOCMOSIS, joinPoint);
+    }
+
+    @Around("execution(public * uk.gov.hmcts.reform.sendletter.api.SendLetterApi.sendLetter(..))")
+    public Object sendLetter(ProceedingJoinPoint joinPoint) throws Throwable {
+        return call(Downstream.SEND_LETTER, joinPoint);
+    }
+
+    @Around("execution(public * org.springframework.mail.javamail.JavaMailSender.send(..))")
+    public Object smtp(ProceedingJoinPoint joinPoint) throws Throwable {
+        return call(Downstream.SMTP, joinPoint);
+    }
+
+    private Object call(Downstream downstream, ProceedingJoinPoint joinPoint) throws Throwable {
+        try {
+            return new DownstreamCall(setters.get(downstream), joinPoint).execute();
+        } catch (HystrixBadRequestException e) {
+            throw e.getCause();
+        } catch (HystrixRuntimeException e) {
+            switch (e.getFailureType()) {
+                case SHORTCIRCUIT:
+                    reject(downstream, "circuit_open", "its circuit is open");
+                    throw new DownstreamUnavailableException(downstream.getTag(), "its circuit is open", e);
+                case REJECTED_SEMAPHORE_EXECUTION:
+                    reject(downstream, "bulkhead_full", "too many calls are already in flight");
+                    throw new DownstreamBusyException(downstream.getTag(), "too many calls are already in flight", e);
+                default:
+                    throw e.getCause() != null ? e.getCause() : e;
+            }
+        }
+    }
+
+    private void reject(Downstream downstream, String reasonTag, String reason) {
+        Counter.builder(REJECTED_COUNTER)
+            .tag("downstream", downstream.getTag())
+            .tag("reason", reasonTag)
+            .register(meterRegistry)
+            .increment();
+        log.warn("Not calling {} as {}", downstream.getTag(), reason);
+    }
+
+    private static double circuitOpen(HystrixCommandKey key) {
+        HystrixCircuitBreaker circuitBreaker = HystrixCircuitBreaker.Factory.getInstance(key);
+        return circuitBreaker != null && circuitBreaker.isOpen() ? 1 : 0;
+    }
+
+    private static class DownstreamCall extends HystrixCommand<Object> {
+
+        private final ProceedingJoinPoint joinPoint;
+
+        DownstreamCall(Setter setter, ProceedingJoinPoint joinPoint) {
+            super(setter);
+            this.joinPoint = joinPoint;
+        }
+
+        @Override
+        protected Object run() throws Exception {
+            try {
+                return joinPoint.proceed();
+            } catch (Exception e) {
+                if (!DownstreamFaults.isFault(e)) {
+                    throw new HystrixBadRequestException(e.getMessage(), e);
+                }
+                throw e;
+            } catch (Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package uk.gov.hmcts.reform.sscs.resilience;
+
+import feign.FeignException;
+import feign.RetryableException;
+import java.io.IOException;
+import org.springframework.http.HttpStatus;
+import org.springframework.mail.MailSendException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
+
+/**
+ * Tells failures that say a downstream is unhealthy apart from failures caused by the request itself, so that a
+ * run of conflicts or missing documents does not open a circuit.
+ */
+final class DownstreamFaults {
+
+    private DownstreamFaults() {
+    }
+
+    static boolean isFault(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RetryableException
+                || cause instanceof ResourceAccessException
+                || cause instanceof HttpServerErrorException
+                || cause instanceof MailSendException
+                || cause instanceof IOException) {
+                return true;
+            }
+            if (cause instanceof FeignException) {
+                int status = ((FeignException) cause).status();
+                return status < 0 || status >= 500 || status == HttpStatus.TOO_MANY_REQUESTS.value();
+            }
+            if (cause instanceof HttpStatusCodeException) {
+                return ((HttpStatusCodeException) cause).getRawStatusCode() == HttpStatus.TOO_MANY_REQUESTS.value();
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,121 @@
+package uk.gov.hmcts.reform.sscs.resilience;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import uk.gov.hmcts.reform.sscs.callback.DispatchContext;
+import uk.gov.hmcts.reform.sscs.exception.ConcurrencyLimitExceededException;
+import uk.gov.hmcts.reform.sscs.exception.DownstreamUnavailableException;
+
+/**
+ * Retries calls to downstream services with jittered exponential backoff. Every retry, whether of a single call or
+ * of a whole message, comes out of a budget shared by everything done for the message being dispatched, and out of
+ * a service wide retry rate, so one struggling downstream sees a bounded number of extra calls however deeply the
+ * retries are nested. Calls are never retried once a downstream has been reported unavailable.
+ */
+@Slf4j
+@Component
+public class ResilientCallExecutor {
+
+    static final String RETRY_COUNTER = "evidence_share.retries";
+    private static final int MAX_BACKOFF_DOUBLINGS = 10;
+
+    private final MeterRegistry meterRegistry;
+    private final int budgetPerMessage;
+    private final TokenBucket retryRate;
+    private final Duration backoff;
+    private final Duration maxBackoff;
+
+    @Autowired
+    public ResilientCallExecutor(MeterRegistry meterRegistry,
+                                 @Value("${resilience.retry.budgetPerMessage}") int budgetPerMessage,
+                                 @Value("${resilience.retry.ratePerSecond}") double ratePerSecond,
+                                 @Value("${resilience.retry.backoff}") Duration backoff,
+                                 @Value("${resilience.retry.maxBackoff}") Duration maxBackoff) {
+        this(meterRegistry, budgetPerMessage, new TokenBucket(ratePerSecond, Clock.systemUTC()), backoff, maxBackoff);
+    }
+
+    public ResilientCallExecutor(MeterRegistry meterRegistry, int budgetPerMessage, TokenBucket retryRate,
+                                 Duration backoff, Duration maxBackoff) {
+        this.meterRegistry = meterRegistry;
+        this.budgetPerMessage = budgetPerMessage;
+        this.retryRate = retryRate;
+        this.backoff = backoff;
+        this.maxBackoff = maxBackoff;
+    }
+
+    /**
+     * Makes the call up to {@code maxAttempts} times while it fails with an exception {@code retryable} accepts and
+     * retries are still allowed. The last exception is rethrown for the caller to translate.
+     */
+    public <T> T execute(String operation, int maxAttempts, Supplier<T> call, Predicate<RuntimeException> retryable) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return call.get();
+            } catch (RuntimeException e) {
+                if (attempt >= maxAttempts || !retryable.test(e) || !isRetryable(e) || !awaitRetry(operation, attempt)) {
+                    throw e;
+                }
+                log.info("Caught recoverable error {} from {}, retrying {} out of {}",
+                    e.getMessage(), operation, attempt, maxAttempts - 1);
+            }
+        }
+    }
+
+    public void run(String operation, int maxAttempts, Runnable call, Predicate<RuntimeException> retryable) {
+        execute(operation, maxAttempts, () -> {
+            call.run();
+            return null;
+        }, retryable);
+    }
+
+    /**
+     * Takes a retry from the current message's budget and the service wide rate, then waits out the backoff for the
+     * given attempt. Returns false, without waiting, when the retry should not be made.
+     */
+    public boolean awaitRetry(String operation, int attempt) {
+        Optional<DispatchContext> context = DispatchContext.current();
+        if (context.isPresent() && !context.get().tryConsumeRetry(budgetPerMessage)) {
+            log.warn("Not retrying {} as message id {} has used its {} retries", operation,
+                context.get().getMessageId(), budgetPerMessage);
+            count(operation, "budget_exhausted");
+            return false;
+        }
+        if (!retryRate.tryAcquire()) {
+            log.warn("Not retrying {} as the service wide retry rate has been reached", operation);
+            count(operation, "throttled");
+            return false;
+        }
+        count(operation, "retried");
+        try {
+            TimeUnit.MILLISECONDS.sleep(backoffMillis(attempt));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    long backoffMillis(int attempt) {
+        long ceiling = Math.min(maxBackoff.toMillis(),
+            backoff.toMillis() << Math.min(Math.max(attempt - 1, 0), MAX_BACKOFF_DOUBLINGS));
+        return ceiling <= 1 ? ceiling : ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1);
+    }
+
+    private static boolean isRetryable(RuntimeException e) {
+        return !(e instanceof ConcurrencyLimitExceededException) && DownstreamUnavailableException.findIn(e).isEmpty();
+    }
+
+    private void count(String operation, String outcome) {
+        meterRegistry.counter(RETRY_COUNTER, "operation", operation, "outcome", outcome).increment();
+    }
+}
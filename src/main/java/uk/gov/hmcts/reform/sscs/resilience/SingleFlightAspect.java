@@ -0,0 +1,229 @@
+package uk.gov.hmcts.reform.sscs.resilience;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import uk.gov.hmcts.reform.sscs.ccd.domain.SscsCaseData;
+import uk.gov.hmcts.reform.sscs.ccd.domain.SscsCaseDetails;
+
+/**
+ * Lets a read that is already in flight be shared by every identical read made while it runs, so a burst of
+ * handlers or messages asking for the same case or document makes one downstream call between them. Nothing is
+ * kept once the call returns, so a read made afterwards always goes downstream.
+ *
+ * <p>The caller that makes the call gets its result. Callers that share it get their own copy, taken before the
+ * result is handed back, so no one sees another's changes. The copy is only taken when someone has joined the call,
+ * and a caller arriving after it has returned makes the call itself. Failures are shared the same way. Runs outside the
+ * circuit breaker and the CCD concurrency limit, so callers waiting on a shared read hold no bulkhead or limiter
+ * permit.
+ *
+ * <p>Once this service has tried to update a case, a read of that case already in flight may have started before the
+ * write and is no longer shared. Reads made after the update go to CCD, so a caller reading back its own write, or
+ * the latest case after a conflict, never gets the case as it was before.
+ */
+@Slf4j
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class SingleFlightAspect {
+
+    static final String CALL_COUNTER = "evidence_share.single_flight";
+    private static final String CASE_READ = "ccd.getByCaseId";
+
+    private final Map<List<Object>, Flight> inFlight = new ConcurrentHashMap<>();
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    public SingleFlightAspect(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("execution(public * uk.gov.hmcts.reform.sscs.ccd.service.CcdService.getByCaseId(..))")
+    public Object ccd(ProceedingJoinPoint joinPoint) throws Throwable {
+        return share(CASE_READ, joinPoint, this::caseCopies);
+    }
+
+    @Around("execution(public * uk.gov.hmcts.reform.sscs.ccd.service.CcdService.update*(..))")
+    public Object ccdUpdate(ProceedingJoinPoint joinPoint) throws Throwable {
+        try {
+            return joinPoint.proceed();
+        } finally {
+            // a failed update may still have been applied
+            stopSharingReadsOf(caseIdOf(joinPoint.getArgs()));
+        }
+    }
+
+    @Around("execution(public byte[] uk.gov.hmcts.reform.sscs.service.EvidenceManagementService.download(..))")
+    public Object dmStore(ProceedingJoinPoint joinPoint) throws Throwable {
+        return share("dm_store.download", joinPoint, SingleFlightAspect::byteCopies);
+    }
+
+    /**
+     * Makes the call unless an identical one is in flight, in which case waits for it and returns a copy of its
+     * result. A result that cannot be copied is not shared and the waiting callers make the call themselves.
+     */
+    Object share(String call, ProceedingJoinPoint joinPoint, Function<Object, Supplier<Object>> copies)
+        throws Throwable {
+        List<Object> key = Arrays.asList(call, Arrays.asList(joinPoint.getArgs()));
+        Flight mine = new Flight();
+        Flight leader = inFlight.putIfAbsent(key, mine);
+        if (leader != null) {
+            if (!leader.join()) {
+                // it has already returned, too late to have a copy made
+                count(call, "called");
+                return joinPoint.proceed();
+            }
+            count(call, "shared");
+            Supplier<Object> shared = await(leader.result);
+            return shared != null ? shared.get() : joinPoint.proceed();
+        }
+
+        count(call, "called");
+        try {
+            Object result = joinPoint.proceed();
+            mine.complete(result, copies);
+            return result;
+        } catch (Throwable e) {
+            mine.fail(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    int inFlight() {
+        return inFlight.size();
+    }
+
+    /**
+     * Leaves reads of the case that are in flight to the callers already waiting on them. Updates that do not say
+     * which case they are for stop every case read being shared.
+     */
+    private void stopSharingReadsOf(Long caseId) {
+        inFlight.keySet().removeIf(key -> CASE_READ.equals(key.get(0))
+            && (caseId == null || ((List<?>) key.get(1)).contains(caseId)));
+    }
+
+    static Long caseIdOf(Object[] args) {
+        for (Object arg : args) {
+            if (arg instanceof Long) {
+                return (Long) arg;
+            }
+        }
+        for (Object arg : args) {
+            if (arg instanceof SscsCaseData && ((SscsCaseData) arg).getCcdCaseId() != null) {
+                try {
+                    return Long.valueOf(((SscsCaseData) arg).getCcdCaseId());
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static Supplier<Object> await(CompletableFuture<Supplier<Object>> leader) throws Throwable {
+        try {
+            return leader.join();
+        } catch (CompletionException e) {
+            throw e.getCause() != null ? e.getCause() : e;
+        }
+    }
+
+    private static Supplier<Object> byteCopies(Object result) {
+        if (!(result instanceof byte[])) {
+            return () -> result;
+        }
+        byte[] bytes = ((byte[]) result).clone();
+        return bytes::clone;
+    }
+
+    private Supplier<Object> caseCopies(Object result) {
+        if (!(result instanceof SscsCaseDetails) || ((SscsCaseDetails) result).getData() == null) {
+            return () -> result;
+        }
+        SscsCaseDetails caseDetails = (SscsCaseDetails) result;
+        byte[] data;
+        try {
+            data = objectMapper.writeValueAsBytes(caseDetails.getData());
+        } catch (JsonProcessingException e) {
+            log.warn("Could not copy case id {} so it will not be shared", caseDetails.getId(), e);
+            return null;
+        }
+        Long id = caseDetails.getId();
+        String jurisdiction = caseDetails.getJurisdiction();
+        String state = caseDetails.getState();
+        String caseTypeId = caseDetails.getCaseTypeId();
+        LocalDateTime createdDate = caseDetails.getCreatedDate();
+        LocalDateTime lastModified = caseDetails.getLastModified();
+        return () -> SscsCaseDetails.builder()
+            .id(id)
+            .jurisdiction(jurisdiction)
+            .state(state)
+            .caseTypeId(caseTypeId)
+            .createdDate(createdDate)
+            .lastModified(lastModified)
+            .data(readCaseData(data))
+            .build();
+    }
+
+    private SscsCaseData readCaseData(byte[] data) {
+        try {
+            return objectMapper.readValue(data, SscsCaseData.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void count(String call, String outcome) {
+        meterRegistry.counter(CALL_COUNTER, "call", call, "outcome", outcome).increment();
+    }
+
+    /**
+     * A call in flight and the callers that have joined it. Joining and completing take the same lock, so a copy is
+     * made for everyone who joined before the result was handed back and no one joins afterwards.
+     */
+    private static final class Flight {
+
+        private final CompletableFuture<Supplier<Object>> result = new CompletableFuture<>();
+        private int joined;
+        private boolean closed;
+
+        synchronized boolean join() {
+            if (closed) {
+                return false;
+            }
+            joined++;
+            return true;
+        }
+
+        synchronized void complete(Object value, Function<Object, Supplier<Object>> copies) {
+            closed = true;
+            result.complete(joined > 0 ? copies.apply(value) : null);
+        }
+
+        synchronized void fail(Throwable e) {
+            closed = true;
+            result.completeExceptionally(e);
+        }
+    }
+}
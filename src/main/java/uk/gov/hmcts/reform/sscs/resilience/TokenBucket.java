@@ -0,0 +1,32 @@
+package uk.gov.hmcts.reform.sscs.resilience;
+
+import java.time.Clock;
+
+/**
+ * Allows up to {@code permitsPerSecond} calls a second, with bursts of up to one second's worth of permits.
+ */
+public class TokenBucket {
+
+    private final double permitsPerSecond;
+    private final Clock clock;
+    private double available;
+    private long refilledAt;
+
+    public TokenBucket(double permitsPerSecond, Clock clock) {
+        this.permitsPerSecond = permitsPerSecond;
+        this.clock = clock;
+        this.available = permitsPerSecond;
+        this.refilledAt = clock.millis();
+    }
+
+    public synchronized boolean tryAcquire() {
+        long now = clock.millis();
+        available = Math.min(permitsPerSecond, available + (now - refilledAt) * permitsPerSecond / 1000.0);
+        refilledAt = now;
+        if (available < 1) {
+            return false;
+        }
+        available--;
+        return true;
+    }
+}
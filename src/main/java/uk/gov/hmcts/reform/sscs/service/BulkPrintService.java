@@ -20,6 +20,7 @@ import uk.gov.hmcts.reform.sscs.domain.FurtherEvidenceLetterType;
 import uk.gov.hmcts.reform.sscs.exception.BulkPrintException;
 import uk.gov.hmcts.reform.sscs.exception.NonPdfBulkPrintException;
 import uk.gov.hmcts.reform.sscs.idam.IdamService;
+import uk.gov.hmcts.reform.sscs.resilience.ResilientCallExecutor;
 
 @Service
 @Slf4j
@@ -36,18 +37,21 @@ public class BulkPrintService implements PrintService {
     private final boolean sendLetterEnabled;
     private final Integer maxRetryAttempts;
     private final BulkPrintServiceHelper bulkPrintServiceHelper;
+    private final ResilientCallExecutor resilientCallExecutor;
 
     @Autowired
     public BulkPrintService(SendLetterApi sendLetterApi,
                             IdamService idamService,
                             BulkPrintServiceHelper bulkPrintServiceHelper,
                             @Value("${send-letter.enabled}") boolean sendLetterEnabled,
-                            @Value("${send-letter.maxRetryAttempts}")Integer maxRetryAttempts) {
+                            @Value("${send-letter.maxRetryAttempts}")Integer maxRetryAttempts,
+                            ResilientCallExecutor resilientCallExecutor) {
         this.idamService = idamService;
         this.bulkPrintServiceHelper = bulkPrintServiceHelper;
         this.sendLetterApi = sendLetterApi;
         this.sendLetterEnabled = sendLetterEnabled;
         this.maxRetryAttempts = maxRetryAttempts;
+        this.resilientCallExecutor = resilientCallExecutor;
     }
 
     public Optional<UUID> sendToBulkPrint(List<Pdf> pdfs, final SscsCaseData sscsCaseData, FurtherEvidenceLetterType letterType, EventType event) {
@@ -69,30 +73,25 @@ public class BulkPrintService implements PrintService {
                 encodedData.add(getEncoder().encodeToString(pdf.getContent()));
             }
             final String authToken = idamService.generateServiceAuthorization();
-            return sendLetterWithRetry(authToken, sscsCaseData, encodedData, 1);
+            return sendLetterWithRetry(authToken, sscsCaseData, encodedData);
         }
         return Optional.empty();
     }
 
-    private Optional<UUID> sendLetterWithRetry(String authToken, SscsCaseData sscsCaseData, List<String> encodedData,
-                                               Integer reTryNumber) {
+    private Optional<UUID> sendLetterWithRetry(String authToken, SscsCaseData sscsCaseData, List<String> encodedData) {
         try {
-            return sendLetter(authToken, sscsCaseData, encodedData);
+            return resilientCallExecutor.execute("send-letter", maxRetryAttempts + 1,
+                () -> sendLetter(authToken, sscsCaseData, encodedData),
+                e -> !(e instanceof HttpClientErrorException));
         } catch (HttpClientErrorException e) {
             log.info(format("Failed to send to bulk print for case %s with error %s. Non-pdf's/broken pdf's seen in list of documents, please correct.",
                 sscsCaseData.getCcdCaseId(), e.getMessage()));
             throw new NonPdfBulkPrintException(e);
 
         } catch (Exception e) {
-
-            if (reTryNumber > maxRetryAttempts) {
-                String message = format("Failed to send to bulk print for case %s with error %s.",
-                    sscsCaseData.getCcdCaseId(), e.getMessage());
-                throw new BulkPrintException(message, e);
-            }
-            log.info(String.format("Caught recoverable error %s, retrying %s out of %s",
-                e.getMessage(), reTryNumber, maxRetryAttempts));
-            return sendLetterWithRetry(authToken, sscsCaseData, encodedData, reTryNumber + 1);
+            String message = format("Failed to send to bulk print for case %s with error %s.",
+                sscsCaseData.getCcdCaseId(), e.getMessage());
+            throw new BulkPrintException(message, e);
         }
     }
 
@@ -0,0 +1,104 @@
+package uk.gov.hmcts.reform.sscs.service;
+
+import static uk.gov.hmcts.reform.sscs.ccd.domain.EventType.CASE_UPDATED;
+import static uk.gov.hmcts.reform.sscs.ccd.domain.EventType.UPDATE_CASE_ONLY;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Set;
+import java.util.TreeSet;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import uk.gov.hmcts.reform.sscs.ccd.domain.SscsCaseData;
+
+/**
+ * Compares case data a handler has changed with a snapshot of it taken before, so events that only save case data
+ * can be skipped when the handler has not actually changed anything. Events that move the case on, or that other
+ * services react to, are always sent.
+ */
+@Slf4j
+@Service
+public class CaseDataDiff {
+
+    static final String UPDATE_COUNTER = "evidence_share.ccd.updates";
+    static final String SAVED_SUMMARY = "evidence_share.ccd.update_bytes_saved";
+    private static final Set<String> DATA_ONLY_EVENTS = Set.of(CASE_UPDATED.getCcdType(), UPDATE_CASE_ONLY.getCcdType());
+
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final DistributionSummary bytesSaved;
+
+    public CaseDataDiff(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.bytesSaved = DistributionSummary.builder(SAVED_SUMMARY)
+            .baseUnit("bytes")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Returns the case data as it is now, or null if it cannot be serialised, in which case any update is sent.
+     */
+    public JsonNode snapshot(SscsCaseData caseData) {
+        try {
+            return objectMapper.valueToTree(caseData);
+        } catch (IllegalArgumentException e) {
+            log.warn("Could not take a snapshot of case id {} so its updates will always be sent", caseData.getCcdCaseId(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Whether the event should be sent for the case data, given the snapshot taken before the handler changed it.
+     */
+    public boolean needsUpdate(JsonNode before, SscsCaseData after, String eventType) {
+        if (before == null || !DATA_ONLY_EVENTS.contains(eventType)) {
+            count(eventType, "sent");
+            return true;
+        }
+        JsonNode afterTree = snapshot(after);
+        if (afterTree == null) {
+            count(eventType, "sent");
+            return true;
+        }
+        Set<String> changed = changedFields(before, afterTree);
+        if (!changed.isEmpty()) {
+            log.debug("Case id {} changed {} so sending {}", after.getCcdCaseId(), changed, eventType);
+            count(eventType, "sent");
+            return true;
+        }
+        log.info("Not sending {} for case id {} as the case data has not changed", eventType, after.getCcdCaseId());
+        count(eventType, "skipped");
+        try {
+            bytesSaved.record(objectMapper.writeValueAsBytes(afterTree).length);
+        } catch (JsonProcessingException e) {
+            log.debug("Could not size the skipped update for case id {}", after.getCcdCaseId(), e);
+        }
+        return false;
+    }
+
+    /**
+     * The top level case data fields whose values differ. A field that is null is treated the same as one that is
+     * missing, as CCD does not distinguish them.
+     */
+    static Set<String> changedFields(JsonNode before, JsonNode after) {
+        Set<String> fields = new TreeSet<>();
+        before.fieldNames().forEachRemaining(fields::add);
+        after.fieldNames().forEachRemaining(fields::add);
+        fields.removeIf(field -> valueOf(before, field).equals(valueOf(after, field)));
+        return fields;
+    }
+
+    private static JsonNode valueOf(JsonNode node, String field) {
+        JsonNode value = node.path(field);
+        return value.isNull() ? MissingNode.getInstance() : value;
+    }
+
+    private void count(String eventType, String outcome) {
+        meterRegistry.counter(UPDATE_COUNTER, "event", eventType, "outcome", outcome).increment();
+    }
+}
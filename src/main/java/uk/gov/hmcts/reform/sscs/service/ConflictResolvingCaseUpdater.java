@@ -0,0 +1,87 @@
+package uk.gov.hmcts.reform.sscs.service;
+
+import feign.FeignException;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import uk.gov.hmcts.reform.sscs.ccd.domain.SscsCaseData;
+import uk.gov.hmcts.reform.sscs.ccd.domain.SscsCaseDetails;
+import uk.gov.hmcts.reform.sscs.ccd.service.CcdService;
+import uk.gov.hmcts.reform.sscs.idam.IdamTokens;
+
+/**
+ * Triggers a CCD event with the changes a handler wants to make to the case. If CCD rejects the event because the
+ * case was changed since it was read, the latest case is fetched, the same changes are applied to it and the event
+ * is submitted again, rather than the whole message being processed again.
+ */
+@Slf4j
+@Service
+public class ConflictResolvingCaseUpdater {
+
+    static final String CONFLICT_COUNTER = "evidence_share.ccd.conflicts";
+    private static final int CONFLICT = 409;
+
+    private final CcdService ccdService;
+    private final MeterRegistry meterRegistry;
+    private final int maxAttempts;
+
+    @Autowired
+    public ConflictResolvingCaseUpdater(CcdService ccdService,
+                                        MeterRegistry meterRegistry,
+                                        @Value("${core_case_data.conflict.maxAttempts}") int maxAttempts) {
+        this.ccdService = ccdService;
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * Applies {@code changes} to {@code caseData} and triggers the event with it. {@code changes} is applied again to
+     * the latest case after each conflict, so it should only set the fields the handler owns.
+     */
+    public SscsCaseDetails updateCase(SscsCaseData caseData, Long caseId, String eventType, String summary,
+                                      String description, IdamTokens idamTokens, Consumer<SscsCaseData> changes) {
+        SscsCaseData data = caseData;
+        for (int attempt = 1; ; attempt++) {
+            changes.accept(data);
+            try {
+                SscsCaseDetails updated = ccdService.updateCase(data, caseId, eventType, summary, description, idamTokens);
+                if (attempt > 1) {
+                    count(eventType, "resolved");
+                }
+                return updated;
+            } catch (RuntimeException e) {
+                if (!isConflict(e)) {
+                    throw e;
+                }
+                if (attempt >= maxAttempts) {
+                    count(eventType, "exhausted");
+                    throw e;
+                }
+                log.info("Case id {} changed before the {} event could be triggered, reapplying the changes to the "
+                    + "latest case, attempt {} out of {}", caseId, eventType, attempt + 1, maxAttempts);
+                SscsCaseDetails latest = ccdService.getByCaseId(caseId, idamTokens);
+                if (latest == null) {
+                    count(eventType, "exhausted");
+                    throw e;
+                }
+                data = latest.getData();
+            }
+        }
+    }
+
+    static boolean isConflict(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof FeignException) {
+                return ((FeignException) cause).status() == CONFLICT;
+            }
+        }
+        return false;
+    }
+
+    private void count(String eventType, String outcome) {
+        meterRegistry.counter(CONFLICT_COUNTER, "event", eventType, "outcome", outcome).increment();
+    }
+}
@@ -18,6 +18,7 @@ import uk.gov.hmcts.reform.sscs.docmosis.domain.Template;
 import uk.gov.hmcts.reform.sscs.docmosis.service.PdfGenerationService;
 import uk.gov.hmcts.reform.sscs.domain.FurtherEvidenceLetterType;
 import uk.gov.hmcts.reform.sscs.exception.UnableToContactThirdPartyException;
+import uk.gov.hmcts.reform.sscs.resilience.ResilientCallExecutor;
 import uk.gov.hmcts.reform.sscs.service.placeholders.FurtherEvidencePlaceholderService;
 
 @Service
@@ -32,13 +33,17 @@ public class CoverLetterService {
 
     private int maxRetryAttempts;
 
+    private ResilientCallExecutor resilientCallExecutor;
+
     @Autowired
     public CoverLetterService(FurtherEvidencePlaceholderService furtherEvidencePlaceholderService,
                               @Qualifier("docmosisPdfGenerationService") PdfGenerationService pdfGenerationService,
-                              @Value("${send-letter.maxRetryAttempts:3}") int maxRetryAttempts) {
+                              @Value("${send-letter.maxRetryAttempts:3}") int maxRetryAttempts,
+                              ResilientCallExecutor resilientCallExecutor) {
         this.furtherEvidencePlaceholderService = furtherEvidencePlaceholderService;
         this.pdfGenerationService = pdfGenerationService;
         this.maxRetryAttempts = maxRetryAttempts;
+        this.resilientCallExecutor = resilientCallExecutor;
     }
 
     public void appendCoverLetter(byte[] coverLetterContent, List<Pdf> pdfsToBulkPrint, String pdfName) {
@@ -74,30 +79,26 @@ public class CoverLetterService {
         requireNonNull(caseData, "caseData must not be null");
 
         Map<String, Object> placeholders = furtherEvidencePlaceholderService.populatePlaceholders(caseData, letterType);
-        return generateCoverLetterRetry(letterType, templateName, hmctsDocName, placeholders, 1);
+        return generateCoverLetterRetry(letterType, templateName, hmctsDocName, placeholders);
     }
 
     public byte[] generateCoverLetterRetry(FurtherEvidenceLetterType letterType, String templateName,
-                                      String hmctsDocName, Map<String, Object> placeholders, int retries) {
+                                      String hmctsDocName, Map<String, Object> placeholders) {
         try {
-
-            byte[] coverLetterContent = pdfGenerationService.generatePdf(DocumentHolder.builder()
-                .template(new Template(templateName, hmctsDocName))
-                .placeholders(placeholders)
-                .pdfArchiveMode(true)
-                .build());
+            byte[] coverLetterContent = resilientCallExecutor.execute("cover-letter", maxRetryAttempts,
+                () -> pdfGenerationService.generatePdf(DocumentHolder.builder()
+                    .template(new Template(templateName, hmctsDocName))
+                    .placeholders(placeholders)
+                    .pdfArchiveMode(true)
+                    .build()),
+                e -> true);
 
             printCoverLetterToPdfLocallyForDebuggingPurpose(coverLetterContent, letterType, hmctsDocName);
 
             return coverLetterContent;
 
         } catch (Exception e) {
-            if (retries < maxRetryAttempts) {
-                log.info("Retrying Cover Letter Service retry " + retries + " due to " + e.getMessage());
-                return generateCoverLetterRetry(letterType, templateName, hmctsDocName, placeholders, retries + 1);
-            } else {
-                throw new UnableToContactThirdPartyException("docmosis", e);
-            }
+            throw new UnableToContactThirdPartyException("docmosis", e);
         }
     }
 
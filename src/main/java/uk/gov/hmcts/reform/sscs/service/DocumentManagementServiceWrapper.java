@@ -16,6 +16,7 @@ import uk.gov.hmcts.reform.sscs.exception.PdfGenerationException;
 import uk.gov.hmcts.reform.sscs.exception.PdfStoreException;
 import uk.gov.hmcts.reform.sscs.exception.UnableToContactThirdPartyException;
 import uk.gov.hmcts.reform.sscs.idam.IdamTokens;
+import uk.gov.hmcts.reform.sscs.resilience.ResilientCallExecutor;
 
 @Slf4j
 @Service
@@ -24,37 +25,38 @@ public class DocumentManagementServiceWrapper {
     private final DocumentManagementService documentManagementService;
     private final CcdService ccdService;
     private final Integer maxRetryAttempts;
+    private final ResilientCallExecutor resilientCallExecutor;
 
     @Autowired
     public DocumentManagementServiceWrapper(DocumentManagementService documentManagementService,
                                             CcdService ccdService,
-                                            @Value("${send-letter.maxRetryAttempts}") Integer maxRetryAttempts) {
+                                            @Value("${send-letter.maxRetryAttempts}") Integer maxRetryAttempts,
+                                            ResilientCallExecutor resilientCallExecutor) {
         this.documentManagementService = documentManagementService;
         this.ccdService = ccdService;
         this.maxRetryAttempts = maxRetryAttempts;
+        this.resilientCallExecutor = resilientCallExecutor;
     }
 
     public void generateDocumentAndAddToCcd(DocumentHolder holder, SscsCaseData caseData, IdamTokens idamTokens) {
-        generateDocumentAndAddToCcdWithRetry(holder, caseData, 1, idamTokens);
-    }
-
-    private void generateDocumentAndAddToCcdWithRetry(DocumentHolder holder, SscsCaseData caseData,
-                                                      Integer reTryNumber, IdamTokens idamTokens) {
         try {
-            SscsCaseDetails caseDetails = ccdService.getByCaseId(Long.valueOf(caseData.getCcdCaseId()), idamTokens);
-            if (caseDetails == null || caseDetails.getData().getSscsDocument() == null
-                || !checkIfDlDocumentAlreadyExists(caseDetails.getData().getSscsDocument())) {
-                documentManagementService.generateDocumentAndAddToCcd(holder, caseData);
-            }
+            resilientCallExecutor.run("generate-document", maxRetryAttempts + 1,
+                () -> generateDocumentAndAddToCcdIfMissing(holder, caseData, idamTokens),
+                e -> !(e instanceof PdfGenerationException || e instanceof ResourceAccessException));
         } catch (PdfGenerationException | ResourceAccessException e) {
             throw new UnableToContactThirdPartyException("docmosis", e);
         } catch (Exception e) {
-            if (reTryNumber > maxRetryAttempts) {
-                throw new PdfStoreException(e.getMessage(), e);
-            }
-            log.info(String.format("Caught recoverable error %s, retrying %s out of %s",
-                e.getMessage(), reTryNumber, maxRetryAttempts));
-            generateDocumentAndAddToCcdWithRetry(holder, caseData, reTryNumber + 1, idamTokens);
+            throw new PdfStoreException(e.getMessage(), e);
+        }
+    }
+
+    private void generateDocumentAndAddToCcdIfMissing(DocumentHolder holder, SscsCaseData caseData,
+                                                      IdamTokens idamTokens) {
+        // always read CCD, a redelivered message or a retry must see a DL added by an earlier attempt
+        SscsCaseDetails caseDetails = ccdService.getByCaseId(Long.valueOf(caseData.getCcdCaseId()), idamTokens);
+        if (caseDetails == null || caseDetails.getData().getSscsDocument() == null
+            || !checkIfDlDocumentAlreadyExists(caseDetails.getData().getSscsDocument())) {
+            documentManagementService.generateDocumentAndAddToCcd(holder, caseData);
         }
     }
 
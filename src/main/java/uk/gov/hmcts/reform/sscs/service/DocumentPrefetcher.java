@@ -0,0 +1,131 @@
+package uk.gov.hmcts.reform.sscs.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.net.URI;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Starts downloading the documents the handlers for a message have said they will need as soon as the message has
+ * been routed, so the downloads overlap with the handlers that run before the one that uses them. Handlers ask for
+ * documents through {@link #download}, which waits for a prefetched copy if there is one and otherwise downloads
+ * the document itself, so prefetching never changes what a handler gets or which errors it sees.
+ *
+ * <p>Documents are kept for the message being dispatched on the current thread only and dropped once it has been
+ * handled. A prefetch no handler took is counted as unused when the message has been handled. If its download has not
+ * started it is skipped, but one already running is not interrupted: it finishes on the prefetch thread and its
+ * content is thrown away.
+ */
+@Slf4j
+@Component
+public class DocumentPrefetcher {
+
+    static final String PREFETCH_COUNTER = "evidence_share.document_prefetch";
+    private static final String DM_STORE_USER_ID = "sscs";
+
+    private final ThreadLocal<Scope> current = new ThreadLocal<>();
+    private final EvidenceManagementService evidenceManagementService;
+    private final Executor executor;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+
+    public DocumentPrefetcher(EvidenceManagementService evidenceManagementService,
+                              @Qualifier("documentPrefetchExecutor") Executor executor,
+                              MeterRegistry meterRegistry,
+                              @Value("${document-prefetch.enabled}") boolean enabled) {
+        this.evidenceManagementService = evidenceManagementService;
+        this.executor = executor;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Starts downloading the documents and keeps them for this thread until the returned scope is closed.
+     */
+    public Scope prefetch(Collection<String> documentUrls) {
+        Scope scope = new Scope(current.get());
+        if (enabled) {
+            documentUrls.stream().distinct().forEach(scope::start);
+        }
+        current.set(scope);
+        return scope;
+    }
+
+    public byte[] download(URI uri, String userId) {
+        Scope scope = current.get();
+        CompletableFuture<byte[]> prefetched = scope == null ? null : scope.take(uri.toString());
+        if (prefetched != null) {
+            try {
+                byte[] bytes = prefetched.join();
+                count("hit");
+                return bytes == null ? null : bytes.clone();
+            } catch (CompletionException | CancellationException e) {
+                log.info("Prefetch of {} failed, downloading it again", uri, e);
+                count("failed");
+            }
+        } else if (scope != null) {
+            count("miss");
+        }
+        return evidenceManagementService.download(uri, userId);
+    }
+
+    private void count(String outcome) {
+        meterRegistry.counter(PREFETCH_COUNTER, "outcome", outcome).increment();
+    }
+
+    public final class Scope implements AutoCloseable {
+        private final Scope previous;
+        private final Map<String, CompletableFuture<byte[]>> documents = new LinkedHashMap<>();
+        private final Set<String> used = new HashSet<>();
+
+        private Scope(Scope previous) {
+            this.previous = previous;
+        }
+
+        private void start(String documentUrl) {
+            try {
+                URI uri = URI.create(documentUrl);
+                documents.put(documentUrl, CompletableFuture.supplyAsync(
+                    () -> evidenceManagementService.download(uri, DM_STORE_USER_ID), executor));
+            } catch (RejectedExecutionException | IllegalArgumentException e) {
+                log.debug("Not prefetching {}", documentUrl, e);
+            }
+        }
+
+        private CompletableFuture<byte[]> take(String documentUrl) {
+            CompletableFuture<byte[]> document = documents.get(documentUrl);
+            if (document != null) {
+                used.add(documentUrl);
+            }
+            return document;
+        }
+
+        @Override
+        public void close() {
+            documents.forEach((url, document) -> {
+                if (!used.contains(url)) {
+                    // only stops a download that has not started, a running one completes and is discarded
+                    document.cancel(false);
+                    count("unused");
+                }
+            });
+            if (previous == null) {
+                current.remove();
+            } else {
+                current.set(previous);
+            }
+        }
+    }
+}
@@ -8,23 +8,28 @@ import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.InputStreamSource;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
-import org.springframework.retry.annotation.Backoff;
-import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Service;
 import uk.gov.hmcts.reform.sscs.domain.email.Email;
 import uk.gov.hmcts.reform.sscs.domain.email.EmailAttachment;
 import uk.gov.hmcts.reform.sscs.exception.EmailSendFailedException;
+import uk.gov.hmcts.reform.sscs.resilience.ResilientCallExecutor;
 
 @Service
 @Slf4j
 @RequiredArgsConstructor(onConstructor = @__(@Autowired))
 public class EmailService {
 
+    private static final int MAX_ATTEMPTS = 3;
+
     private final EmailSenderProvider emailSenderProvider;
+    private final ResilientCallExecutor resilientCallExecutor;
 
-    @Retryable(value = EmailSendFailedException.class,
-        backoff = @Backoff(delay = 100, maxDelay = 500))
     public void sendEmail(long caseId, final Email email) {
+        resilientCallExecutor.run("email", MAX_ATTEMPTS, () -> send(caseId, email),
+            e -> e instanceof EmailSendFailedException);
+    }
+
+    private void send(long caseId, final Email email) {
         try {
             JavaMailSender mailSender = emailSenderProvider.getMailSender();
             final MimeMessage message = mailSender.createMimeMessage();
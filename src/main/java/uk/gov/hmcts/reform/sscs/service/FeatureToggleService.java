@@ -1,39 +1,52 @@
 package uk.gov.hmcts.reform.sscs.service;
 
 import com.launchdarkly.sdk.LDUser;
-import com.launchdarkly.sdk.LDValue;
 import com.launchdarkly.sdk.server.LDClient;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+/**
+ * Keeps a local snapshot of every flag the service has asked for. A flag is evaluated against LaunchDarkly the
+ * first time it is read and a change listener keeps the snapshot up to date from then on, so reads are a single
+ * map lookup and carry on returning the last known value if the connection to LaunchDarkly drops.
+ */
 @Service
+@Slf4j
 public class FeatureToggleService {
 
+    static final String SEND_GRID = "send-grid";
+
     private final LDClient ldClient;
-    private final String ldUserKey;
+    private final LDUser ldUser;
+    private final Map<String, Boolean> flags = new ConcurrentHashMap<>();
 
     @Autowired
     public FeatureToggleService(LDClient ldClient, @Value("${ld.user-key}") String ldUserKey) {
         this.ldClient = ldClient;
-        this.ldUserKey = ldUserKey;
+        this.ldUser = new LDUser.Builder(ldUserKey).build();
     }
 
     public boolean isSendGridEnabled() {
-        return ldClient.boolVariation("send-grid", createLDUser(), false);
+        return isEnabled(SEND_GRID, false);
     }
 
-    private LDUser createLDUser() {
-        return createLDUser(Map.of());
+    public boolean isEnabled(String flagKey, boolean defaultValue) {
+        Boolean enabled = flags.get(flagKey);
+        return enabled != null ? enabled : track(flagKey, defaultValue);
     }
 
-    private LDUser createLDUser(Map<String, LDValue> values) {
-        LDUser.Builder builder = new LDUser.Builder(ldUserKey)
-            .custom("timestamp", String.valueOf(System.currentTimeMillis()));
-
-        values.forEach(builder::custom);
-        return builder.build();
+    private boolean track(String flagKey, boolean defaultValue) {
+        return flags.computeIfAbsent(flagKey, key -> {
+            ldClient.getFlagTracker().addFlagValueChangeListener(key, ldUser, event -> {
+                boolean enabled = event.getNewValue().isNull() ? defaultValue : event.getNewValue().booleanValue();
+                log.info("Feature flag {} changed to {}", key, enabled);
+                flags.put(key, enabled);
+            });
+            return ldClient.boolVariation(key, ldUser, defaultValue);
+        });
     }
-
 }
@@ -20,6 +20,7 @@ import uk.gov.hmcts.reform.sscs.ccd.domain.*;
 import uk.gov.hmcts.reform.sscs.config.DocmosisTemplateConfig;
 import uk.gov.hmcts.reform.sscs.docmosis.domain.Pdf;
 import uk.gov.hmcts.reform.sscs.domain.FurtherEvidenceLetterType;
+import uk.gov.hmcts.reform.sscs.model.CaseDocumentIndex;
 import uk.gov.hmcts.reform.sscs.model.PdfDocument;
 
 @Service
@@ -63,7 +64,7 @@ public class FurtherEvidenceService {
 
     public void updateCaseDocuments(List<? extends AbstractDocument> documents, SscsCaseData caseData, DocumentType documentType) {
 
-        List<SscsDocument> sscsCaseDocuments = caseData.getSscsDocument();
+        CaseDocumentIndex<SscsDocument> sscsCaseDocuments = CaseDocumentIndex.of(caseData.getSscsDocument());
 
         for (AbstractDocument<AbstractDocumentDetails> doc : documents) {
 
@@ -73,15 +74,13 @@ public class FurtherEvidenceService {
 
                 if (doc.getValue().getClass().isAssignableFrom(SscsDocumentDetails.class)) {
                     sscsCaseDocuments
-                        .stream()
-                        .filter(d -> d.getValue().getDocumentLink().getDocumentBinaryUrl().equals(doc.getValue().getDocumentLink().getDocumentBinaryUrl()))
-                        .map(d -> {
+                        .byBinaryUrl(doc.getValue().getDocumentLink().getDocumentBinaryUrl())
+                        .ifPresent(d -> {
                             DocumentLink resizedLink = doc.getValue().getResizedDocumentLink();
                             d.getValue().setResizedDocumentLink(resizedLink);
                             log.info("Sending resized document to bulk print link: DocumentLink(documentUrl= {} , documentFilename= {} and caseId {} )",
                                 resizedLink.getDocumentUrl(), resizedLink.getDocumentFilename(), caseData.getCcdCaseId());
-                            return d;
-                        }).findFirst();
+                        });
                 }
             }
         }
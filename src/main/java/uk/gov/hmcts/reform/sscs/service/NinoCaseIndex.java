@@ -0,0 +1,89 @@
+package uk.gov.hmcts.reform.sscs.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Remembers which cases a CCD search found for a NINO, so a retried or redelivered message for the same case does
+ * not search CCD again. An entry is only served to the case it was searched for. Any other case searches CCD itself,
+ * as this instance cannot know which cases were created since, e.g. by another replica or in a callback it never
+ * received, and a missing case would never be linked.
+ */
+@Slf4j
+@Component
+public class NinoCaseIndex {
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Duration ttl;
+    private final Clock clock;
+
+    @Autowired
+    public NinoCaseIndex(@Value("${nino-index.ttl}") Duration ttl) {
+        this(ttl, Clock.systemUTC());
+    }
+
+    NinoCaseIndex(Duration ttl, Clock clock) {
+        this.ttl = ttl;
+        this.clock = clock;
+    }
+
+    /**
+     * The cases found for the NINO, if they were searched for on behalf of this case and have not expired.
+     */
+    public Optional<Set<Long>> find(String nino, Long caseId) {
+        Entry entry = entries.get(normalise(nino));
+        if (entry == null || entry.isExpiredAt(clock.instant()) || !Objects.equals(entry.searchedFor, caseId)) {
+            return Optional.empty();
+        }
+        return Optional.of(entry.caseIds);
+    }
+
+    public void put(String nino, Long caseId, Collection<Long> caseIds) {
+        entries.put(normalise(nino), new Entry(caseId, Set.copyOf(caseIds), clock.instant().plus(ttl)));
+    }
+
+    @Scheduled(fixedDelayString = "${nino-index.ttl}")
+    public void evictExpired() {
+        Instant now = clock.instant();
+        int before = entries.size();
+        entries.values().removeIf(entry -> entry.isExpiredAt(now));
+        int evicted = before - entries.size();
+        if (evicted > 0) {
+            log.debug("Evicted {} expired NINO index entries", evicted);
+        }
+    }
+
+    private static String normalise(String nino) {
+        return StringUtils.deleteWhitespace(nino).toUpperCase(Locale.UK);
+    }
+
+    private static class Entry {
+        private final Long searchedFor;
+        private final Set<Long> caseIds;
+        private final Instant expiresAt;
+
+        Entry(Long searchedFor, Set<Long> caseIds, Instant expiresAt) {
+            this.searchedFor = searchedFor;
+            this.caseIds = caseIds;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpiredAt(Instant now) {
+            return !expiresAt.isAfter(now);
+        }
+    }
+}
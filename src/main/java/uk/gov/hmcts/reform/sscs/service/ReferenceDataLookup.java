@@ -0,0 +1,110 @@
+package uk.gov.hmcts.reform.sscs.service;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import uk.gov.hmcts.reform.sscs.ccd.domain.Address;
+import uk.gov.hmcts.reform.sscs.ccd.domain.Appeal;
+import uk.gov.hmcts.reform.sscs.ccd.domain.RegionalProcessingCenter;
+import uk.gov.hmcts.reform.sscs.ccd.domain.SscsCaseData;
+import uk.gov.hmcts.reform.sscs.model.dwp.OfficeMapping;
+
+/**
+ * Serves DWP office and regional processing centre lookups from hash indexes instead of scanning the
+ * sscs-common reference data on every call. The reference data is loaded once from the classpath and never
+ * changes while the service is running, so each key is resolved against the underlying service the first time
+ * it is seen and answered from the index from then on. Lookups that throw are not indexed.
+ */
+@Service
+@Slf4j
+public class ReferenceDataLookup {
+
+    // a UK postcode with its spaces removed, an outward code of two to four characters then a three character inward code
+    private static final Pattern POSTCODE = Pattern.compile("[A-Z]{1,2}[0-9][A-Z0-9]?[0-9][A-Z]{2}");
+    private static final int INWARD_CODE_LENGTH = 3;
+
+    private final DwpAddressLookupService dwpAddressLookupService;
+    private final RegionalProcessingCenterService regionalProcessingCenterService;
+
+    private final Map<String, Optional<OfficeMapping>> officeMappings = new ConcurrentHashMap<>();
+    private final Map<String, Address> dwpAddresses = new ConcurrentHashMap<>();
+    private final Map<String, Optional<RegionalProcessingCenter>> regionalProcessingCenters = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ReferenceDataLookup(DwpAddressLookupService dwpAddressLookupService,
+                               RegionalProcessingCenterService regionalProcessingCenterService) {
+        this.dwpAddressLookupService = dwpAddressLookupService;
+        this.regionalProcessingCenterService = regionalProcessingCenterService;
+    }
+
+    public Optional<OfficeMapping> getDwpMappingByOffice(String benefitType, String office) {
+        if (benefitType == null || office == null) {
+            return dwpAddressLookupService.getDwpMappingByOffice(benefitType, office);
+        }
+        return officeMappings.computeIfAbsent(key(benefitType, office),
+            k -> dwpAddressLookupService.getDwpMappingByOffice(benefitType, office));
+    }
+
+    /**
+     * The DWP address only depends on the benefit type and the issuing office, so cases that are missing either
+     * go straight to the underlying service to get its usual validation errors.
+     */
+    public Address lookupDwpAddress(SscsCaseData caseData) {
+        Appeal appeal = caseData.getAppeal();
+        if (appeal == null || appeal.getBenefitType() == null || appeal.getBenefitType().getCode() == null
+            || appeal.getMrnDetails() == null || appeal.getMrnDetails().getDwpIssuingOffice() == null) {
+            return dwpAddressLookupService.lookupDwpAddress(caseData);
+        }
+        return dwpAddresses.computeIfAbsent(
+            key(appeal.getBenefitType().getCode(), appeal.getMrnDetails().getDwpIssuingOffice()),
+            k -> dwpAddressLookupService.lookupDwpAddress(caseData));
+    }
+
+    /**
+     * Regional processing centres are assigned by the outward code, so every postcode in the same district shares
+     * one index entry whatever its case or spacing. The centre is looked up with the postcode in its usual form.
+     * Anything that is not shaped like a postcode goes straight to the underlying service and is not indexed.
+     */
+    public RegionalProcessingCenter getByPostcode(String postcode) {
+        Optional<String> normalised = normalise(postcode);
+        if (normalised.isEmpty()) {
+            return regionalProcessingCenterService.getByPostcode(postcode);
+        }
+        String usualForm = normalised.get();
+        return regionalProcessingCenters.computeIfAbsent(outwardCode(usualForm),
+            k -> Optional.ofNullable(regionalProcessingCenterService.getByPostcode(usualForm))).orElse(null);
+    }
+
+    public int size() {
+        return officeMappings.size() + dwpAddresses.size() + regionalProcessingCenters.size();
+    }
+
+    /**
+     * The postcode in upper case with one space before the inward code, or empty if it is not shaped like a postcode.
+     */
+    static Optional<String> normalise(String postcode) {
+        if (postcode == null) {
+            return Optional.empty();
+        }
+        String compact = StringUtils.deleteWhitespace(postcode).toUpperCase(Locale.UK);
+        if (!POSTCODE.matcher(compact).matches()) {
+            return Optional.empty();
+        }
+        int inwardCode = compact.length() - INWARD_CODE_LENGTH;
+        return Optional.of(compact.substring(0, inwardCode) + " " + compact.substring(inwardCode));
+    }
+
+    static String outwardCode(String normalisedPostcode) {
+        return normalisedPostcode.substring(0, normalisedPostcode.indexOf(' '));
+    }
+
+    private static String key(String benefitType, String office) {
+        return benefitType + '\u0000' + office;
+    }
+}
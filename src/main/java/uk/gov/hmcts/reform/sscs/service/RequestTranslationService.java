@@ -20,6 +20,7 @@ import uk.gov.hmcts.reform.sscs.domain.email.EmailAttachment;
 import uk.gov.hmcts.reform.sscs.domain.email.RequestTranslationTemplate;
 import uk.gov.hmcts.reform.sscs.idam.IdamService;
 import uk.gov.hmcts.reform.sscs.idam.UserDetails;
+import uk.gov.hmcts.reform.sscs.model.LazyDocument;
 
 @Component
 @Slf4j
@@ -56,8 +57,7 @@ public class RequestTranslationService {
         SscsCaseData caseData = caseDetails.getCaseData();
         Map<String, Object> placeholderMap = placeHolderMap(caseDetails);
 
-        log.info("Downloading additional evidence for wlu for case id {} ", caseDetails.getId());
-        Map<String, byte[]> additionalEvidence = downloadEvidence(caseData, Long.valueOf(caseData.getCcdCaseId()));
+        Map<String, LazyDocument> additionalEvidence = additionalEvidence(caseData, Long.valueOf(caseData.getCcdCaseId()));
 
         if (!additionalEvidence.isEmpty()) {
             log.info("Generate tranlsation request form from wlu for casedetails id {} ", caseDetails.getId());
@@ -88,9 +88,9 @@ public class RequestTranslationService {
         return dataMap;
     }
 
-    private Map<String, byte[]> downloadEvidence(SscsCaseData sscsCaseData, Long caseId) {
+    private Map<String, LazyDocument> additionalEvidence(SscsCaseData sscsCaseData, Long caseId) {
         if (hasEvidence(sscsCaseData)) {
-            Map<String, byte[]> map = new HashMap<>();
+            Map<String, LazyDocument> map = new HashMap<>();
             map = buildMapOfEvidence(sscsCaseData.getSscsDocument(), caseId, map);
             map = buildMapOfEvidence(sscsCaseData.getDwpDocuments(), caseId, map);
 
@@ -100,7 +100,7 @@ public class RequestTranslationService {
         }
     }
 
-    private Map<String, byte[]> buildMapOfEvidence(List<? extends AbstractDocument> docs, Long caseId, Map<String, byte[]> map) {
+    private Map<String, LazyDocument> buildMapOfEvidence(List<? extends AbstractDocument> docs, Long caseId, Map<String, LazyDocument> map) {
 
         ListUtils.emptyIfNull(docs).stream().filter(doc -> SscsDocumentTranslationStatus.TRANSLATION_REQUIRED.equals(doc.getValue().getDocumentTranslationStatus()))
             .forEach(doc -> {
@@ -108,12 +108,12 @@ public class RequestTranslationService {
                 if (doc instanceof SscsDocument) {
                     final String sscsFilename = getDocumentFileName.apply(doc.getValue());
                     if (sscsFilename != null) {
-                        map.put(sscsFilename, downloadBinary((SscsDocument) doc, caseId));
+                        map.put(sscsFilename, LazyDocument.of(() -> downloadBinary((SscsDocument) doc, caseId)));
                     }
                 } else if (doc instanceof DwpDocument) {
                     final String sscsFilename = getDwpDocumentFileName.apply((DwpDocumentDetails) doc.getValue());
                     if (sscsFilename != null) {
-                        map.put(sscsFilename, downloadBinary((DwpDocument) doc, caseId));
+                        map.put(sscsFilename, LazyDocument.of(() -> downloadBinary((DwpDocument) doc, caseId)));
                     }
                 }
             });
@@ -162,7 +162,7 @@ public class RequestTranslationService {
     }
 
     private boolean sendEmailToWlu(long caseId, SscsCaseData caseData, byte[] requestFormPdf,
-                                   Map<String, byte[]> additionalEvidence) {
+                                   Map<String, LazyDocument> additionalEvidence) {
 
         log.info("Add request and sscs1 default attachments for case id {}", caseId);
         List<EmailAttachment> attachments = addDefaultAttachment(requestFormPdf, caseId);
@@ -176,10 +176,11 @@ public class RequestTranslationService {
         return false;
     }
 
-    private void addAdditionalEvidenceAttachments(Map<String, byte[]> additionalEvidence,
+    private void addAdditionalEvidenceAttachments(Map<String, LazyDocument> additionalEvidence,
                                                   List<EmailAttachment> attachments) {
+        log.info("Downloading {} additional evidence documents for wlu", additionalEvidence.size());
         for (String filename : additionalEvidence.keySet()) {
-            byte[] content = additionalEvidence.get(filename);
+            byte[] content = additionalEvidence.get(filename).getContent();
             if (content != null) {
                 attachments.add(file(content, filename.substring(0, filename.lastIndexOf("."))));
             }
@@ -22,6 +22,7 @@ import uk.gov.hmcts.reform.sscs.domain.email.EmailAttachment;
 import uk.gov.hmcts.reform.sscs.domain.email.RoboticsEmailTemplate;
 import uk.gov.hmcts.reform.sscs.helper.EmailHelper;
 import uk.gov.hmcts.reform.sscs.idam.IdamService;
+import uk.gov.hmcts.reform.sscs.model.LazyDocument;
 import uk.gov.hmcts.reform.sscs.model.dwp.OfficeMapping;
 import uk.gov.hmcts.reform.sscs.robotics.RoboticsJsonMapper;
 import uk.gov.hmcts.reform.sscs.robotics.RoboticsJsonValidator;
@@ -33,14 +34,14 @@ public class RoboticsService {
 
     private static final String GLASGOW = "GLASGOW";
     private static final String PIP_AE = "DWP PIP (AE)";
-    private final EvidenceManagementService evidenceManagementService;
+    private final DocumentPrefetcher documentPrefetcher;
     private final EmailService emailService;
     private final EmailHelper emailHelper;
     private final RoboticsJsonMapper roboticsJsonMapper;
     private final RoboticsJsonValidator roboticsJsonValidator;
     private final RoboticsEmailTemplate roboticsEmailTemplate;
     private final EvidenceShareConfig evidenceShareConfig;
-    private final DwpAddressLookupService dwpAddressLookupService;
+    private final ReferenceDataLookup referenceDataLookup;
     private final CcdService ccdService;
     private final IdamService idamService;
 
@@ -51,27 +52,27 @@ public class RoboticsService {
 
     @Autowired
     public RoboticsService(
-        EvidenceManagementService evidenceManagementService,
+        DocumentPrefetcher documentPrefetcher,
         EmailService emailService,
         EmailHelper emailHelper,
         RoboticsJsonMapper roboticsJsonMapper,
         RoboticsJsonValidator roboticsJsonValidator,
         RoboticsEmailTemplate roboticsEmailTemplate,
         EvidenceShareConfig evidenceShareConfig,
-        DwpAddressLookupService dwpAddressLookupService,
+        ReferenceDataLookup referenceDataLookup,
         CcdService ccdService,
         IdamService idamService,
         @Value("${robotics.englishCount}") int englishRoboticCount,
         @Value("${robotics.scottishCount}") int scottishRoboticCount
     ) {
-        this.evidenceManagementService = evidenceManagementService;
+        this.documentPrefetcher = documentPrefetcher;
         this.emailService = emailService;
         this.emailHelper = emailHelper;
         this.roboticsJsonMapper = roboticsJsonMapper;
         this.roboticsJsonValidator = roboticsJsonValidator;
         this.roboticsEmailTemplate = roboticsEmailTemplate;
         this.evidenceShareConfig = evidenceShareConfig;
-        this.dwpAddressLookupService = dwpAddressLookupService;
+        this.referenceDataLookup = referenceDataLookup;
         this.ccdService = ccdService;
         this.idamService = idamService;
         this.englishRoboticCount = englishRoboticCount;
@@ -96,8 +97,7 @@ public class RoboticsService {
 
         JSONObject roboticsJson = createRobotics(wrapper);
 
-        log.info("Downloading additional evidence for robotics for case id {} ", caseDetails.getId());
-        Map<SscsDocument, byte[]> additionalEvidence = downloadEvidence(caseData, Long.valueOf(caseData.getCcdCaseId()));
+        Map<SscsDocument, LazyDocument> additionalEvidence = additionalEvidence(caseData, Long.valueOf(caseData.getCcdCaseId()));
 
         log.info("Downloading SSCS1 for robotics for case id {} ", caseDetails.getId());
         byte[] sscs1Form = downloadSscs1(caseData, Long.valueOf(caseData.getCcdCaseId()));
@@ -125,7 +125,7 @@ public class RoboticsService {
         String issuingOffice = sscsCaseData.getAppeal().getMrnDetails().getDwpIssuingOffice();
 
         if (issuingOffice != null) {
-            Optional<OfficeMapping> dwpIssuingOfficeMapping = dwpAddressLookupService.getDwpMappingByOffice(sscsCaseData.getAppeal().getBenefitType().getCode(), issuingOffice);
+            Optional<OfficeMapping> dwpIssuingOfficeMapping = referenceDataLookup.getDwpMappingByOffice(sscsCaseData.getAppeal().getBenefitType().getCode(), issuingOffice);
 
             if (dwpIssuingOfficeMapping.isPresent()) {
                 if (!dwpIssuingOfficeMapping.get().getMapping().getCcd().equals(issuingOffice)) {
@@ -141,7 +141,7 @@ public class RoboticsService {
         DynamicList originatingOffice = sscsCaseData.getDwpOriginatingOffice();
 
         if (originatingOffice != null && originatingOffice.getValue().getCode() != null) {
-            Optional<OfficeMapping> dwpOriginatingOfficeMapping = dwpAddressLookupService.getDwpMappingByOffice(sscsCaseData.getAppeal().getBenefitType().getCode(), originatingOffice.getValue().getCode());
+            Optional<OfficeMapping> dwpOriginatingOfficeMapping = referenceDataLookup.getDwpMappingByOffice(sscsCaseData.getAppeal().getBenefitType().getCode(), originatingOffice.getValue().getCode());
 
             if (dwpOriginatingOfficeMapping.isPresent()) {
                 if (!dwpOriginatingOfficeMapping.get().getMapping().getCcd().equals(originatingOffice.getValue().getCode())) {
@@ -158,7 +158,7 @@ public class RoboticsService {
         DynamicList presentingOffice = sscsCaseData.getDwpPresentingOffice();
 
         if (presentingOffice != null && presentingOffice.getValue().getCode() != null) {
-            Optional<OfficeMapping> dwpPresentingOfficeMapping = dwpAddressLookupService.getDwpMappingByOffice(sscsCaseData.getAppeal().getBenefitType().getCode(), presentingOffice.getValue().getCode());
+            Optional<OfficeMapping> dwpPresentingOfficeMapping = referenceDataLookup.getDwpMappingByOffice(sscsCaseData.getAppeal().getBenefitType().getCode(), presentingOffice.getValue().getCode());
 
             if (dwpPresentingOfficeMapping.isPresent()) {
                 if (!dwpPresentingOfficeMapping.get().getMapping().getCcd().equals(presentingOffice.getValue().getCode())) {
@@ -171,29 +171,59 @@ public class RoboticsService {
         return false;
     }
 
+    /**
+     * The URLs of the documents {@link #sendCaseToRobotics} will download for the case.
+     */
+    public List<String> documentsToDownload(SscsCaseData sscsCaseData) {
+        List<SscsDocument> documents = new ArrayList<>();
+        if (!isDigitalCase(sscsCaseData)) {
+            evidenceDocuments(sscsCaseData).stream()
+                .filter(doc -> doc.getValue().getDocumentLink() != null
+                    && doc.getValue().getDocumentLink().getDocumentFilename() != null)
+                .forEach(documents::add);
+        }
+        sscs1Document(sscsCaseData)
+            .filter(doc -> doc.getValue().getDocumentLink() != null)
+            .ifPresent(documents::add);
+        return documents.stream()
+            .map(doc -> doc.getValue().getDocumentLink().getDocumentUrl())
+            .collect(Collectors.toList());
+    }
+
     private byte[] downloadSscs1(SscsCaseData sscsCaseData, Long caseId) {
+        return sscs1Document(sscsCaseData).map(doc -> downloadBinary(doc, caseId)).orElse(null);
+    }
+
+    private Optional<SscsDocument> sscs1Document(SscsCaseData sscsCaseData) {
         if (hasEvidence(sscsCaseData)) {
             for (SscsDocument doc : sscsCaseData.getSscsDocument()) {
                 if (doc.getValue().getDocumentType() != null && doc.getValue().getDocumentType().equalsIgnoreCase("sscs1")) {
-                    return downloadBinary(doc, caseId);
+                    return Optional.of(doc);
                 }
             }
         }
-        return null;
+        return Optional.empty();
     }
 
-    private Map<SscsDocument, byte[]> downloadEvidence(SscsCaseData sscsCaseData, Long caseId) {
-        if (hasEvidence(sscsCaseData) && !isEvidenceSentForBulkPrint(sscsCaseData)) {
-            Map<SscsDocument, byte[]> map = new LinkedHashMap<>();
-            for (SscsDocument doc : sscsCaseData.getSscsDocument()) {
-                if (doc.getValue().getDocumentType() == null || doc.getValue().getDocumentType().equalsIgnoreCase("appellantEvidence")) {
-                    map.put(doc, downloadBinary(doc, caseId));
-                }
-            }
-            return map;
-        } else {
+    private Map<SscsDocument, LazyDocument> additionalEvidence(SscsCaseData sscsCaseData, Long caseId) {
+        List<SscsDocument> evidence = evidenceDocuments(sscsCaseData);
+        if (evidence.isEmpty()) {
             return Collections.emptyMap();
         }
+        Map<SscsDocument, LazyDocument> map = new LinkedHashMap<>();
+        for (SscsDocument doc : evidence) {
+            map.put(doc, LazyDocument.of(() -> downloadBinary(doc, caseId)));
+        }
+        return map;
+    }
+
+    private List<SscsDocument> evidenceDocuments(SscsCaseData sscsCaseData) {
+        if (hasEvidence(sscsCaseData) && !isEvidenceSentForBulkPrint(sscsCaseData)) {
+            return sscsCaseData.getSscsDocument().stream()
+                .filter(doc -> doc.getValue().getDocumentType() == null || doc.getValue().getDocumentType().equalsIgnoreCase("appellantEvidence"))
+                .collect(Collectors.toList());
+        }
+        return Collections.emptyList();
     }
 
     private boolean isEvidenceSentForBulkPrint(SscsCaseData caseData) {
@@ -207,7 +237,7 @@ public class RoboticsService {
     private byte[] downloadBinary(SscsDocument doc, Long caseId) {
         log.info("About to download binary to attach to robotics for caseId {}", caseId);
         if (doc.getValue().getDocumentLink() != null) {
-            return evidenceManagementService.download(URI.create(doc.getValue().getDocumentLink().getDocumentUrl()), null);
+            return documentPrefetcher.download(URI.create(doc.getValue().getDocumentLink().getDocumentUrl()), null);
         } else {
             return new byte[0];
         }
@@ -232,11 +262,11 @@ public class RoboticsService {
         return roboticsAppeal;
     }
 
-    private void sendJsonByEmail(long caseId, SscsCaseData caseData, JSONObject json, byte[] pdf, Map<SscsDocument, byte[]> additionalEvidence) {
+    private void sendJsonByEmail(long caseId, SscsCaseData caseData, JSONObject json, byte[] pdf, Map<SscsDocument, LazyDocument> additionalEvidence) {
 
         boolean isScottish = Optional.ofNullable(caseData.getRegionalProcessingCenter()).map(f -> equalsIgnoreCase(f.getName(), GLASGOW)).orElse(false);
         boolean isPipAeTo = Optional.ofNullable(caseData.getAppeal().getMrnDetails()).map(m -> equalsIgnoreCase(m.getDwpIssuingOffice(), PIP_AE)).orElse(false);
-        boolean isDigitalCase = Optional.ofNullable(caseData.getCreatedInGapsFrom()).map(d -> equalsIgnoreCase(d, READY_TO_LIST.getId())).orElse(false);
+        boolean isDigitalCase = isDigitalCase(caseData);
 
         Appellant appellant = caseData.getAppeal().getAppellant();
 
@@ -246,7 +276,7 @@ public class RoboticsService {
         List<EmailAttachment> attachments = addDefaultAttachment(json, pdf, appellantUniqueId);
 
         if (!isDigitalCase) {
-            log.info("Add robotics additional evidence for non digital case and case id {}", caseId);
+            log.info("Downloading and adding robotics additional evidence for non digital case and case id {}", caseId);
             addAdditionalEvidenceAttachments(additionalEvidence, attachments);
         }
 
@@ -265,6 +295,10 @@ public class RoboticsService {
             caseId, subject, caseData.getAppeal().getBenefitType().getCode(), isScottish, isPipAeTo);
     }
 
+    private boolean isDigitalCase(SscsCaseData caseData) {
+        return Optional.ofNullable(caseData.getCreatedInGapsFrom()).map(d -> equalsIgnoreCase(d, READY_TO_LIST.getId())).orElse(false);
+    }
+
     private String buildSubject(String appellantUniqueId, boolean isScottish) {
         int roboticCount = isScottish ? scottishRoboticCount : englishRoboticCount;
         int randomNumber = rn.nextInt(roboticCount) + 1;
@@ -272,11 +306,11 @@ public class RoboticsService {
         return appellantUniqueId + " for Robot [" + randomNumber + "]";
     }
 
-    private void addAdditionalEvidenceAttachments(Map<SscsDocument, byte[]> additionalEvidence, List<EmailAttachment> attachments) {
+    private void addAdditionalEvidenceAttachments(Map<SscsDocument, LazyDocument> additionalEvidence, List<EmailAttachment> attachments) {
         for (SscsDocument sscsDocument : additionalEvidence.keySet()) {
             if (sscsDocument != null) {
                 if (sscsDocument.getValue().getDocumentLink().getDocumentFilename() != null) {
-                    byte[] content = additionalEvidence.get(sscsDocument);
+                    byte[] content = additionalEvidence.get(sscsDocument).getContent();
                     if (content != null) {
                         attachments.add(file(content, sscsDocument.getValue().getDocumentLink().getDocumentFilename()));
                     }
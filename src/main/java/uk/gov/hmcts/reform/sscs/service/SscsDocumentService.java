@@ -7,7 +7,10 @@ import static org.springframework.http.MediaType.APPLICATION_PDF;
 import java.io.ByteArrayOutputStream;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.function.Consumer;
@@ -16,6 +19,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import uk.gov.hmcts.reform.document.domain.Document;
 import uk.gov.hmcts.reform.document.domain.UploadResponse;
 import uk.gov.hmcts.reform.sscs.ccd.callback.DocumentType;
 import uk.gov.hmcts.reform.sscs.ccd.domain.AbstractDocument;
@@ -30,6 +35,9 @@ import uk.gov.hmcts.reform.sscs.model.PdfDocument;
 @Slf4j
 @Service
 public class SscsDocumentService {
+    // kept well under the dm-store request size limit
+    private static final long MAX_UPLOAD_BATCH_BYTES = 50L * 1024 * 1024;
+
     private final EvidenceManagementService evidenceManagementService;
     private final PdfHelper pdfHelper;
 
@@ -46,10 +54,28 @@ public class SscsDocumentService {
         return sscsDocuments.stream()
             .filter(doc -> documentType.getValue().equals(doc.getValue().getDocumentType())
                     && "No".equals(doc.getValue().getEvidenceIssued()))
-            .map(doc -> PdfDocument.builder().pdf(toPdf(doc, isConfidentialCase)).document(doc).build())
+            .map(doc -> toPdfDocument(doc, isConfidentialCase))
             .collect(Collectors.toList());
     }
 
+    private PdfDocument toPdfDocument(AbstractDocument sscsDocument, boolean isConfidentialCase) {
+        DocumentLink resizedLink = sscsDocument.getValue().getResizedDocumentLink();
+        // a resized rendition is only known to match the original when there is no edited version to send instead
+        if (resizedLink != null && resizedLink.getDocumentUrl() != null && sscsDocument.getValue().getEditedDocumentLink() == null) {
+            try {
+                byte[] content = evidenceManagementService.download(URI.create(resizedLink.getDocumentUrl()), "sscs");
+                return PdfDocument.builder()
+                    .pdf(new Pdf(content, sscsDocument.getValue().getDocumentFileName()))
+                    .document(sscsDocument)
+                    .resized(true)
+                    .build();
+            } catch (Exception e) {
+                log.warn("Failed to download resized document [" + resizedLink.getDocumentUrl() + "], using the original", e);
+            }
+        }
+        return PdfDocument.builder().pdf(toPdf(sscsDocument, isConfidentialCase)).document(sscsDocument).build();
+    }
+
     private Pdf toPdf(AbstractDocument sscsDocument, boolean isConfidentialCase) {
         return new Pdf(getContentForGivenDoc(sscsDocument, isConfidentialCase), sscsDocument.getValue().getDocumentFileName());
     }
@@ -73,49 +99,126 @@ public class SscsDocumentService {
     public List<PdfDocument> sizeNormalisePdfs(List<PdfDocument> pdfDocuments) {
 
         List<PdfDocument> normalisedPdfs = new ArrayList<>();
+        List<PdfDocument> resizedPdfs = new ArrayList<>();
 
         for (PdfDocument pdfDoc : pdfDocuments) {
 
-            AbstractDocument updatedSscsDocument;
-            Pdf updatedPdf;
+            if (pdfDoc.isResized()) {
+                normalisedPdfs.add(pdfDoc);
+                continue;
+            }
 
             Optional<Pdf> resized = resizedPdf(pdfDoc.getPdf());
 
             if (resized.isPresent()) {
-                updatedPdf = resized.get();
-                updatedSscsDocument = saveAndUpdateDocument(updatedPdf, pdfDoc.getDocument());
+                PdfDocument resizedPdf = PdfDocument.builder().document(pdfDoc.getDocument()).pdf(resized.get()).build();
+                resizedPdfs.add(resizedPdf);
+                normalisedPdfs.add(resizedPdf);
             } else {
-                updatedPdf = pdfDoc.getPdf();
-                updatedSscsDocument = pdfDoc.getDocument();
+                normalisedPdfs.add(PdfDocument.builder().document(pdfDoc.getDocument()).pdf(pdfDoc.getPdf()).build());
             }
-            normalisedPdfs.add(PdfDocument.builder().document(updatedSscsDocument).pdf(updatedPdf).build());
         }
+        saveAndUpdateDocuments(resizedPdfs);
         return normalisedPdfs;
     }
 
     public AbstractDocument saveAndUpdateDocument(Pdf pdf, AbstractDocument document) {
+        saveAndUpdateDocuments(singletonList(PdfDocument.builder().pdf(pdf).document(document).build()));
+        return document;
+    }
 
-        String pdfFileName = document.getValue().getDocumentFileName() + ".pdf";
+    /**
+     * Uploads the resized pdfs in as few requests as the batch size allows and sets each document's resized link.
+     */
+    private void saveAndUpdateDocuments(List<PdfDocument> resizedPdfs) {
+        List<PdfDocument> batch = new ArrayList<>();
+        long batchBytes = 0;
+        for (PdfDocument resizedPdf : resizedPdfs) {
+            int size = resizedPdf.getPdf().getContent().length;
+            if (!batch.isEmpty() && batchBytes + size > MAX_UPLOAD_BATCH_BYTES) {
+                uploadBatch(batch);
+                batch = new ArrayList<>();
+                batchBytes = 0;
+            }
+            batch.add(resizedPdf);
+            batchBytes += size;
+        }
+        if (!batch.isEmpty()) {
+            uploadBatch(batch);
+        }
+    }
 
-        ByteArrayMultipartFile file = ByteArrayMultipartFile
-            .builder()
-            .content(pdf.getContent())
-            .name(pdfFileName)
-            .contentType(APPLICATION_PDF)
-            .build();
+    private void uploadBatch(List<PdfDocument> batch) {
+        List<String> pdfFileNames = batch.stream()
+            .map(pdfDoc -> pdfDoc.getDocument().getValue().getDocumentFileName() + ".pdf")
+            .collect(Collectors.toList());
+        if (batch.size() > 1 && new HashSet<>(pdfFileNames).size() < batch.size()) {
+            // the stored documents could not be told apart by name
+            log.info("Resized documents share a file name, storing them one at a time " + pdfFileNames);
+            batch.forEach(pdfDoc -> uploadBatch(singletonList(pdfDoc)));
+            return;
+        }
+        List<MultipartFile> files = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            files.add(ByteArrayMultipartFile
+                .builder()
+                .content(batch.get(i).getPdf().getContent())
+                .name(pdfFileNames.get(i))
+                .contentType(APPLICATION_PDF)
+                .build());
+        }
 
-        log.info("About to upload resized document [" + pdfFileName + "]");
+        log.info("About to upload resized documents " + pdfFileNames);
 
+        UploadResponse upload;
         try {
-            UploadResponse upload = evidenceManagementService.upload(singletonList(file), "sscs");
-            String location = upload.getEmbedded().getDocuments().get(0).links.self.href;
-            DocumentLink documentLink = DocumentLink.builder().documentUrl(location).build();
-            document.getValue().setResizedDocumentLink(documentLink);
-
+            upload = evidenceManagementService.upload(files, "sscs");
         } catch (Exception e) {
-            log.error("Failed to store resized pdf document but carrying on [" + pdfFileName + "]", e);
+            if (batch.size() > 1) {
+                log.warn("Failed to store resized pdf documents together, storing them one at a time " + pdfFileNames, e);
+                batch.forEach(pdfDoc -> uploadBatch(singletonList(pdfDoc)));
+            } else {
+                log.error("Failed to store resized pdf document but carrying on " + pdfFileNames, e);
+            }
+            return;
         }
-        return document;
+
+        try {
+            List<Document> documents = upload.getEmbedded().getDocuments();
+            if (documents.size() != batch.size()) {
+                throw new IllegalStateException("Uploaded " + batch.size() + " documents but got " + documents.size() + " back");
+            }
+            Map<String, Document> storedByName = batch.size() == 1
+                ? Map.of(pdfFileNames.get(0), documents.get(0)) : storedByName(documents);
+            if (!storedByName.keySet().containsAll(pdfFileNames)) {
+                throw new IllegalStateException("Uploaded " + pdfFileNames + " but got " + storedByName.keySet() + " back");
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                Document stored = storedByName.get(pdfFileNames.get(i));
+                DocumentLink documentLink = DocumentLink.builder().documentUrl(stored.links.self.href).build();
+                batch.get(i).getDocument().getValue().setResizedDocumentLink(documentLink);
+            }
+        } catch (RuntimeException e) {
+            // the documents were stored, uploading them again would only store them twice
+            log.error("Stored resized pdf documents but could not match them up, leaving them unlinked "
+                + pdfFileNames, e);
+        }
+    }
+
+    /**
+     * The stored documents keyed by the name they were uploaded with, as dm-store does not promise to return them in
+     * the order they were sent.
+     */
+    private static Map<String, Document> storedByName(List<Document> documents) {
+        Map<String, Document> storedByName = new HashMap<>();
+        for (Document document : documents) {
+            if (document.originalDocumentName == null
+                || storedByName.putIfAbsent(document.originalDocumentName, document) != null) {
+                throw new IllegalStateException("Stored document name is missing or repeated: "
+                    + document.originalDocumentName);
+            }
+        }
+        return storedByName;
     }
 
     public Optional<Pdf> resizedPdf(Pdf originalPdf) throws BulkPrintException {
@@ -0,0 +1,84 @@
+package uk.gov.hmcts.reform.sscs.servicebus;
+
+import static java.util.function.Function.identity;
+import static java.util.stream.Collectors.toMap;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import java.io.IOException;
+import java.util.Map;
+import java.util.stream.Stream;
+import org.springframework.stereotype.Component;
+import uk.gov.hmcts.reform.sscs.ccd.domain.EventType;
+
+/**
+ * Streams through a callback message picking out the event, case id, state and urgent case flag, skipping over the
+ * rest of the case data without binding it.
+ */
+@Component
+public class CallbackMessageReader {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private static final Map<String, EventType> EVENTS_BY_CCD_TYPE = Stream.of(EventType.values())
+        .collect(toMap(EventType::getCcdType, identity(), (first, second) -> first));
+
+    public CallbackMessageSummary read(String message) throws IOException {
+        CallbackMessageSummary.CallbackMessageSummaryBuilder summary = CallbackMessageSummary.builder();
+
+        try (JsonParser parser = JSON_FACTORY.createParser(message)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Callback message is not a JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if ("event_id".equals(field) && value == JsonToken.VALUE_STRING) {
+                    String eventId = parser.getText();
+                    summary.eventId(eventId).event(EVENTS_BY_CCD_TYPE.get(eventId));
+                } else if ("case_details".equals(field) && value == JsonToken.START_OBJECT) {
+                    readCaseDetails(parser, summary);
+                } else if ("case_details_before".equals(field) && value == JsonToken.START_OBJECT) {
+                    int start = (int) parser.getTokenLocation().getCharOffset();
+                    parser.skipChildren();
+                    summary.caseDetailsBeforeStart(start)
+                        .caseDetailsBeforeEnd((int) parser.getCurrentLocation().getCharOffset());
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return summary.build();
+    }
+
+    private void readCaseDetails(JsonParser parser, CallbackMessageSummary.CallbackMessageSummaryBuilder summary)
+        throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if ("id".equals(field) && value.isScalarValue()) {
+                summary.caseId(parser.getText());
+            } else if ("state".equals(field) && value == JsonToken.VALUE_STRING) {
+                summary.state(parser.getText());
+            } else if ("case_data".equals(field) && value == JsonToken.START_OBJECT) {
+                readCaseData(parser, summary);
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private void readCaseData(JsonParser parser, CallbackMessageSummary.CallbackMessageSummaryBuilder summary)
+        throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if ("urgentCase".equals(field) && value == JsonToken.VALUE_STRING) {
+                summary.urgentCase(parser.getText());
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package uk.gov.hmcts.reform.sscs.servicebus;
+
+import lombok.Builder;
+import lombok.Value;
+import uk.gov.hmcts.reform.sscs.ccd.domain.EventType;
+
+/**
+ * The routing fields of a callback message, read without binding the case data.
+ */
+@Value
+@Builder
+public class CallbackMessageSummary {
+    String eventId;
+    EventType event;
+    String caseId;
+    String state;
+    String urgentCase;
+    int caseDetailsBeforeStart;
+    int caseDetailsBeforeEnd;
+
+    public boolean isUrgent() {
+        return "Yes".equalsIgnoreCase(urgentCase);
+    }
+
+    public boolean hasCaseDetailsBefore() {
+        return caseDetailsBeforeEnd > caseDetailsBeforeStart;
+    }
+
+    /**
+     * The original message with the {@code case_details_before} object replaced by {@code null}, so binding it
+     * skips the previous copy of the case.
+     */
+    public String withoutCaseDetailsBefore(String message) {
+        if (!hasCaseDetailsBefore()) {
+            return message;
+        }
+        return message.substring(0, caseDetailsBeforeStart) + "null" + message.substring(caseDetailsBeforeEnd);
+    }
+}
@@ -0,0 +1,100 @@
+package uk.gov.hmcts.reform.sscs.servicebus;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.jms.config.JmsListenerEndpointRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * Lets work already taken on finish before the service stops. On shutdown it stops the JMS listeners so no more
+ * messages are taken, then waits up to {@code drain.timeout} for messages being processed and messages queued in
+ * priority lanes, logging what is left as it goes.
+ *
+ * <p>Messages, including those queued in lanes, are only acknowledged once processed, so any still unfinished when
+ * the timeout passes are delivered again by Service Bus, and may repeat work they had already done.
+ *
+ * <p>Runs in the phase after the listeners and the web server are stopped, and before executors are destroyed.
+ */
+@Slf4j
+@Component
+@Lazy(false)
+public class MessageDrain implements SmartLifecycle {
+
+    static final String REMAINING_GAUGE = "evidence_share.drain.remaining";
+    private static final long POLL_MILLIS = 200;
+    private static final long REPORT_MILLIS = 2000;
+
+    private final JmsListenerEndpointRegistry jmsListenerEndpointRegistry;
+    private final TopicConsumer topicConsumer;
+    private final PriorityLanes priorityLanes;
+    private final Duration timeout;
+    private volatile boolean running;
+
+    public MessageDrain(JmsListenerEndpointRegistry jmsListenerEndpointRegistry,
+                        TopicConsumer topicConsumer,
+                        PriorityLanes priorityLanes,
+                        MeterRegistry meterRegistry,
+                        @Value("${drain.timeout}") Duration timeout) {
+        this.jmsListenerEndpointRegistry = jmsListenerEndpointRegistry;
+        this.topicConsumer = topicConsumer;
+        this.priorityLanes = priorityLanes;
+        this.timeout = timeout;
+        Gauge.builder(REMAINING_GAUGE, this, MessageDrain::remaining).register(meterRegistry);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        log.info("Draining in-flight work for up to {}", timeout);
+        jmsListenerEndpointRegistry.stop();
+
+        long deadline = System.nanoTime() + timeout.toNanos();
+        long nextReport = 0;
+        try {
+            while (remaining() > 0 && System.nanoTime() < deadline) {
+                if (System.nanoTime() >= nextReport) {
+                    log.info("Waiting for {} messages in flight and {} queued in lanes",
+                        topicConsumer.getInFlight(), priorityLanes.getQueued());
+                    nextReport = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(REPORT_MILLIS);
+                }
+                TimeUnit.MILLISECONDS.sleep(POLL_MILLIS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            running = false;
+        }
+
+        if (remaining() > 0) {
+            log.warn("Stopped draining after {} with {} messages in flight and {} queued in lanes",
+                timeout, topicConsumer.getInFlight(), priorityLanes.getQueued());
+        } else {
+            log.info("Drained all in-flight work");
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // stopped after phases with a higher value, which includes the JMS listeners and the web server
+        return DEFAULT_PHASE - 1;
+    }
+
+    int remaining() {
+        return topicConsumer.getInFlight() + priorityLanes.getQueued();
+    }
+}
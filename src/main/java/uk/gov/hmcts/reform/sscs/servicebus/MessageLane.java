@@ -0,0 +1,24 @@
+package uk.gov.hmcts.reform.sscs.servicebus;
+
+/**
+ * Where a callback message is processed when priority lanes are enabled. Each lane has its own threads and queue so
+ * a backlog in one does not hold up the others.
+ */
+public enum MessageLane {
+    /** Cases flagged as urgent, whatever the event. */
+    URGENT("urgent"),
+    /** Events that only read and update CCD. */
+    LIGHT("light"),
+    /** Events that generate, print or send documents. */
+    HEAVY("heavy");
+
+    private final String tag;
+
+    MessageLane(String tag) {
+        this.tag = tag;
+    }
+
+    public String getTag() {
+        return tag;
+    }
+}
@@ -0,0 +1,129 @@
+package uk.gov.hmcts.reform.sscs.servicebus;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * A bounded executor per {@link MessageLane}. The listener thread hands each message to its lane and goes back for
+ * the next one, and the message is settled on the lane's thread once it has been processed, so a backlog in one
+ * lane does not hold up listeners that have messages for another. A lane takes as many messages as it has threads
+ * and queue space, see {@link #freeCapacity()}, and a listener with a message for a full lane waits for room in it.
+ * With no executors every message is processed on the listener thread, as it was before lanes existed.
+ *
+ * <p>Messages in different lanes, or on different threads of the same lane, can complete out of order.
+ */
+@Slf4j
+public class PriorityLanes {
+
+    static final String QUEUED_GAUGE = "evidence_share.lanes.queued";
+    static final String ACTIVE_GAUGE = "evidence_share.lanes.active";
+
+    private static final long SHUTDOWN_SECONDS = 30;
+
+    private final Map<MessageLane, ThreadPoolExecutor> executors;
+    private final Map<MessageLane, Semaphore> admissions = new EnumMap<>(MessageLane.class);
+
+    public PriorityLanes(Map<MessageLane, ThreadPoolExecutor> executors, MeterRegistry meterRegistry) {
+        this.executors = executors;
+        executors.forEach((lane, executor) -> {
+            admissions.put(lane, new Semaphore(executor.getMaximumPoolSize() + executor.getQueue().remainingCapacity()));
+            Gauge.builder(QUEUED_GAUGE, executor, e -> e.getQueue().size())
+                .tag("lane", lane.getTag())
+                .register(meterRegistry);
+            Gauge.builder(ACTIVE_GAUGE, executor, ThreadPoolExecutor::getActiveCount)
+                .tag("lane", lane.getTag())
+                .register(meterRegistry);
+        });
+    }
+
+    public static ThreadPoolExecutor newLaneExecutor(MessageLane lane, int threads, int queueCapacity) {
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            new CustomizableThreadFactory("lane-" + lane.getTag() + "-"),
+            // only reached once the executor is shut down, as a lane never takes more than it has room for. Unlike
+            // CallerRunsPolicy this still runs the work, so a message already handed over is still settled
+            (work, executor) -> work.run());
+    }
+
+    public boolean isEnabled() {
+        return !executors.isEmpty();
+    }
+
+    /**
+     * Messages the lanes could take right now without a listener waiting for room.
+     */
+    public int freeCapacity() {
+        return admissions.values().stream().mapToInt(Semaphore::availablePermits).sum();
+    }
+
+    /**
+     * Threads across all lanes, which is how many messages can be processed at once.
+     */
+    public int getThreads() {
+        return executors.values().stream().mapToInt(ThreadPoolExecutor::getMaximumPoolSize).sum();
+    }
+
+    public int getQueued() {
+        return executors.values().stream().mapToInt(executor -> executor.getQueue().size()).sum();
+    }
+
+    /**
+     * Hands the work to its lane, waiting only while the lane is full, and returns without waiting for it to
+     * finish. The returned future completes on the lane's thread once the work has run, exceptionally with anything
+     * it threw, so whatever settles the message should be chained to it.
+     */
+    public CompletableFuture<Void> submit(MessageLane lane, Runnable work) {
+        ThreadPoolExecutor executor = executors.get(lane);
+        if (executor == null || executor.isShutdown()) {
+            return run(work);
+        }
+        Semaphore admission = admissions.get(lane);
+        try {
+            admission.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(
+                new IllegalStateException("Interrupted waiting for room in the " + lane.getTag() + " lane", e));
+        }
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        executor.execute(() -> {
+            try {
+                work.run();
+                done.complete(null);
+            } catch (RuntimeException | Error e) {
+                done.completeExceptionally(e);
+            } finally {
+                admission.release();
+            }
+        });
+        return done;
+    }
+
+    private static CompletableFuture<Void> run(Runnable work) {
+        try {
+            work.run();
+            return CompletableFuture.completedFuture(null);
+        } catch (RuntimeException | Error e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    public void shutdown() throws InterruptedException {
+        executors.values().forEach(ThreadPoolExecutor::shutdown);
+        for (Map.Entry<MessageLane, ThreadPoolExecutor> entry : executors.entrySet()) {
+            if (!entry.getValue().awaitTermination(SHUTDOWN_SECONDS, TimeUnit.SECONDS)) {
+                log.warn("{} lane still had {} messages queued at shutdown", entry.getKey().getTag(),
+                    entry.getValue().getQueue().size());
+            }
+        }
+    }
+}
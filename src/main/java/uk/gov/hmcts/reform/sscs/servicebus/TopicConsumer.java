@@ -3,6 +3,16 @@ package uk.gov.hmcts.reform.sscs.servicebus;
 import static java.lang.String.format;
 import static uk.gov.hmcts.reform.sscs.ccd.callback.CallbackType.SUBMITTED;
 
+import brave.Span;
+import brave.Tracer;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.jms.Message;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
@@ -11,27 +21,56 @@ import org.springframework.jms.support.JmsHeaders;
 import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.stereotype.Component;
 import uk.gov.hmcts.reform.sscs.callback.CallbackDispatcher;
+import uk.gov.hmcts.reform.sscs.callback.DispatchContext;
 import uk.gov.hmcts.reform.sscs.ccd.callback.Callback;
 import uk.gov.hmcts.reform.sscs.ccd.deserialisation.SscsCaseCallbackDeserializer;
 import uk.gov.hmcts.reform.sscs.ccd.domain.SscsCaseData;
 import uk.gov.hmcts.reform.sscs.exception.*;
+import uk.gov.hmcts.reform.sscs.resilience.ResilientCallExecutor;
+import uk.gov.hmcts.reform.sscs.servicebus.messaging.MessageLockMonitor;
+import uk.gov.hmcts.reform.sscs.servicebus.messaging.MessageSettlement;
 
 @Slf4j
 @Component
 @Lazy(false)
 public class TopicConsumer {
 
+    static final String IN_FLIGHT_GAUGE = "evidence_share.messages.in_flight";
+    static final String PAYLOAD_SUMMARY = "evidence_share.messages.payload";
+
     private final Integer maxRetryAttempts;
     private final CallbackDispatcher<SscsCaseData> dispatcher;
     private final SscsCaseCallbackDeserializer sscsDeserializer;
+    private final CallbackMessageReader callbackMessageReader;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final DistributionSummary payloadSize;
+    private final Tracer tracer;
+    private final PriorityLanes priorityLanes;
+    private final MessageLockMonitor messageLockMonitor;
+    private final ResilientCallExecutor resilientCallExecutor;
 
     public TopicConsumer(@Value("${send-letter.maxRetryAttempts}") Integer maxRetryAttempts,
                          CallbackDispatcher<SscsCaseData> dispatcher,
-                         SscsCaseCallbackDeserializer sscsDeserializer) {
+                         SscsCaseCallbackDeserializer sscsDeserializer,
+                         CallbackMessageReader callbackMessageReader,
+                         MeterRegistry meterRegistry,
+                         Tracer tracer,
+                         PriorityLanes priorityLanes,
+                         MessageLockMonitor messageLockMonitor,
+                         ResilientCallExecutor resilientCallExecutor) {
         this.maxRetryAttempts = maxRetryAttempts;
         //noinspection unchecked
         this.dispatcher = dispatcher;
         this.sscsDeserializer = sscsDeserializer;
+        this.callbackMessageReader = callbackMessageReader;
+        meterRegistry.gauge(IN_FLIGHT_GAUGE, inFlight);
+        this.payloadSize = DistributionSummary.builder(PAYLOAD_SUMMARY)
+            .baseUnit("characters")
+            .register(meterRegistry);
+        this.tracer = tracer;
+        this.priorityLanes = priorityLanes;
+        this.messageLockMonitor = messageLockMonitor;
+        this.resilientCallExecutor = resilientCallExecutor;
     }
 
     @JmsListener(
@@ -39,35 +78,158 @@ public class TopicConsumer {
         containerFactory = "topicJmsListenerContainerFactory",
         subscription = "${amqp.subscription}"
     )
-    public void onMessage(String message, @Header(JmsHeaders.MESSAGE_ID) String messageId) {
-        processMessageWithRetry(message, 1, messageId);
+    public void onMessage(String message,
+                          @Header(JmsHeaders.MESSAGE_ID) String messageId,
+                          @Header(name = JmsHeaders.REDELIVERED, required = false) Boolean redelivered,
+                          Message jmsMessage) {
+        long received = System.nanoTime();
+        messageLockMonitor.received(messageId, redelivered);
+        if (!priorityLanes.isEnabled()) {
+            try {
+                onMessage(message, messageId);
+            } finally {
+                messageLockMonitor.settled(messageId, System.nanoTime() - received);
+            }
+            return;
+        }
+        // the listener goes back for the next message, this one is settled on its lane's thread once processed
+        submit(message, messageId).whenComplete((ignored, failure) -> {
+            if (failure == null) {
+                MessageSettlement.accept(jmsMessage, messageId);
+            } else {
+                log.error("Message id {} handed back to Service Bus as it failed", messageId, failure);
+                MessageSettlement.abandon(jmsMessage, messageId);
+            }
+            messageLockMonitor.settled(messageId, System.nanoTime() - received);
+        });
     }
 
-    private void processMessageWithRetry(String message, int retry, String messageId) {
+    /**
+     * Processes the message and returns once it has been processed, on its lane if priority lanes are enabled.
+     * Anything processing throws is thrown here.
+     */
+    public void onMessage(String message, String messageId) {
+        try {
+            submit(message, messageId).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private CompletableFuture<Void> submit(String message, String messageId) {
+        payloadSize.record(message.length());
+        CallbackMessageSummary summary = readSummary(message, messageId);
+        if (priorityLanes.isEnabled()) {
+            MessageLane lane = laneFor(summary);
+            return priorityLanes.submit(lane, () -> process(message, messageId, summary, lane));
+        }
+        process(message, messageId, summary, null);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    private void process(String message, String messageId, CallbackMessageSummary summary, MessageLane lane) {
+        inFlight.incrementAndGet();
+        Span span = tracer.nextSpan().name("process-message").tag("message.id", String.valueOf(messageId));
+        if (lane != null) {
+            span.tag("message.lane", lane.getTag());
+        }
+        span.start();
+        try (Tracer.SpanInScope ignored = tracer.withSpanInScope(span);
+             DispatchContext context = DispatchContext.open(messageId, caseIdOf(summary))) {
+            processMessageWithRetry(message, summary, 1, messageId);
+        } finally {
+            span.finish();
+            inFlight.decrementAndGet();
+        }
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private MessageLane laneFor(CallbackMessageSummary summary) {
+        if (summary != null && summary.isUrgent()) {
+            return MessageLane.URGENT;
+        }
+        if (summary != null && summary.getEvent() != null && dispatcher.isHeavy(summary.getEvent())) {
+            return MessageLane.HEAVY;
+        }
+        return MessageLane.LIGHT;
+    }
+
+    private void processMessageWithRetry(String message, CallbackMessageSummary summary, int retry, String messageId) {
         try {
             log.info("Message Id {} received from the service bus by evidence share service", messageId);
-            processMessage(message, messageId);
+            processMessage(message, summary, messageId);
         } catch (Exception e) {
-            if (retry > maxRetryAttempts || isException(e)) {
+            Optional<DownstreamUnavailableException> unavailable = DownstreamUnavailableException.findIn(e);
+            if (unavailable.isPresent() && awaitBusyRetry(unavailable.get(), retry)) {
+                log.info("Retrying message id {} as {}, retry {} out of {}", messageId,
+                    unavailable.get().getMessage(), retry, maxRetryAttempts);
+                tracer.currentSpan().annotate("retry " + retry);
+                processMessageWithRetry(message, summary, retry + 1, messageId);
+            } else if (unavailable.isPresent()) {
+                // handed straight back, Service Bus delivers it again and dead-letters it after the subscription's
+                // max delivery count
+                tracer.currentSpan().error(unavailable.get());
+                log.warn("Message id {} handed back to Service Bus to be redelivered as {}", messageId,
+                    unavailable.get().getMessage());
+                throw unavailable.get();
+            } else if (retry > maxRetryAttempts || isException(e) || !resilientCallExecutor.awaitRetry("dispatch", retry)) {
+                tracer.currentSpan().error(e);
                 log.error(format("Caught unknown unrecoverable error %s for message id %s", e.getMessage(), messageId), e);
             } else {
 
                 log.info(String.format("Caught recoverable error %s, retrying %s out of %s for message id %s",
                     e.getMessage(), retry, maxRetryAttempts, messageId));
-
-                processMessageWithRetry(message, retry + 1, messageId);
+                tracer.currentSpan().annotate("retry " + retry);
+                processMessageWithRetry(message, summary, retry + 1, messageId);
             }
         }
     }
 
+    /**
+     * A full bulkhead only means this instance is busy, unlike an open circuit, so the message is retried here after
+     * a short backoff while its retries last rather than being handed back to Service Bus.
+     */
+    private boolean awaitBusyRetry(DownstreamUnavailableException e, int retry) {
+        return e instanceof DownstreamBusyException
+            && retry <= maxRetryAttempts
+            && resilientCallExecutor.awaitRetry("dispatch", retry);
+    }
+
+    private static String caseIdOf(CallbackMessageSummary summary) {
+        return summary != null && summary.getCaseId() != null ? summary.getCaseId() : "0";
+    }
+
     private boolean isException(Exception e) {
         return e instanceof IssueFurtherEvidenceException || e instanceof PostIssueFurtherEvidenceTasksException;
     }
 
-    private void processMessage(String message, String messageId) {
+    private void processMessage(String message, CallbackMessageSummary summary, String messageId) {
         try {
-            Callback<SscsCaseData> callback = sscsDeserializer.deserialize(message);
-            dispatcher.handle(SUBMITTED, callback);
+            if (summary != null && summary.getEvent() != null && !dispatcher.canHandleEvent(summary.getEvent())) {
+                tracer.currentSpan().tag("case.id", String.valueOf(summary.getCaseId())).tag("case.event", summary.getEventId());
+                log.info("Sscs Case CCD callback `{}` not handled by evidence share for Case ID `{}` for message id {}", summary.getEventId(), summary.getCaseId(), messageId);
+                return;
+            }
+            String json = message;
+            if (summary != null && summary.getEvent() != null && !dispatcher.usesCaseDetailsBefore(summary.getEvent())) {
+                json = summary.withoutCaseDetailsBefore(message);
+            }
+            Callback<SscsCaseData> callback = sscsDeserializer.deserialize(json);
+            tracer.currentSpan()
+                .tag("case.id", String.valueOf(callback.getCaseDetails().getId()))
+                .tag("case.event", String.valueOf(callback.getEvent()));
+            try (DispatchContext ignored = DispatchContext.open(messageId, String.valueOf(callback.getCaseDetails().getId()))) {
+                dispatcher.handle(SUBMITTED, callback);
+            }
             log.info("Sscs Case CCD callback `{}` handled for Case ID `{}` for message id {}", callback.getEvent(), callback.getCaseDetails().getId(), messageId);
         } catch (NonPdfBulkPrintException
             | UnableToContactThirdPartyException
@@ -75,8 +237,22 @@ public class TopicConsumer {
             | BulkPrintException
             | DwpAddressLookupException
             | NoMrnDetailsException exception) {
+            if (DownstreamUnavailableException.findIn(exception).isPresent()) {
+                throw exception;
+            }
             // unrecoverable. Catch to remove it from the queue.
+            tracer.currentSpan().error(exception);
             log.error(format("Caught unrecoverable error: %s for message id %s", exception.getMessage(), messageId), exception);
         }
     }
+
+    private CallbackMessageSummary readSummary(String message, String messageId) {
+        try {
+            return callbackMessageReader.read(message);
+        } catch (IOException e) {
+            // leave it to the full deserialisation to report the problem
+            log.warn("Could not pre-read callback for message id {}: {}", messageId, e.getMessage());
+            return null;
+        }
+    }
 }
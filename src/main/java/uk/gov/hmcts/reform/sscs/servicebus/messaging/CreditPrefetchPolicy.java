@@ -0,0 +1,67 @@
+package uk.gov.hmcts.reform.sscs.servicebus.messaging;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.qpid.jms.JmsDestination;
+import org.apache.qpid.jms.JmsSession;
+import org.apache.qpid.jms.policy.JmsPrefetchPolicy;
+
+/**
+ * Sets the link credit a consumer is granted when it is opened, which is how many messages Service Bus will push
+ * and lock ahead of the listener asking for them. A credit of zero makes the consumer pull one message for each
+ * receive, so a message is only locked once a listener thread is free to process it.
+ */
+@Slf4j
+public class CreditPrefetchPolicy implements JmsPrefetchPolicy {
+
+    private final IntSupplier credit;
+    private final AtomicInteger lastGranted;
+
+    public CreditPrefetchPolicy(IntSupplier credit) {
+        this(credit, new AtomicInteger());
+    }
+
+    private CreditPrefetchPolicy(IntSupplier credit, AtomicInteger lastGranted) {
+        this.credit = credit;
+        this.lastGranted = lastGranted;
+    }
+
+    /**
+     * Grants each of {@code consumers} consumers at most one message, and none once there are fewer free workers
+     * than consumers, so what all of them hold together never exceeds the {@code threads} that can process it.
+     */
+    public static CreditPrefetchPolicy capacity(IntSupplier freeCapacity, int threads, int consumers) {
+        return new CreditPrefetchPolicy(() -> shareOf(Math.min(freeCapacity.getAsInt(), threads), consumers));
+    }
+
+    static int shareOf(int available, int consumers) {
+        return Math.min(1, available / Math.max(1, consumers));
+    }
+
+    public static CreditPrefetchPolicy fixed(int prefetch) {
+        return new CreditPrefetchPolicy(() -> prefetch);
+    }
+
+    public static CreditPrefetchPolicy pull() {
+        return new CreditPrefetchPolicy(() -> 0);
+    }
+
+    public int getLastGranted() {
+        return lastGranted.get();
+    }
+
+    @Override
+    public JmsPrefetchPolicy copy() {
+        // copies are taken per connection, the credit they grant is still reported through this policy
+        return new CreditPrefetchPolicy(credit, lastGranted);
+    }
+
+    @Override
+    public int getConfiguredPrefetch(JmsSession session, JmsDestination destination, boolean durable, boolean browser) {
+        int granted = Math.max(0, credit.getAsInt());
+        lastGranted.set(granted);
+        log.info("Granting {} credit to {} consumer on {}", granted, durable ? "durable" : "non-durable", destination);
+        return granted;
+    }
+}
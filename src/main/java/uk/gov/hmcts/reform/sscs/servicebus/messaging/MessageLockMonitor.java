@@ -0,0 +1,54 @@
+package uk.gov.hmcts.reform.sscs.servicebus.messaging;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Records how long the listener holds each message before it is settled, and how often Service Bus hands a message
+ * over again. The JMS client cannot renew a message lock, so a message held for longer than the lock duration is
+ * released to another receiver and processed twice.
+ */
+@Slf4j
+@Component
+public class MessageLockMonitor {
+
+    static final String LOCK_HELD_TIMER = "evidence_share.messages.lock_held";
+    static final String LOCK_EXPIRED_COUNTER = "evidence_share.messages.lock_expired";
+    static final String REDELIVERED_COUNTER = "evidence_share.messages.redelivered";
+
+    private final Duration lockDuration;
+    private final Timer lockHeld;
+    private final Counter lockExpired;
+    private final Counter redelivered;
+
+    public MessageLockMonitor(MeterRegistry meterRegistry, @Value("${amqp.lockDuration}") Duration lockDuration) {
+        this.lockDuration = lockDuration;
+        this.lockHeld = Timer.builder(LOCK_HELD_TIMER)
+            .description("Time from the listener receiving a message to it being settled")
+            .register(meterRegistry);
+        this.lockExpired = meterRegistry.counter(LOCK_EXPIRED_COUNTER);
+        this.redelivered = meterRegistry.counter(REDELIVERED_COUNTER);
+    }
+
+    public void received(String messageId, Boolean redelivery) {
+        if (Boolean.TRUE.equals(redelivery)) {
+            log.info("Message id {} has been delivered before", messageId);
+            redelivered.increment();
+        }
+    }
+
+    public void settled(String messageId, long heldNanos) {
+        lockHeld.record(heldNanos, TimeUnit.NANOSECONDS);
+        if (heldNanos > lockDuration.toNanos()) {
+            log.warn("Message id {} was held for {}ms, longer than its {} lock", messageId,
+                TimeUnit.NANOSECONDS.toMillis(heldNanos), lockDuration);
+            lockExpired.increment();
+        }
+    }
+}
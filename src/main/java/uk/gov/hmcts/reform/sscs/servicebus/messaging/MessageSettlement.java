@@ -0,0 +1,45 @@
+package uk.gov.hmcts.reform.sscs.servicebus.messaging;
+
+import javax.jms.JMSException;
+import javax.jms.Message;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.qpid.jms.message.JmsMessageSupport;
+
+/**
+ * Settles a message received on a session in individual acknowledge mode, where each message is acknowledged on its
+ * own and the listener container leaves it to the application. Used when priority lanes process messages after the
+ * listener has returned.
+ */
+@Slf4j
+public final class MessageSettlement {
+
+    private MessageSettlement() {
+    }
+
+    /**
+     * Completes the message so Service Bus removes it from the subscription.
+     */
+    public static void accept(Message message, String messageId) {
+        try {
+            message.acknowledge();
+        } catch (JMSException e) {
+            log.warn("Could not acknowledge message id {}, it will be delivered again once its lock expires",
+                messageId, e);
+        }
+    }
+
+    /**
+     * Hands the message back to Service Bus as abandoned, the same outcome a listener that throws gets, so it is
+     * delivered again and counts towards dead-lettering.
+     */
+    public static void abandon(Message message, String messageId) {
+        try {
+            message.setIntProperty(JmsMessageSupport.JMS_AMQP_ACK_TYPE, JmsMessageSupport.MODIFIED_FAILED);
+            message.acknowledge();
+        } catch (JMSException e) {
+            // never acknowledged rather than completed, so it is not lost
+            log.warn("Could not abandon message id {}, it will be delivered again once its lock expires",
+                messageId, e);
+        }
+    }
+}
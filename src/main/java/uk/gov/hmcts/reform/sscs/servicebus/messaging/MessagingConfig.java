@@ -1,15 +1,22 @@
 package uk.gov.hmcts.reform.sscs.servicebus.messaging;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.security.KeyManagementException;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.security.cert.X509Certificate;
 import javax.jms.ConnectionFactory;
+import javax.jms.Session;
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.TrustManager;
 import javax.net.ssl.X509TrustManager;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.qpid.jms.JmsConnectionFactory;
+import org.apache.qpid.jms.JmsSession;
+import org.apache.qpid.jms.message.JmsMessageSupport;
+import org.apache.qpid.jms.policy.JmsDefaultRedeliveryPolicy;
+import org.apache.qpid.jms.policy.JmsPrefetchPolicy;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -18,11 +25,14 @@ import org.springframework.jms.config.DefaultJmsListenerContainerFactory;
 import org.springframework.jms.config.JmsListenerContainerFactory;
 import org.springframework.jms.connection.CachingConnectionFactory;
 import org.springframework.jms.core.JmsTemplate;
+import uk.gov.hmcts.reform.sscs.servicebus.PriorityLanes;
 
 @Configuration
 @Slf4j
 public class MessagingConfig {
 
+    static final String PREFETCH_GAUGE = "evidence_share.messages.prefetch";
+
     @Bean
     public String jmsUrlString(@Value("${amqp.host}") final String host) {
         return String.format("amqps://%1s?amqp.idleTimeout=3600000", host);
@@ -33,12 +43,15 @@ public class MessagingConfig {
                                                   @Value("${amqp.username}") final String username,
                                                   @Value("${amqp.password}") final String password,
                                                   @Autowired final String jmsUrlString,
-                                                  @Autowired(required = false) final SSLContext jmsSslContext) {
+                                                  @Autowired(required = false) final SSLContext jmsSslContext,
+                                                  final JmsPrefetchPolicy jmsPrefetchPolicy) {
         JmsConnectionFactory jmsConnectionFactory = new JmsConnectionFactory(jmsUrlString);
         jmsConnectionFactory.setUsername(username);
         jmsConnectionFactory.setPassword(password);
         jmsConnectionFactory.setClientID(clientId);
         jmsConnectionFactory.setReceiveLocalOnly(true);
+        jmsConnectionFactory.setPrefetchPolicy(jmsPrefetchPolicy);
+        jmsConnectionFactory.setRedeliveryPolicy(abandonOnFailure());
         if (jmsSslContext != null) {
             jmsConnectionFactory.setSslContext(jmsSslContext);
         }
@@ -46,6 +59,45 @@ public class MessagingConfig {
         return new CachingConnectionFactory(jmsConnectionFactory);
     }
 
+    /**
+     * capacity grants each listener one message when the consumer opens, as long as the lane workers have room for
+     * one per listener, or just one when priority lanes are off. pull only takes a message when a listener thread
+     * asks for one. fixed uses {@code amqp.prefetch.size}.
+     */
+    @Bean
+    public JmsPrefetchPolicy jmsPrefetchPolicy(@Value("${amqp.prefetch.policy}") final String policy,
+                                               @Value("${amqp.prefetch.size}") final int size,
+                                               @Value("${priority-lanes.listeners}") final int laneListeners,
+                                               final PriorityLanes priorityLanes,
+                                               final MeterRegistry meterRegistry) {
+        CreditPrefetchPolicy prefetchPolicy;
+        if ("fixed".equals(policy)) {
+            prefetchPolicy = CreditPrefetchPolicy.fixed(size);
+        } else if ("pull".equals(policy)) {
+            prefetchPolicy = CreditPrefetchPolicy.pull();
+        } else if (priorityLanes.isEnabled()) {
+            prefetchPolicy = CreditPrefetchPolicy.capacity(priorityLanes::freeCapacity, priorityLanes.getThreads(),
+                laneListeners);
+        } else {
+            prefetchPolicy = CreditPrefetchPolicy.fixed(1);
+        }
+        Gauge.builder(PREFETCH_GAUGE, prefetchPolicy, CreditPrefetchPolicy::getLastGranted)
+            .tag("policy", policy)
+            .register(meterRegistry);
+        return prefetchPolicy;
+    }
+
+    /**
+     * A message whose listener throws is handed straight back to Service Bus as abandoned rather than delivered
+     * again by the client, so any instance can pick it up and Service Bus counts the delivery towards dead-lettering.
+     */
+    private static JmsDefaultRedeliveryPolicy abandonOnFailure() {
+        JmsDefaultRedeliveryPolicy redeliveryPolicy = new JmsDefaultRedeliveryPolicy();
+        redeliveryPolicy.setMaxRedeliveries(0);
+        redeliveryPolicy.setOutcome(JmsMessageSupport.MODIFIED_FAILED);
+        return redeliveryPolicy;
+    }
+
     @Bean
     public SSLContext jmsSslContext(@Value("${amqp.trustAllCerts}") final boolean trustAllCerts)
         throws NoSuchAlgorithmException, KeyManagementException {
@@ -97,12 +149,27 @@ public class MessagingConfig {
     }
 
     @Bean
-    public JmsListenerContainerFactory topicJmsListenerContainerFactory(ConnectionFactory connectionFactory) {
+    public JmsListenerContainerFactory topicJmsListenerContainerFactory(ConnectionFactory connectionFactory,
+                                                                       @Value("${amqp.autoStartup}") boolean autoStartup,
+                                                                       @Value("${priority-lanes.listeners}") int laneListeners,
+                                                                       PriorityLanes priorityLanes) {
         log.info("Creating JMSListenerContainer bean for topics..");
         DefaultJmsListenerContainerFactory returnValue = new DefaultJmsListenerContainerFactory();
         returnValue.setConnectionFactory(connectionFactory);
         returnValue.setSubscriptionDurable(Boolean.TRUE);
+        if (priorityLanes.isEnabled()) {
+            // the listener hands each message to its lane and returns, the lane acknowledges it on its own once it
+            // has been processed, see TopicConsumer. A durable subscription only allows one consumer unless it is
+            // shared, a JMS 2.0 shared durable subscription
+            returnValue.setSessionAcknowledgeMode(JmsSession.INDIVIDUAL_ACKNOWLEDGE);
+            returnValue.setSubscriptionShared(Boolean.TRUE);
+            returnValue.setConcurrency(String.valueOf(laneListeners));
+        } else {
+            // acknowledged once the listener returns, a listener that throws leaves the message on Service Bus
+            returnValue.setSessionAcknowledgeMode(Session.CLIENT_ACKNOWLEDGE);
+        }
         returnValue.setErrorHandler(new JmsErrorHandler());
+        returnValue.setAutoStartup(autoStartup);
         return returnValue;
     }
 
@@ -0,0 +1,60 @@
+package uk.gov.hmcts.reform.sscs.tracing;
+
+import brave.handler.MutableSpan;
+import brave.handler.SpanHandler;
+import brave.propagation.TraceContext;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Appends each finished span to a file as one line of Zipkin v2 JSON, so a local run can be loaded into a trace
+ * viewer afterwards.
+ */
+@Slf4j
+public class FileSpanHandler extends SpanHandler implements Closeable {
+
+    private final BufferedWriter writer;
+
+    public FileSpanHandler(Path path) {
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            this.writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public boolean end(TraceContext context, MutableSpan span, Cause cause) {
+        if (cause != Cause.FINISHED) {
+            return true;
+        }
+        synchronized (writer) {
+            try {
+                writer.write(span.toString());
+                writer.newLine();
+                writer.flush();
+            } catch (IOException e) {
+                log.warn("Could not write span {} to file", span.id(), e);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (writer) {
+            writer.close();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package uk.gov.hmcts.reform.sscs.tracing;
+
+import brave.handler.MutableSpan;
+import brave.handler.SpanHandler;
+import brave.propagation.TraceContext;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class InMemorySpanHandler extends SpanHandler {
+
+    private final List<MutableSpan> spans = new CopyOnWriteArrayList<>();
+
+    @Override
+    public boolean end(TraceContext context, MutableSpan span, Cause cause) {
+        if (cause == Cause.FINISHED) {
+            spans.add(span);
+        }
+        return true;
+    }
+
+    public List<MutableSpan> getSpans() {
+        return new ArrayList<>(spans);
+    }
+
+    public void clear() {
+        spans.clear();
+    }
+}
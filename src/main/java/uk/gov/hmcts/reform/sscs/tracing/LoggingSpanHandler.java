@@ -0,0 +1,18 @@
+package uk.gov.hmcts.reform.sscs.tracing;
+
+import brave.handler.MutableSpan;
+import brave.handler.SpanHandler;
+import brave.propagation.TraceContext;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+public class LoggingSpanHandler extends SpanHandler {
+
+    @Override
+    public boolean end(TraceContext context, MutableSpan span, Cause cause) {
+        if (cause == Cause.FINISHED) {
+            log.info("Span finished {}", span);
+        }
+        return true;
+    }
+}
@@ -1,20 +1,36 @@
 package uk.gov.hmcts.reform.sscs.callback;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static uk.gov.hmcts.reform.sscs.callback.handlers.HandlerHelper.buildTestCallbackForGivenData;
 import static uk.gov.hmcts.reform.sscs.ccd.callback.DispatchPriority.*;
+import static uk.gov.hmcts.reform.sscs.ccd.domain.EventType.DWP_UPLOAD_RESPONSE;
 import static uk.gov.hmcts.reform.sscs.ccd.domain.EventType.ISSUE_FURTHER_EVIDENCE;
 import static uk.gov.hmcts.reform.sscs.ccd.domain.State.INTERLOCUTORY_REVIEW_STATE;
 
+import brave.Tracer;
+import brave.Tracing;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.net.URI;
+import java.time.Clock;
+import java.time.Duration;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 import junitparams.JUnitParamsRunner;
 import junitparams.Parameters;
+import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -23,12 +39,17 @@ import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnit;
 import org.mockito.junit.MockitoRule;
 import org.mockito.quality.Strictness;
+import org.springframework.util.ClassUtils;
 import uk.gov.hmcts.reform.sscs.callback.handlers.IssueFurtherEvidenceHandler;
 import uk.gov.hmcts.reform.sscs.callback.handlers.RoboticsCallbackHandler;
 import uk.gov.hmcts.reform.sscs.callback.handlers.SendToBulkPrintHandler;
 import uk.gov.hmcts.reform.sscs.ccd.callback.CallbackType;
 import uk.gov.hmcts.reform.sscs.ccd.callback.DispatchPriority;
 import uk.gov.hmcts.reform.sscs.ccd.domain.SscsCaseData;
+import uk.gov.hmcts.reform.sscs.idempotency.IdempotencyLedger;
+import uk.gov.hmcts.reform.sscs.idempotency.InMemoryIdempotencyStore;
+import uk.gov.hmcts.reform.sscs.service.DocumentPrefetcher;
+import uk.gov.hmcts.reform.sscs.service.EvidenceManagementService;
 
 @RunWith(JUnitParamsRunner.class)
 public class CallbackDispatcherTest {
@@ -42,6 +63,18 @@ public class CallbackDispatcherTest {
     private SendToBulkPrintHandler sendToBulkPrintHandler;
     @Mock
     private IssueFurtherEvidenceHandler issueAppellantAppointeeFurtherEvidenceHandler;
+    @Mock
+    private EvidenceManagementService evidenceManagementService;
+
+    private final Tracer tracer = Tracing.newBuilder().build().tracer();
+    private final IdempotencyLedger ledger = new IdempotencyLedger(
+        new InMemoryIdempotencyStore(Duration.ofHours(1), Clock.systemUTC()));
+    private DocumentPrefetcher documentPrefetcher;
+
+    @Before
+    public void setUp() {
+        documentPrefetcher = new DocumentPrefetcher(evidenceManagementService, Runnable::run, new SimpleMeterRegistry(), true);
+    }
 
     @Test
     @Parameters({
@@ -58,12 +91,120 @@ public class CallbackDispatcherTest {
         mockHandlers(p1, p2, p3);
         List<CallbackHandler<SscsCaseData>> handlers = Arrays.asList(
             roboticsHandler, sendToBulkPrintHandler, issueAppellantAppointeeFurtherEvidenceHandler);
-        CallbackDispatcher<SscsCaseData> callbackDispatcher = new CallbackDispatcher<>(handlers);
+        CallbackDispatcher<SscsCaseData> callbackDispatcher = new CallbackDispatcher<>(handlers, new SimpleMeterRegistry(), tracer, ledger, documentPrefetcher);
         callbackDispatcher.handle(CallbackType.SUBMITTED, buildTestCallbackForGivenData(SscsCaseData.builder().build(), INTERLOCUTORY_REVIEW_STATE, ISSUE_FURTHER_EVIDENCE));
         verifyMethodsAreCalledCorrectNumberOfTimes();
         verifyHandlersAreExecutedInPriorityOrder(handlers);
     }
 
+    @Test
+    public void givenHandlerCompletes_shouldRecordSuccessfulHandlerTimer() {
+        given(roboticsHandler.getPriority()).willReturn(EARLIEST);
+        given(roboticsHandler.canHandle(any(), any())).willReturn(true);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        new CallbackDispatcher<>(Collections.singletonList(roboticsHandler), meterRegistry, tracer, ledger, documentPrefetcher)
+            .handle(CallbackType.SUBMITTED, buildTestCallbackForGivenData(SscsCaseData.builder().build(), INTERLOCUTORY_REVIEW_STATE, ISSUE_FURTHER_EVIDENCE));
+
+        assertEquals(1, meterRegistry.get(CallbackDispatcher.HANDLER_TIMER)
+            .tag("event", ISSUE_FURTHER_EVIDENCE.name())
+            .tag("outcome", "success")
+            .timer().count());
+    }
+
+    @Test
+    public void givenHandlerThrows_shouldRecordFailedHandlerTimerAndRethrow() {
+        given(roboticsHandler.getPriority()).willReturn(EARLIEST);
+        given(roboticsHandler.canHandle(any(), any())).willReturn(true);
+        doThrow(new IllegalStateException()).when(roboticsHandler).handle(any(), any());
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        try {
+            new CallbackDispatcher<>(Collections.singletonList(roboticsHandler), meterRegistry, tracer, ledger, documentPrefetcher)
+                .handle(CallbackType.SUBMITTED, buildTestCallbackForGivenData(SscsCaseData.builder().build(), INTERLOCUTORY_REVIEW_STATE, ISSUE_FURTHER_EVIDENCE));
+            fail("expected the handler exception to be rethrown");
+        } catch (IllegalStateException expected) {
+            assertEquals(1, meterRegistry.get(CallbackDispatcher.HANDLER_TIMER)
+                .tag("outcome", "failure")
+                .tag("exception", "IllegalStateException")
+                .timer().count());
+        }
+    }
+
+    @Test
+    public void givenMessageRedelivered_shouldSkipHandlersThatAlreadyCompleted() {
+        given(roboticsHandler.getPriority()).willReturn(EARLIEST);
+        given(roboticsHandler.canHandle(any(), any())).willReturn(true);
+        given(sendToBulkPrintHandler.getPriority()).willReturn(LATE);
+        given(sendToBulkPrintHandler.canHandle(any(), any())).willReturn(true);
+        doThrow(new IllegalStateException()).doNothing().when(sendToBulkPrintHandler).handle(any(), any());
+        CallbackDispatcher<SscsCaseData> callbackDispatcher = new CallbackDispatcher<>(
+            Arrays.asList(roboticsHandler, sendToBulkPrintHandler), new SimpleMeterRegistry(), tracer, ledger, documentPrefetcher);
+
+        for (int delivery = 0; delivery < 2; delivery++) {
+            try (DispatchContext ignored = DispatchContext.open("message-1", "1")) {
+                callbackDispatcher.handle(CallbackType.SUBMITTED, buildTestCallbackForGivenData(SscsCaseData.builder().build(), INTERLOCUTORY_REVIEW_STATE, ISSUE_FURTHER_EVIDENCE));
+            } catch (IllegalStateException expected) {
+                // first delivery fails in the later handler
+            }
+        }
+
+        then(roboticsHandler).should(times(1)).handle(any(), any());
+        then(sendToBulkPrintHandler).should(times(2)).handle(any(), any());
+    }
+
+    @Test
+    public void givenHandlerNeedsADocument_shouldDownloadItOnceWhenTheMessageIsRouted() {
+        URI document = URI.create("http://dm-store/documents/1");
+        given(roboticsHandler.getPriority()).willReturn(EARLIEST);
+        given(roboticsHandler.canHandle(any(), any())).willReturn(true);
+        given(roboticsHandler.documentsToPrefetch(any(), any())).willReturn(Collections.singletonList(document.toString()));
+        given(sendToBulkPrintHandler.getPriority()).willReturn(LATE);
+        given(sendToBulkPrintHandler.canHandle(any(), any())).willReturn(true);
+        given(sendToBulkPrintHandler.documentsToPrefetch(any(), any())).willThrow(new IllegalStateException());
+        given(evidenceManagementService.download(document, "sscs")).willReturn(new byte[] {1});
+        doAnswer(invocation -> documentPrefetcher.download(document, null)).when(roboticsHandler).handle(any(), any());
+
+        new CallbackDispatcher<>(Arrays.asList(roboticsHandler, sendToBulkPrintHandler), new SimpleMeterRegistry(), tracer, ledger, documentPrefetcher)
+            .handle(CallbackType.SUBMITTED, buildTestCallbackForGivenData(SscsCaseData.builder().build(), INTERLOCUTORY_REVIEW_STATE, ISSUE_FURTHER_EVIDENCE));
+
+        then(evidenceManagementService).should(times(1)).download(any(), any());
+        then(sendToBulkPrintHandler).should().handle(any(), any());
+    }
+
+    @Test
+    public void givenMessageRedelivered_shouldNotPrefetchForHandlersThatAlreadyCompleted() {
+        given(roboticsHandler.getPriority()).willReturn(EARLIEST);
+        given(roboticsHandler.canHandle(any(), any())).willReturn(true);
+        given(sendToBulkPrintHandler.getPriority()).willReturn(LATE);
+        given(sendToBulkPrintHandler.canHandle(any(), any())).willReturn(true);
+        ledger.recordCompleted("message-1", "1", ClassUtils.getUserClass(roboticsHandler).getSimpleName());
+
+        try (DispatchContext ignored = DispatchContext.open("message-1", "1")) {
+            new CallbackDispatcher<>(Arrays.asList(roboticsHandler, sendToBulkPrintHandler), new SimpleMeterRegistry(), tracer, ledger, documentPrefetcher)
+                .handle(CallbackType.SUBMITTED, buildTestCallbackForGivenData(SscsCaseData.builder().build(), INTERLOCUTORY_REVIEW_STATE, ISSUE_FURTHER_EVIDENCE));
+        }
+
+        then(roboticsHandler).should(never()).documentsToPrefetch(any(), any());
+        then(roboticsHandler).should(never()).handle(any(), any());
+        then(sendToBulkPrintHandler).should().documentsToPrefetch(any(), any());
+    }
+
+    @Test
+    public void shouldOnlyNeedCaseDetailsBeforeWhenAHandlerForTheEventUsesThem() {
+        given(roboticsHandler.canHandleEvent(ISSUE_FURTHER_EVIDENCE)).willReturn(true);
+        given(roboticsHandler.canHandleEvent(DWP_UPLOAD_RESPONSE)).willReturn(false);
+        given(sendToBulkPrintHandler.canHandleEvent(ISSUE_FURTHER_EVIDENCE)).willReturn(false);
+        given(sendToBulkPrintHandler.canHandleEvent(DWP_UPLOAD_RESPONSE)).willReturn(true);
+        given(sendToBulkPrintHandler.usesCaseDetailsBefore()).willReturn(true);
+        CallbackDispatcher<SscsCaseData> callbackDispatcher = new CallbackDispatcher<>(
+            Arrays.asList(roboticsHandler, sendToBulkPrintHandler), new SimpleMeterRegistry(), tracer, ledger, documentPrefetcher);
+
+        assertTrue(callbackDispatcher.canHandleEvent(ISSUE_FURTHER_EVIDENCE));
+        assertFalse(callbackDispatcher.usesCaseDetailsBefore(ISSUE_FURTHER_EVIDENCE));
+        assertTrue(callbackDispatcher.usesCaseDetailsBefore(DWP_UPLOAD_RESPONSE));
+    }
+
     @SuppressWarnings("ResultOfMethodCallIgnored")
     private void verifyMethodsAreCalledCorrectNumberOfTimes() {
         then(roboticsHandler).should(times(DispatchPriority.values().length)).getPriority();
@@ -4,8 +4,8 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static uk.gov.hmcts.reform.sscs.callback.handlers.HandlerHelper.buildTestCallbackForGivenData;
 import static uk.gov.hmcts.reform.sscs.ccd.callback.CallbackType.SUBMITTED;
 import static uk.gov.hmcts.reform.sscs.ccd.domain.EventType.*;
@@ -25,8 +25,8 @@ import org.mockito.junit.MockitoRule;
 import uk.gov.hmcts.reform.sscs.ccd.callback.CallbackType;
 import uk.gov.hmcts.reform.sscs.ccd.domain.EventType;
 import uk.gov.hmcts.reform.sscs.ccd.domain.SscsCaseData;
-import uk.gov.hmcts.reform.sscs.ccd.service.CcdService;
 import uk.gov.hmcts.reform.sscs.idam.IdamService;
+import uk.gov.hmcts.reform.sscs.service.ConflictResolvingCaseUpdater;
 
 @RunWith(JUnitParamsRunner.class)
 public class AppealReceivedHandlerTest {
@@ -35,17 +35,17 @@ public class AppealReceivedHandlerTest {
     public MockitoRule rule = MockitoJUnit.rule();
 
     @Mock
-    private CcdService ccdCaseService;
+    private IdamService idamService;
 
     @Mock
-    private IdamService idamService;
+    private ConflictResolvingCaseUpdater caseUpdater;
 
     private AppealReceivedHandler handler;
 
 
     @Before
     public void setUp() {
-        handler = new AppealReceivedHandler(ccdCaseService, idamService);
+        handler = new AppealReceivedHandler(idamService, caseUpdater);
     }
 
     @Test(expected = IllegalStateException.class)
@@ -82,13 +82,13 @@ public class AppealReceivedHandlerTest {
     public void givenValidEventAndDigitalCase_thenTriggerAppealReceivedEvent(EventType eventType) {
         handler.handle(SUBMITTED, buildTestCallbackForGivenData(SscsCaseData.builder().createdInGapsFrom(READY_TO_LIST.getId()).build(), INTERLOCUTORY_REVIEW_STATE, eventType));
 
-        verify(ccdCaseService).updateCase(any(), eq(1L), eq(EventType.APPEAL_RECEIVED.getCcdType()), eq("Appeal received"), eq("Appeal received event has been triggered from Evidence Share for digital case"), any());
+        verify(caseUpdater).updateCase(any(), eq(1L), eq(EventType.APPEAL_RECEIVED.getCcdType()), eq("Appeal received"), eq("Appeal received event has been triggered from Evidence Share for digital case"), any(), any());
     }
 
     @Test(expected = IllegalStateException.class)
     public void givenValidEventAndNonDigitalCase_thenThrowException() {
         handler.handle(SUBMITTED, buildTestCallbackForGivenData(SscsCaseData.builder().createdInGapsFrom(VALID_APPEAL.getId()).build(), INTERLOCUTORY_REVIEW_STATE, EventType.VALID_APPEAL_CREATED));
 
-        verify(ccdCaseService, times(0)).updateCase(any(), eq(1L), eq(EventType.APPEAL_RECEIVED.getCcdType()), eq("Appeal received"), eq("Appeal received event has been triggered from Evidence Share for digital case"), any());
+        verifyNoInteractions(caseUpdater);
     }
 }
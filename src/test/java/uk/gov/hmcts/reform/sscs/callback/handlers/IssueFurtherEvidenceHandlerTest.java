@@ -16,6 +16,8 @@ import static uk.gov.hmcts.reform.sscs.domain.FurtherEvidenceLetterType.APPELLAN
 import static uk.gov.hmcts.reform.sscs.domain.FurtherEvidenceLetterType.JOINT_PARTY_LETTER;
 import static uk.gov.hmcts.reform.sscs.domain.FurtherEvidenceLetterType.REPRESENTATIVE_LETTER;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -28,6 +30,7 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.MockitoJUnit;
 import org.mockito.junit.MockitoRule;
 import uk.gov.hmcts.reform.sscs.ccd.callback.CallbackType;
@@ -38,6 +41,7 @@ import uk.gov.hmcts.reform.sscs.exception.IssueFurtherEvidenceException;
 import uk.gov.hmcts.reform.sscs.exception.PostIssueFurtherEvidenceTasksException;
 import uk.gov.hmcts.reform.sscs.idam.IdamService;
 import uk.gov.hmcts.reform.sscs.idam.IdamTokens;
+import uk.gov.hmcts.reform.sscs.service.CaseDataDiff;
 import uk.gov.hmcts.reform.sscs.service.FurtherEvidenceService;
 
 @RunWith(JUnitParamsRunner.class)
@@ -54,6 +58,9 @@ public class IssueFurtherEvidenceHandlerTest {
     @Mock
     private CcdService ccdService;
 
+    @Spy
+    private CaseDataDiff caseDataDiff = new CaseDataDiff(new ObjectMapper().findAndRegisterModules(), new SimpleMeterRegistry());
+
     @InjectMocks
     private IssueFurtherEvidenceHandler issueFurtherEvidenceHandler;
 
@@ -2,15 +2,22 @@ package uk.gov.hmcts.reform.sscs.callback.handlers;
 
 import static org.junit.Assert.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.*;
 import static org.mockito.MockitoAnnotations.openMocks;
 import static uk.gov.hmcts.reform.sscs.ccd.callback.CallbackType.SUBMITTED;
 import static uk.gov.hmcts.reform.sscs.ccd.domain.EventType.ASSOCIATE_CASE;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import junitparams.JUnitParamsRunner;
 import junitparams.Parameters;
 import org.junit.Before;
@@ -24,6 +31,7 @@ import uk.gov.hmcts.reform.sscs.ccd.callback.CallbackType;
 import uk.gov.hmcts.reform.sscs.ccd.domain.*;
 import uk.gov.hmcts.reform.sscs.ccd.service.CcdService;
 import uk.gov.hmcts.reform.sscs.idam.IdamService;
+import uk.gov.hmcts.reform.sscs.service.NinoCaseIndex;
 
 @RunWith(JUnitParamsRunner.class)
 public class ReciprocalLinkHandlerTest {
@@ -37,16 +45,18 @@ public class ReciprocalLinkHandlerTest {
     @Mock
     private IdamService idamService;
 
+    @Captor
+    private ArgumentCaptor<SscsCaseData> capture;
+
     private ReciprocalLinkHandler handler;
 
+    private NinoCaseIndex ninoCaseIndex;
+
     @Mock
     private CaseDetails<SscsCaseData> caseDetails;
 
     private SscsCaseData sscsCaseData;
 
-    @Captor
-    private ArgumentCaptor<SscsCaseData> capture;
-
     HashMap<String, String> map = new HashMap<String, String>();
 
     @Before
@@ -54,7 +64,8 @@ public class ReciprocalLinkHandlerTest {
         openMocks(this);
         when(callback.getEvent()).thenReturn(EventType.VALID_APPEAL_CREATED);
 
-        handler = new ReciprocalLinkHandler(ccdService, idamService);
+        ninoCaseIndex = new NinoCaseIndex(Duration.ofMinutes(10));
+        handler = new ReciprocalLinkHandler(ccdService, idamService, ninoCaseIndex, Runnable::run);
 
         sscsCaseData = SscsCaseData.builder().appeal(Appeal.builder().appellant(
             Appellant.builder().identity(Identity.builder().nino("AB00000Y").build()).build())
@@ -105,17 +116,17 @@ public class ReciprocalLinkHandlerTest {
         handler.handle(SUBMITTED, callback);
 
         verify(ccdService).updateCase(capture.capture(), eq(12345678L), eq(ASSOCIATE_CASE.getCcdType()), eq("Associate case"), eq("Associated case added"), any());
+        verify(ccdService, never()).updateCase(any(), eq(7656765L), any(), any(), any(), any());
+        verify(ccdService, never()).getByCaseId(any(), any());
 
         assertEquals("7656765", capture.getValue().getAssociatedCase().get(0).getValue().getCaseReference());
+        assertEquals("Yes", capture.getValue().getLinkedCasesBoolean());
     }
 
     @Test
     public void givenAssociatedCaseWithExistingAssociatedCase_thenAddReciprocalLinkToAssociatedCase() {
-        List<CaseLink> caseLinks = new ArrayList<>();
-        caseLinks.add(CaseLink.builder().value(CaseLinkDetails.builder().caseReference("1").build()).build());
-
         List<SscsCaseDetails> associatedCaseList = new ArrayList<>();
-        associatedCaseList.add(SscsCaseDetails.builder().id(12345678L).data(SscsCaseData.builder().associatedCase(caseLinks).build()).build());
+        associatedCaseList.add(SscsCaseDetails.builder().id(12345678L).data(SscsCaseData.builder().associatedCase(links("1")).build()).build());
         associatedCaseList.add(SscsCaseDetails.builder().id(7656765L).data(sscsCaseData).build());
 
         given(ccdService.findCaseBy(anyString(), anyString(), any())).willReturn(associatedCaseList);
@@ -127,6 +138,18 @@ public class ReciprocalLinkHandlerTest {
         assertEquals("7656765", capture.getValue().getAssociatedCase().get(1).getValue().getCaseReference());
     }
 
+    @Test
+    public void givenAssociatedCaseIsAlreadyLinked_thenDoNotUpdateItAgain() {
+        List<SscsCaseDetails> associatedCaseList = new ArrayList<>();
+        associatedCaseList.add(SscsCaseDetails.builder().id(12345678L).data(SscsCaseData.builder().associatedCase(links("7656765")).build()).build());
+
+        given(ccdService.findCaseBy(anyString(), anyString(), any())).willReturn(associatedCaseList);
+
+        handler.handle(SUBMITTED, callback);
+
+        verify(ccdService, never()).updateCase(any(), any(), any(), any(), any(), any());
+    }
+
     @Test
     public void givenMultipleAssociatedCases_thenAddReciprocalLinkToAllCases() {
         List<SscsCaseDetails> associatedCaseList = new ArrayList<>();
@@ -145,6 +168,91 @@ public class ReciprocalLinkHandlerTest {
         assertEquals("7656765", capture.getAllValues().get(1).getAssociatedCase().get(0).getValue().getCaseReference());
     }
 
+    @Test
+    public void givenSameCaseIsHandledAgain_thenReuseItsSearchAndReadTheMatchedCaseBeforeLinking() {
+        List<SscsCaseDetails> associatedCaseList = new ArrayList<>();
+        associatedCaseList.add(SscsCaseDetails.builder().id(12345678L).data(SscsCaseData.builder().build()).build());
+
+        given(ccdService.findCaseBy(anyString(), anyString(), any())).willReturn(associatedCaseList);
+        givenCase(12345678L, SscsCaseData.builder().associatedCase(links("7656765")).build());
+
+        handler.handle(SUBMITTED, callback);
+        handler.handle(SUBMITTED, callback);
+
+        verify(ccdService, times(1)).findCaseBy(anyString(), anyString(), any());
+        verify(ccdService, times(1)).getByCaseId(eq(12345678L), any());
+        verify(ccdService, times(1)).updateCase(any(), eq(12345678L), eq(ASSOCIATE_CASE.getCcdType()), any(), any(), any());
+    }
+
+    @Test
+    public void givenNinoWasSearchedForAnotherCase_thenSearchAgainToFindCasesCreatedSince() {
+        List<SscsCaseDetails> associatedCaseList = new ArrayList<>();
+        associatedCaseList.add(SscsCaseDetails.builder().id(12345678L).data(SscsCaseData.builder().build()).build());
+
+        given(ccdService.findCaseBy(anyString(), anyString(), any())).willReturn(associatedCaseList);
+
+        handler.handle(SUBMITTED, callback);
+
+        List<SscsCaseDetails> casesSince = new ArrayList<>(associatedCaseList);
+        casesSince.add(SscsCaseDetails.builder().id(7656765L).data(sscsCaseData).build());
+        casesSince.add(SscsCaseDetails.builder().id(55555555L).data(SscsCaseData.builder().build()).build());
+        given(ccdService.findCaseBy(anyString(), anyString(), any())).willReturn(casesSince);
+        when(caseDetails.getId()).thenReturn(99999999L);
+
+        handler.handle(SUBMITTED, callback);
+
+        verify(ccdService, times(2)).findCaseBy(anyString(), anyString(), any());
+        verify(ccdService).updateCase(any(), eq(7656765L), eq(ASSOCIATE_CASE.getCcdType()), any(), any(), any());
+        verify(ccdService).updateCase(any(), eq(55555555L), eq(ASSOCIATE_CASE.getCcdType()), any(), any(), any());
+        verify(ccdService, times(2)).updateCase(any(), eq(12345678L), eq(ASSOCIATE_CASE.getCcdType()), any(), any(), any());
+    }
+
+    @Test
+    public void givenMultipleAssociatedCases_thenLinkThemInParallelAndWaitForAllOfThem() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            handler = new ReciprocalLinkHandler(ccdService, idamService, ninoCaseIndex, executor);
+            List<SscsCaseDetails> associatedCaseList = new ArrayList<>();
+            associatedCaseList.add(SscsCaseDetails.builder().id(12345678L).data(SscsCaseData.builder().build()).build());
+            associatedCaseList.add(SscsCaseDetails.builder().id(34343434L).data(SscsCaseData.builder().build()).build());
+            given(ccdService.findCaseBy(anyString(), anyString(), any())).willReturn(associatedCaseList);
+
+            CountDownLatch bothLinking = new CountDownLatch(2);
+            AtomicInteger linked = new AtomicInteger();
+            given(ccdService.updateCase(any(), any(), any(), any(), any(), any())).willAnswer(invocation -> {
+                bothLinking.countDown();
+                assertTrue("expected the links to be made at the same time", bothLinking.await(5, TimeUnit.SECONDS));
+                linked.incrementAndGet();
+                return null;
+            });
+
+            handler.handle(SUBMITTED, callback);
+
+            assertEquals(2, linked.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void givenOneLinkFails_thenWaitForTheOthersAndRethrowTheFailure() {
+        List<SscsCaseDetails> associatedCaseList = new ArrayList<>();
+        associatedCaseList.add(SscsCaseDetails.builder().id(12345678L).data(SscsCaseData.builder().build()).build());
+        associatedCaseList.add(SscsCaseDetails.builder().id(34343434L).data(SscsCaseData.builder().build()).build());
+        given(ccdService.findCaseBy(anyString(), anyString(), any())).willReturn(associatedCaseList);
+        IllegalStateException failure = new IllegalStateException("ccd down");
+        given(ccdService.updateCase(any(), eq(12345678L), any(), any(), any(), any())).willThrow(failure);
+
+        try {
+            handler.handle(SUBMITTED, callback);
+            fail("expected the failed link to be rethrown");
+        } catch (IllegalStateException e) {
+            assertSame(failure, e);
+        }
+
+        verify(ccdService).updateCase(any(), eq(34343434L), eq(ASSOCIATE_CASE.getCcdType()), any(), any(), any());
+    }
+
     @Test
     public void givenMoreThan10AssociatedCases_thenDoNotAddReciprocalLinkToAllCases() {
         List<SscsCaseDetails> associatedCaseList = new ArrayList<>();
@@ -178,4 +286,14 @@ public class ReciprocalLinkHandlerTest {
         verify(ccdService, times(0)).updateCase(any(), any(), eq(ASSOCIATE_CASE.getCcdType()), eq("Associate case"), eq("Associated case added"), any());
     }
 
+    private void givenCase(Long caseId, SscsCaseData caseData) {
+        given(ccdService.getByCaseId(eq(caseId), any())).willReturn(SscsCaseDetails.builder().id(caseId).data(caseData).build());
+    }
+
+    private static List<CaseLink> links(String caseReference) {
+        List<CaseLink> caseLinks = new ArrayList<>();
+        caseLinks.add(CaseLink.builder().value(CaseLinkDetails.builder().caseReference(caseReference).build()).build());
+        return caseLinks;
+    }
+
 }
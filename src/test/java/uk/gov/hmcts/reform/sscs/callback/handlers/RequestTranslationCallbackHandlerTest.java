@@ -7,6 +7,7 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static uk.gov.hmcts.reform.sscs.callback.handlers.HandlerHelper.buildTestCallbackForGivenData;
@@ -14,7 +15,10 @@ import static uk.gov.hmcts.reform.sscs.ccd.callback.CallbackType.SUBMITTED;
 import static uk.gov.hmcts.reform.sscs.ccd.domain.EventType.REQUEST_TRANSLATION_FROM_WLU;
 import static uk.gov.hmcts.reform.sscs.ccd.domain.State.APPEAL_CREATED;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 import junitparams.JUnitParamsRunner;
 import junitparams.Parameters;
@@ -34,9 +38,13 @@ import uk.gov.hmcts.reform.sscs.ccd.domain.Appeal;
 import uk.gov.hmcts.reform.sscs.ccd.domain.CaseDetails;
 import uk.gov.hmcts.reform.sscs.ccd.domain.EventType;
 import uk.gov.hmcts.reform.sscs.ccd.domain.SscsCaseData;
+import uk.gov.hmcts.reform.sscs.ccd.domain.SscsDocument;
+import uk.gov.hmcts.reform.sscs.ccd.domain.SscsDocumentDetails;
+import uk.gov.hmcts.reform.sscs.ccd.domain.SscsDocumentTranslationStatus;
 import uk.gov.hmcts.reform.sscs.ccd.service.CcdService;
 import uk.gov.hmcts.reform.sscs.exception.WelshException;
 import uk.gov.hmcts.reform.sscs.idam.IdamService;
+import uk.gov.hmcts.reform.sscs.service.CaseDataDiff;
 import uk.gov.hmcts.reform.sscs.service.RequestTranslationService;
 
 @RunWith(JUnitParamsRunner.class)
@@ -63,7 +71,8 @@ public class RequestTranslationCallbackHandlerTest {
 
     @Before
     public void setUp() {
-        handler  = new RequestTranslationCallbackHandler(requestTranslationService, ccdCaseService, idamService);
+        handler  = new RequestTranslationCallbackHandler(requestTranslationService, ccdCaseService, idamService,
+            new CaseDataDiff(new ObjectMapper().findAndRegisterModules(), new SimpleMeterRegistry()));
 
     }
 
@@ -95,13 +104,29 @@ public class RequestTranslationCallbackHandlerTest {
     public void requestTranslationForWelshCase() {
         CaseDetails<SscsCaseData> caseDetails = getCaseDetails("Yes");
         Callback<SscsCaseData> callback = new Callback<>(caseDetails, Optional.empty(), REQUEST_TRANSLATION_FROM_WLU, false);
-        when(requestTranslationService.sendCaseToWlu(any())).thenReturn(true);
+        when(requestTranslationService.sendCaseToWlu(any())).thenAnswer(invocation -> {
+            caseDetails.getCaseData().setSscsDocument(List.of(SscsDocument.builder().value(SscsDocumentDetails.builder()
+                .documentTranslationStatus(SscsDocumentTranslationStatus.TRANSLATION_REQUESTED).build()).build()));
+            return true;
+        });
         handler.handle(SUBMITTED, callback);
 
         verify(requestTranslationService).sendCaseToWlu(any());
         verify(ccdCaseService).updateCase(captor.capture(), eq(123L), eq(EventType.CASE_UPDATED.getCcdType()), eq("Case translations sent to wlu"), eq("Updated case with date sent to wlu"), any());
     }
 
+    @Test
+    public void givenNothingChangedWhenSentToWlu_shouldNotUpdateTheCase() {
+        CaseDetails<SscsCaseData> caseDetails = getCaseDetails("Yes");
+        Callback<SscsCaseData> callback = new Callback<>(caseDetails, Optional.empty(), REQUEST_TRANSLATION_FROM_WLU, false);
+        when(requestTranslationService.sendCaseToWlu(any())).thenReturn(true);
+
+        handler.handle(SUBMITTED, callback);
+
+        verify(requestTranslationService).sendCaseToWlu(any());
+        verify(ccdCaseService, never()).updateCase(any(), any(), any(), any(), any(), any());
+    }
+
     @Test
     public void whenCallbackFailsthrowWelshException() {
         RequestTranslationCallbackHandler mockHandle =  mock(RequestTranslationCallbackHandler.class);
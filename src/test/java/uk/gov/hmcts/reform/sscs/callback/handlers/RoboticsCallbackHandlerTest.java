@@ -8,6 +8,8 @@ import static uk.gov.hmcts.reform.sscs.ccd.domain.EventType.CASE_UPDATED;
 import static uk.gov.hmcts.reform.sscs.ccd.domain.EventType.NOT_LISTABLE;
 import static uk.gov.hmcts.reform.sscs.ccd.domain.State.*;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Optional;
@@ -25,7 +27,9 @@ import uk.gov.hmcts.reform.sscs.ccd.callback.Callback;
 import uk.gov.hmcts.reform.sscs.ccd.domain.*;
 import uk.gov.hmcts.reform.sscs.ccd.service.CcdService;
 import uk.gov.hmcts.reform.sscs.idam.IdamService;
-import uk.gov.hmcts.reform.sscs.service.RegionalProcessingCenterService;
+import uk.gov.hmcts.reform.sscs.service.CaseDataDiff;
+import uk.gov.hmcts.reform.sscs.service.ConflictResolvingCaseUpdater;
+import uk.gov.hmcts.reform.sscs.service.ReferenceDataLookup;
 import uk.gov.hmcts.reform.sscs.service.RoboticsService;
 
 @RunWith(JUnitParamsRunner.class)
@@ -47,7 +51,7 @@ public class RoboticsCallbackHandlerTest {
     private IdamService idamService;
 
     @Mock
-    private RegionalProcessingCenterService regionalProcessingCenterService;
+    private ReferenceDataLookup referenceDataLookup;
 
     @Mock
     private CaseDetails caseDetails;
@@ -63,7 +67,8 @@ public class RoboticsCallbackHandlerTest {
     public void setUp() {
         when(callback.getEvent()).thenReturn(EventType.VALID_APPEAL_CREATED);
 
-        handler = new RoboticsCallbackHandler(roboticsService, ccdService, idamService, regionalProcessingCenterService);
+        handler = new RoboticsCallbackHandler(roboticsService, new ConflictResolvingCaseUpdater(ccdService, new SimpleMeterRegistry(), 3), idamService, referenceDataLookup,
+            new CaseDataDiff(new ObjectMapper().findAndRegisterModules(), new SimpleMeterRegistry()));
         when(callback.getCaseDetails()).thenReturn(caseDetails);
         when(caseDetails.getCaseData()).thenReturn(caseData);
         when(caseData.isTranslationWorkOutstanding()).thenReturn(Boolean.FALSE);
@@ -117,6 +122,18 @@ public class RoboticsCallbackHandlerTest {
         assertEquals(CASE_UPDATED.getCcdType(), capture.getValue());
     }
 
+    @Test
+    public void givenCaseAlreadySentToGapsToday_thenSendCaseToRoboticsAndDoNotTriggerUpdateCaseEvent() {
+        CaseDetails<SscsCaseData> caseDetails = getCaseDetails(READY_TO_LIST, READY_TO_LIST.getId());
+        caseDetails.getCaseData().setDateCaseSentToGaps(LocalDate.now().toString());
+        Callback<SscsCaseData> callback = new Callback<>(caseDetails, Optional.empty(), EventType.RESEND_CASE_TO_GAPS2, false);
+
+        handler.handle(SUBMITTED, callback);
+
+        verify(roboticsService).sendCaseToRobotics(any());
+        verifyNoInteractions(ccdService);
+    }
+
     @Test
     public void givenARoboticsRequestFromReviewConfidentialityRequestAppellantAndStateIsResponseReceivedAndConfidentialityRequestGranted_thenSendCaseToRobotics() {
         CaseDetails<SscsCaseData> caseDetails = getCaseDetails(RESPONSE_RECEIVED, READY_TO_LIST.getId());
@@ -229,7 +246,8 @@ public class RoboticsCallbackHandlerTest {
 
     @Test
     public void givenARoboticsRequestFromDwpRaiseExceptionAndStateIsWithDwp_thenSendCaseToRobotics() {
-        handler = new RoboticsCallbackHandler(roboticsService, ccdService, idamService, regionalProcessingCenterService);
+        handler = new RoboticsCallbackHandler(roboticsService, new ConflictResolvingCaseUpdater(ccdService, new SimpleMeterRegistry(), 3), idamService, referenceDataLookup,
+            new CaseDataDiff(new ObjectMapper().findAndRegisterModules(), new SimpleMeterRegistry()));
 
         CaseDetails<SscsCaseData> caseDetails = getCaseDetails(WITH_DWP, READY_TO_LIST.getId());
         Callback<SscsCaseData> callback = new Callback<>(caseDetails, Optional.empty(), EventType.DWP_RAISE_EXCEPTION, false);
@@ -9,8 +9,12 @@ import static org.mockito.Mockito.*;
 import static uk.gov.hmcts.reform.sscs.ccd.callback.CallbackType.SUBMITTED;
 import static uk.gov.hmcts.reform.sscs.ccd.domain.State.APPEAL_CREATED;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import feign.FeignException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.net.URI;
+import java.time.Clock;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
@@ -25,6 +29,7 @@ import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnit;
 import org.mockito.junit.MockitoRule;
+import uk.gov.hmcts.reform.sscs.callback.DispatchContext;
 import uk.gov.hmcts.reform.sscs.ccd.callback.Callback;
 import uk.gov.hmcts.reform.sscs.ccd.callback.CallbackType;
 import uk.gov.hmcts.reform.sscs.ccd.domain.*;
@@ -33,12 +38,16 @@ import uk.gov.hmcts.reform.sscs.config.EvidenceShareConfig;
 import uk.gov.hmcts.reform.sscs.docmosis.domain.DocumentHolder;
 import uk.gov.hmcts.reform.sscs.docmosis.domain.Pdf;
 import uk.gov.hmcts.reform.sscs.docmosis.domain.Template;
+import uk.gov.hmcts.reform.sscs.exception.DownstreamUnavailableException;
 import uk.gov.hmcts.reform.sscs.exception.NonPdfBulkPrintException;
 import uk.gov.hmcts.reform.sscs.factory.DocumentRequestFactory;
 import uk.gov.hmcts.reform.sscs.idam.IdamService;
 import uk.gov.hmcts.reform.sscs.idam.IdamTokens;
+import uk.gov.hmcts.reform.sscs.idempotency.HandlerCheckpoints;
+import uk.gov.hmcts.reform.sscs.idempotency.InMemoryIdempotencyStore;
 import uk.gov.hmcts.reform.sscs.service.BulkPrintService;
 import uk.gov.hmcts.reform.sscs.service.DocumentManagementServiceWrapper;
+import uk.gov.hmcts.reform.sscs.service.DocumentPrefetcher;
 import uk.gov.hmcts.reform.sscs.service.EvidenceManagementService;
 
 @RunWith(JUnitParamsRunner.class)
@@ -103,8 +112,10 @@ public class SendToBulkPrintHandlerTest {
     public void setUp() {
         when(callback.getEvent()).thenReturn(EventType.VALID_APPEAL_CREATED);
         handler = new SendToBulkPrintHandler(documentManagementServiceWrapper,
-            documentRequestFactory, evidenceManagementService, bulkPrintService, evidenceShareConfig,
-            ccdCaseService, idamService);
+            documentRequestFactory, new DocumentPrefetcher(evidenceManagementService, Runnable::run, new SimpleMeterRegistry(), true),
+            bulkPrintService, evidenceShareConfig,
+            ccdCaseService, idamService, new HandlerCheckpoints(
+                new InMemoryIdempotencyStore(Duration.ofHours(1), Clock.systemUTC()), new ObjectMapper().findAndRegisterModules()));
         when(evidenceShareConfig.getSubmitTypes()).thenReturn(singletonList("paper"));
         when(callback.getCaseDetails()).thenReturn(caseDetails);
         placeholders.put("Test", "Value");
@@ -115,6 +126,32 @@ public class SendToBulkPrintHandlerTest {
         assertTrue(handler.canHandle(SUBMITTED, callback));
     }
 
+    @Test
+    public void givenAPaperCase_shouldPrefetchTheDocumentsToPrint() {
+        assertEquals(singletonList(docUrl), handler.documentsToPrefetch(SUBMITTED, callback));
+    }
+
+    @Test
+    public void givenDocumentsOfEachKind_shouldPrintDlThenSscs1ThenTheRestKeepingTheirOrder() {
+        when(callback.getCaseDetails()).thenReturn(getCaseDetails("PIP", "Paper", Arrays.asList(
+            printable("appellantEvidence", "other1.pdf"),
+            printable("sscs1", "sscs1.pdf"),
+            printable("dl16", "dl16.pdf"),
+            printable("dl6", "letter.doc"),
+            printable("representativeEvidence", "other2.pdf"),
+            printable("dl6", "dl6.pdf")), APPEAL_CREATED));
+
+        assertEquals(Arrays.asList("dl16.pdf", "dl6.pdf", "sscs1.pdf", "other1.pdf", "other2.pdf"),
+            handler.documentsToPrefetch(SUBMITTED, callback));
+    }
+
+    @Test
+    public void givenANonBulkPrintEvent_shouldNotPrefetchDocuments() {
+        when(callback.getEvent()).thenReturn(EventType.APPEAL_RECEIVED);
+
+        assertTrue(handler.documentsToPrefetch(SUBMITTED, callback).isEmpty());
+    }
+
     @Test
     public void givenANonBulkPrintEvent_thenReturnFalse() {
         when(callback.getEvent()).thenReturn(EventType.APPEAL_RECEIVED);
@@ -212,6 +249,31 @@ public class SendToBulkPrintHandlerTest {
         assertNull(caseDataCaptor.getValue().getDwpState());
     }
 
+    @Test
+    public void givenCaseUpdateFailsAfterPrinting_whenRetried_shouldResumeWithoutPrintingAgain() {
+        Callback<SscsCaseData> callback = setupMocksForFlagErrorTests();
+        UUID printId = UUID.fromString("0f14d0ab-9605-4a62-a9e4-5ed26688389b");
+        when(bulkPrintService.sendToBulkPrint(any(), any())).thenReturn(Optional.of(printId));
+        doThrow(new RuntimeException("ccd unavailable")).doReturn(null)
+            .when(ccdCaseService).updateCase(any(), eq(123L), eq(EventType.SENT_TO_DWP.getCcdType()), any(), any(), any());
+
+        try (DispatchContext ignored = DispatchContext.open("message-1", "123")) {
+            try {
+                handler.handle(CallbackType.SUBMITTED, callback);
+                fail("expected the first case update to fail");
+            } catch (RuntimeException expected) {
+                // retried by the consumer
+            }
+            handler.handle(CallbackType.SUBMITTED, callback);
+        }
+
+        verify(documentManagementServiceWrapper, times(1)).generateDocumentAndAddToCcd(any(), any(), any());
+        verify(evidenceManagementService, times(1)).download(any(), any());
+        verify(bulkPrintService, times(1)).sendToBulkPrint(any(), any());
+        verify(ccdCaseService, times(2)).updateCase(any(), eq(123L), eq(EventType.SENT_TO_DWP.getCcdType()), eq("Sent to DWP"),
+            eq("Case has been sent to the DWP via Bulk Print with bulk print id: " + printId + " and with documents: evidence1.pdf"), any());
+    }
+
     protected Callback<SscsCaseData> setupMocksForFlagErrorTests() {
         Map<String, Object> placeholders = new HashMap<>();
         placeholders.put("Test", "Value");
@@ -320,6 +382,23 @@ public class SendToBulkPrintHandlerTest {
         assertEquals("failedSending", caseDataCaptor.getValue().getHmctsDwpState());
     }
 
+    @Test
+    public void givenADownstreamIsUnavailable_shouldThrowForRedeliveryWithoutFlaggingAnError() {
+        final Callback<SscsCaseData> callback = setupMocksForFlagErrorTests();
+
+        DownstreamUnavailableException unavailable = new DownstreamUnavailableException("send-letter", "its circuit is open", null);
+        when(bulkPrintService.sendToBulkPrint(any(), any())).thenThrow(unavailable);
+
+        try {
+            handler.handle(CallbackType.SUBMITTED, callback);
+            fail("Expected the downstream to be reported as unavailable");
+        } catch (DownstreamUnavailableException e) {
+            assertSame(unavailable, e);
+        }
+        then(ccdCaseService).should(never()).updateCase(any(), any(), eq(EventType.SENT_TO_DWP_ERROR.getCcdType()), any(), any(), any());
+        then(ccdCaseService).should(never()).updateCase(any(), any(), eq(EventType.SENT_TO_DWP.getCcdType()), any(), any(), any());
+    }
+
     @Test
     public void givenAnIdamException_shouldThrowAnExceptionAndFlagAnError() {
         final Callback<SscsCaseData> callback = setupMocksForFlagErrorTests();
@@ -411,6 +490,14 @@ public class SendToBulkPrintHandlerTest {
         assertEquals("failedSending", caseDataCaptor.getValue().getHmctsDwpState());
     }
 
+    private static SscsDocument printable(String documentType, String documentUrl) {
+        return SscsDocument.builder().value(SscsDocumentDetails.builder()
+            .documentFileName(documentUrl)
+            .documentType(documentType)
+            .documentLink(DocumentLink.builder().documentUrl(documentUrl).build())
+            .build()).build();
+    }
+
     private CaseDetails<SscsCaseData> getCaseDetails(String benefitType, String receivedVia, List<SscsDocument> sscsDocuments, State state) {
         SscsCaseData caseData = SscsCaseData.builder()
             .ccdCaseId("123")
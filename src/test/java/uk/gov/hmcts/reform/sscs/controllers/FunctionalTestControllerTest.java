@@ -1,5 +1,7 @@
 package uk.gov.hmcts.reform.sscs.controllers;
 
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
 import static org.mockito.MockitoAnnotations.openMocks;
 
@@ -29,6 +31,6 @@ public class FunctionalTestControllerTest {
     @Test
     public void shouldCreateTemplateAndAddToCcdForMessage() {
         functionalTestController.send("", "message");
-        verify(consumer).onMessage("message", "1");
+        verify(consumer).onMessage(eq("message"), anyString());
     }
 }
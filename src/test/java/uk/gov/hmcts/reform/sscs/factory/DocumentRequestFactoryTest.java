@@ -16,7 +16,7 @@ import uk.gov.hmcts.reform.sscs.ccd.domain.Address;
 import uk.gov.hmcts.reform.sscs.ccd.domain.SscsCaseData;
 import uk.gov.hmcts.reform.sscs.docmosis.domain.DocumentHolder;
 import uk.gov.hmcts.reform.sscs.docmosis.domain.Template;
-import uk.gov.hmcts.reform.sscs.service.DwpAddressLookupService;
+import uk.gov.hmcts.reform.sscs.service.ReferenceDataLookup;
 import uk.gov.hmcts.reform.sscs.service.TemplateService;
 import uk.gov.hmcts.reform.sscs.service.placeholders.PlaceholderService;
 
@@ -26,7 +26,7 @@ public class DocumentRequestFactoryTest {
     private PlaceholderService placeholderService;
 
     @Mock
-    private DwpAddressLookupService dwpAddressLookup;
+    private ReferenceDataLookup referenceDataLookup;
 
     @Mock
     private TemplateService templateService;
@@ -49,7 +49,7 @@ public class DocumentRequestFactoryTest {
         Template template = new Template("bla", "bla2");
         Address address = Address.builder().build();
         given(templateService.findTemplate(caseData)).willReturn(template);
-        given(dwpAddressLookup.lookupDwpAddress(caseData)).willReturn(address);
+        given(referenceDataLookup.lookupDwpAddress(caseData)).willReturn(address);
 
         DocumentHolder holder = factory.create(caseData, now);
 
@@ -0,0 +1,114 @@
+package uk.gov.hmcts.reform.sscs.idempotency;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class FileIdempotencyStoreTest {
+
+    private static final Duration TTL = Duration.ofHours(1);
+    private static final Instant NOW = Instant.parse("2021-04-01T10:00:00Z");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path path;
+
+    @Before
+    public void setUp() {
+        path = folder.getRoot().toPath().resolve("store/idempotency.log");
+    }
+
+    @Test
+    public void entriesSurviveARestart() throws Exception {
+        try (FileIdempotencyStore store = new FileIdempotencyStore(path, TTL, clockAt(NOW))) {
+            store.put("message:123:RoboticsCallbackHandler", "completed");
+            store.put("other\tkey", "a value\nwith lines");
+            store.put("removed", "x");
+            store.remove("removed");
+        }
+
+        try (FileIdempotencyStore store = new FileIdempotencyStore(path, TTL, clockAt(NOW.plusSeconds(60)))) {
+            assertEquals(Optional.of("completed"), store.get("message:123:RoboticsCallbackHandler"));
+            assertEquals(Optional.of("a value\nwith lines"), store.get("other\tkey"));
+            assertEquals(Optional.empty(), store.get("removed"));
+        }
+    }
+
+    @Test
+    public void expiredEntriesAreNotReturnedOrReloaded() throws Exception {
+        try (FileIdempotencyStore store = new FileIdempotencyStore(path, TTL, clockAt(NOW))) {
+            store.put("key", "completed");
+        }
+
+        try (FileIdempotencyStore store = new FileIdempotencyStore(path, TTL, clockAt(NOW.plus(TTL)))) {
+            assertFalse(store.get("key").isPresent());
+        }
+    }
+
+    @Test
+    public void evictionDropsExpiredEntriesAndCompactsTheLog() throws Exception {
+        MutableClock clock = new MutableClock(NOW);
+        try (FileIdempotencyStore store = new FileIdempotencyStore(path, TTL, clock)) {
+            store.put("old", "completed");
+            clock.advance(TTL.minusSeconds(1));
+            store.put("new", "completed");
+            clock.advance(Duration.ofSeconds(1));
+
+            assertEquals(1, store.evictExpired());
+            assertEquals(Optional.of("completed"), store.get("new"));
+            store.put("newer", "completed");
+        }
+
+        List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).contains("\tnew\t"));
+        assertTrue(lines.get(1).contains("\tnewer\t"));
+    }
+
+    private static Clock clockAt(Instant instant) {
+        return Clock.fixed(instant, ZoneOffset.UTC);
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
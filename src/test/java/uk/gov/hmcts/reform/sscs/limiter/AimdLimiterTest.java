@@ -0,0 +1,98 @@
+package uk.gov.hmcts.reform.sscs.limiter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import feign.FeignException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import uk.gov.hmcts.reform.sscs.exception.ConcurrencyLimitExceededException;
+
+public class AimdLimiterTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long SLOW = TimeUnit.SECONDS.toNanos(3);
+
+    @Test
+    public void limitGrowsWhilePromptCallsKeepItFullyUsed() {
+        AimdLimiter limiter = limiter(4);
+
+        for (int round = 0; round < 10; round++) {
+            int slots = limiter.getLimit();
+            for (int i = 0; i < slots; i++) {
+                limiter.acquire();
+            }
+            for (int i = 0; i < slots; i++) {
+                limiter.release(FAST, false);
+            }
+        }
+
+        assertEquals(8, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    public void limitDoesNotGrowWhileMostlyUnused() {
+        AimdLimiter limiter = limiter(10);
+
+        for (int i = 0; i < 100; i++) {
+            limiter.acquire();
+            limiter.release(FAST, false);
+        }
+
+        assertEquals(10, limiter.getLimit());
+    }
+
+    @Test
+    public void slowOrOverloadedCallsCutTheLimitDownToTheMinimum() {
+        AimdLimiter limiter = limiter(10);
+
+        limiter.acquire();
+        limiter.release(SLOW, false);
+        assertEquals(9, limiter.getLimit());
+
+        limiter.acquire();
+        limiter.release(FAST, true);
+        assertEquals(8, limiter.getLimit());
+
+        for (int i = 0; i < 50; i++) {
+            limiter.acquire();
+            limiter.release(FAST, true);
+        }
+        assertEquals(2, limiter.getLimit());
+    }
+
+    @Test(expected = ConcurrencyLimitExceededException.class)
+    public void callersOverTheLimitAreRejectedAfterTheMaximumWait() {
+        AimdLimiter limiter = new AimdLimiter("ccd", 2, 2, 10, 0.5, Duration.ofSeconds(2), Duration.ofMillis(10));
+        limiter.acquire();
+        limiter.acquire();
+
+        limiter.acquire();
+    }
+
+    @Test
+    public void onlyThrottlingTimeoutsAndGatewayErrorsCountAsOverload() {
+        assertTrue(CcdConcurrencyLimitAspect.isOverload(feignException(503)));
+        assertTrue(CcdConcurrencyLimitAspect.isOverload(feignException(429)));
+        assertTrue(CcdConcurrencyLimitAspect.isOverload(new IllegalStateException(feignException(504))));
+        assertFalse(CcdConcurrencyLimitAspect.isOverload(feignException(409)));
+        assertFalse(CcdConcurrencyLimitAspect.isOverload(new IllegalStateException("bad data")));
+    }
+
+    private static AimdLimiter limiter(int initialLimit) {
+        return new AimdLimiter("ccd", initialLimit, 2, 50, 0.9, Duration.ofSeconds(2), Duration.ofSeconds(1));
+    }
+
+    private static FeignException feignException(int status) {
+        return new CustomFeignException(status, "reason");
+    }
+
+    private static class CustomFeignException extends FeignException {
+        CustomFeignException(int status, String message) {
+            super(status, message);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package uk.gov.hmcts.reform.sscs.model;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+import org.junit.Test;
+import uk.gov.hmcts.reform.sscs.ccd.domain.DocumentLink;
+import uk.gov.hmcts.reform.sscs.ccd.domain.SscsDocument;
+import uk.gov.hmcts.reform.sscs.ccd.domain.SscsDocumentDetails;
+
+public class CaseDocumentIndexTest {
+
+    @Test
+    public void givenDocumentsShareABinaryUrl_shouldReturnTheFirstOnTheCase() {
+        SscsDocument first = document("http://dm-store/documents/1/binary", "first.pdf");
+        SscsDocument second = document("http://dm-store/documents/1/binary", "second.pdf");
+        SscsDocument other = document("http://dm-store/documents/2/binary", "other.pdf");
+
+        CaseDocumentIndex<SscsDocument> index = CaseDocumentIndex.of(Arrays.asList(first, second, other));
+
+        assertSame(first, index.byBinaryUrl("http://dm-store/documents/1/binary").get());
+        assertSame(other, index.byBinaryUrl("http://dm-store/documents/2/binary").get());
+    }
+
+    @Test
+    public void givenDocumentsWithoutABinaryUrl_shouldSkipThem() {
+        SscsDocument noLink = SscsDocument.builder().value(SscsDocumentDetails.builder().build()).build();
+        SscsDocument noBinaryUrl = SscsDocument.builder().value(SscsDocumentDetails.builder()
+            .documentLink(DocumentLink.builder().documentUrl("http://dm-store/documents/1").build()).build()).build();
+        SscsDocument linked = document("http://dm-store/documents/1/binary", "linked.pdf");
+
+        CaseDocumentIndex<SscsDocument> index = CaseDocumentIndex.of(Arrays.asList(null, noLink, noBinaryUrl, linked));
+
+        assertSame(linked, index.byBinaryUrl("http://dm-store/documents/1/binary").get());
+        assertFalse(index.byBinaryUrl(null).isPresent());
+    }
+
+    @Test
+    public void givenNoDocuments_shouldFindNothing() {
+        assertFalse(CaseDocumentIndex.<SscsDocument>of(null).byBinaryUrl("http://dm-store/documents/1/binary").isPresent());
+    }
+
+    private static SscsDocument document(String binaryUrl, String fileName) {
+        return SscsDocument.builder().value(SscsDocumentDetails.builder()
+            .documentFileName(fileName)
+            .documentLink(DocumentLink.builder().documentBinaryUrl(binaryUrl).build())
+            .build()).build();
+    }
+}
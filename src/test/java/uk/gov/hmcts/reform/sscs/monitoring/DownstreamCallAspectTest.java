@@ -0,0 +1,62 @@
+package uk.gov.hmcts.reform.sscs.monitoring;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import brave.Tracing;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import javax.mail.internet.MimeMessage;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+
+public class DownstreamCallAspectTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private JavaMailSender mailSender;
+    private JavaMailSender proxy;
+
+    @Before
+    public void setUp() {
+        mailSender = mock(JavaMailSender.class);
+        AspectJProxyFactory factory = new AspectJProxyFactory(mailSender);
+        factory.addAspect(new DownstreamCallAspect(meterRegistry, Tracing.newBuilder().build().tracer()));
+        proxy = factory.getProxy();
+    }
+
+    @Test
+    public void givenCallSucceeds_shouldRecordSuccessAgainstDownstream() {
+        MimeMessage message = mock(MimeMessage.class);
+
+        proxy.send(message);
+
+        verify(mailSender).send(message);
+        assertEquals(1, meterRegistry.get(DownstreamCallAspect.DOWNSTREAM_TIMER)
+            .tag("downstream", Downstream.SMTP.getTag())
+            .tag("operation", "send")
+            .tag("outcome", "success")
+            .timer().count());
+    }
+
+    @Test
+    public void givenCallFails_shouldRecordFailureAndRethrow() {
+        doThrow(new MailSendException("down")).when(mailSender).send(any(MimeMessage.class));
+
+        try {
+            proxy.send(mock(MimeMessage.class));
+            fail("expected the downstream exception to be rethrown");
+        } catch (MailSendException expected) {
+            assertEquals(1, meterRegistry.get(DownstreamCallAspect.DOWNSTREAM_TIMER)
+                .tag("downstream", Downstream.SMTP.getTag())
+                .tag("outcome", "failure")
+                .tag("exception", "MailSendException")
+                .timer().count());
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package uk.gov.hmcts.reform.sscs.resilience;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import com.netflix.hystrix.Hystrix;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import javax.mail.internet.MimeMessage;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.mail.MailParseException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mock.env.MockEnvironment;
+import uk.gov.hmcts.reform.sscs.exception.DownstreamBusyException;
+import uk.gov.hmcts.reform.sscs.exception.DownstreamUnavailableException;
+import uk.gov.hmcts.reform.sscs.monitoring.Downstream;
+
+public class DownstreamCircuitBreakerAspectTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private JavaMailSender mailSender;
+    private JavaMailSender proxy;
+
+    @Before
+    public void setUp() {
+        Hystrix.reset();
+        mailSender = mock(JavaMailSender.class);
+        MockEnvironment environment = new MockEnvironment().withProperty("resilience.bulkhead.smtp", "1");
+        AspectJProxyFactory factory = new AspectJProxyFactory(mailSender);
+        factory.addAspect(new DownstreamCircuitBreakerAspect(meterRegistry, environment, 10, 2, 50, Duration.ofMinutes(1)));
+        proxy = factory.getProxy();
+    }
+
+    @After
+    public void tearDown() {
+        Hystrix.reset();
+    }
+
+    @Test
+    public void givenCallFails_shouldRethrowTheOriginalException() {
+        doThrow(new MailSendException("down")).when(mailSender).send(any(MimeMessage.class));
+
+        try {
+            proxy.send(mock(MimeMessage.class));
+            fail("expected the downstream exception to be rethrown");
+        } catch (MailSendException expected) {
+            assertEquals("down", expected.getMessage());
+        }
+    }
+
+    @Test(expected = MailParseException.class)
+    public void givenRequestIsBad_shouldRethrowTheOriginalException() {
+        doThrow(new MailParseException("bad address")).when(mailSender).send(any(MimeMessage.class));
+
+        proxy.send(mock(MimeMessage.class));
+    }
+
+    @Test
+    public void givenDownstreamKeepsFailing_shouldOpenTheCircuitAndStopCalling() throws Exception {
+        doThrow(new MailSendException("down")).when(mailSender).send(any(MimeMessage.class));
+
+        DownstreamUnavailableException unavailable = null;
+        for (int attempt = 0; attempt < 50 && unavailable == null; attempt++) {
+            try {
+                proxy.send(mock(MimeMessage.class));
+            } catch (MailSendException e) {
+                // the circuit opens once the failures reach its next health snapshot
+                TimeUnit.MILLISECONDS.sleep(100);
+            } catch (DownstreamUnavailableException e) {
+                unavailable = e;
+            }
+        }
+
+        assertNotNull("expected the circuit to open", unavailable);
+        assertFalse(unavailable instanceof DownstreamBusyException);
+        assertEquals(Downstream.SMTP.getTag(), unavailable.getDownstream());
+        assertEquals(1.0, meterRegistry.get(DownstreamCircuitBreakerAspect.CIRCUIT_OPEN_GAUGE)
+            .tag("downstream", Downstream.SMTP.getTag()).gauge().value(), 0.0);
+
+        reset(mailSender);
+        try {
+            proxy.send(mock(MimeMessage.class));
+            fail("expected the call to fail fast");
+        } catch (DownstreamUnavailableException expected) {
+            verifyNoInteractions(mailSender);
+            assertTrue(meterRegistry.get(DownstreamCircuitBreakerAspect.REJECTED_COUNTER)
+                .tag("reason", "circuit_open").counter().count() >= 2);
+        }
+    }
+
+    @Test
+    public void givenBulkheadIsFull_shouldFailFastWithoutCalling() throws Exception {
+        CountDownLatch inCall = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            inCall.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(mailSender).send(any(MimeMessage.class));
+
+        Thread first = new Thread(() -> proxy.send(mock(MimeMessage.class)));
+        first.start();
+        assertTrue(inCall.await(5, TimeUnit.SECONDS));
+
+        try {
+            proxy.send(mock(MimeMessage.class));
+            fail("expected the call to be rejected");
+        } catch (DownstreamBusyException expected) {
+            assertEquals(1.0, meterRegistry.get(DownstreamCircuitBreakerAspect.REJECTED_COUNTER)
+                .tag("reason", "bulkhead_full").counter().count(), 0.0);
+        } finally {
+            release.countDown();
+            first.join();
+        }
+    }
+}
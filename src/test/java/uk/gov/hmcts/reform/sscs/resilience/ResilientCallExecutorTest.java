@@ -0,0 +1,151 @@
+package uk.gov.hmcts.reform.sscs.resilience;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import uk.gov.hmcts.reform.sscs.callback.DispatchContext;
+import uk.gov.hmcts.reform.sscs.exception.DownstreamUnavailableException;
+
+public class ResilientCallExecutorTest {
+
+    private static final Clock FIXED_CLOCK = Clock.fixed(Instant.parse("2021-03-01T10:00:00Z"), ZoneOffset.UTC);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @Test
+    public void givenCallRecovers_shouldReturnItsResult() {
+        ResilientCallExecutor executor = executor(10, 100);
+
+        String result = executor.execute("ccd", 3, () -> {
+            if (calls.incrementAndGet() < 3) {
+                throw new IllegalStateException("try again");
+            }
+            return "done";
+        }, e -> true);
+
+        assertEquals("done", result);
+        assertEquals(3, calls.get());
+        assertEquals(2.0, count("ccd", "retried"), 0);
+    }
+
+    @Test
+    public void givenNestedRetries_shouldShareTheMessageBudget() {
+        ResilientCallExecutor executor = executor(3, 100);
+
+        try (DispatchContext outer = DispatchContext.open("message-1", "0")) {
+            try (DispatchContext inner = DispatchContext.open("message-1", "123")) {
+                failing(executor, "dm-store", 3);
+            }
+            assertEquals(3, calls.get());
+
+            // the outer retry and the next call only have the one retry the inner call left over
+            assertTrue(executor.awaitRetry("dispatch", 1));
+            calls.set(0);
+            failing(executor, "dm-store", 3);
+            assertEquals(1, calls.get());
+        }
+        assertEquals(1.0, count("dm-store", "budget_exhausted"), 0);
+    }
+
+    @Test
+    public void givenAnotherMessage_shouldHaveItsOwnBudget() {
+        ResilientCallExecutor executor = executor(1, 100);
+
+        try (DispatchContext ignored = DispatchContext.open("message-1", "123")) {
+            failing(executor, "docmosis", 3);
+        }
+        try (DispatchContext ignored = DispatchContext.open("message-2", "123")) {
+            failing(executor, "docmosis", 3);
+        }
+
+        assertEquals(4, calls.get());
+    }
+
+    @Test
+    public void givenServiceWideRateReached_shouldNotRetry() {
+        ResilientCallExecutor executor = executor(100, 1);
+
+        failing(executor, "send-letter", 3);
+        failing(executor, "send-letter", 3);
+
+        assertEquals(3, calls.get());
+        assertEquals(1.0, count("send-letter", "retried"), 0);
+        assertEquals(2.0, count("send-letter", "throttled"), 0);
+    }
+
+    @Test
+    public void givenDownstreamUnavailable_shouldNotRetry() {
+        ResilientCallExecutor executor = executor(10, 100);
+
+        try {
+            executor.run("docmosis", 3, () -> {
+                calls.incrementAndGet();
+                throw new IllegalStateException(new DownstreamUnavailableException("docmosis", "its circuit is open", null));
+            }, e -> true);
+            fail("IllegalStateException expected");
+        } catch (IllegalStateException e) {
+            assertEquals(1, calls.get());
+        }
+    }
+
+    @Test
+    public void givenExceptionTheCallerWillNotRetry_shouldRethrowIt() {
+        ResilientCallExecutor executor = executor(10, 100);
+
+        try {
+            executor.run("send-letter", 3, () -> {
+                calls.incrementAndGet();
+                throw new IllegalArgumentException("not a pdf");
+            }, e -> !(e instanceof IllegalArgumentException));
+            fail("IllegalArgumentException expected");
+        } catch (IllegalArgumentException e) {
+            assertEquals(1, calls.get());
+        }
+    }
+
+    @Test
+    public void backoffDoublesUpToTheMaximum() {
+        ResilientCallExecutor executor = new ResilientCallExecutor(meterRegistry, 10, new TokenBucket(100, FIXED_CLOCK),
+            Duration.ofMillis(100), Duration.ofMillis(300));
+
+        assertBetween(50, 100, executor.backoffMillis(1));
+        assertBetween(100, 200, executor.backoffMillis(2));
+        assertBetween(150, 300, executor.backoffMillis(3));
+        assertBetween(150, 300, executor.backoffMillis(40));
+    }
+
+    private ResilientCallExecutor executor(int budgetPerMessage, double ratePerSecond) {
+        return new ResilientCallExecutor(meterRegistry, budgetPerMessage, new TokenBucket(ratePerSecond, FIXED_CLOCK),
+            Duration.ZERO, Duration.ZERO);
+    }
+
+    private void failing(ResilientCallExecutor executor, String operation, int maxAttempts) {
+        try {
+            executor.run(operation, maxAttempts, () -> {
+                calls.incrementAndGet();
+                throw new IllegalStateException(operation + " failed");
+            }, e -> true);
+            fail("IllegalStateException expected");
+        } catch (IllegalStateException e) {
+            assertEquals(operation + " failed", e.getMessage());
+        }
+    }
+
+    private double count(String operation, String outcome) {
+        return meterRegistry.get(ResilientCallExecutor.RETRY_COUNTER)
+            .tag("operation", operation).tag("outcome", outcome).counter().count();
+    }
+
+    private static void assertBetween(long min, long max, long actual) {
+        assertTrue(actual + " should be between " + min + " and " + max, actual >= min && actual <= max);
+    }
+}
@@ -0,0 +1,259 @@
+package uk.gov.hmcts.reform.sscs.resilience;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.junit.After;
+import org.junit.Test;
+import uk.gov.hmcts.reform.sscs.ccd.domain.SscsCaseData;
+import uk.gov.hmcts.reform.sscs.ccd.domain.SscsCaseDetails;
+
+public class SingleFlightAspectTest {
+
+    private static final String DOWNLOAD = "dm_store.download";
+    private static final String GET_CASE = "ccd.getByCaseId";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SingleFlightAspect aspect = new SingleFlightAspect(new ObjectMapper().findAndRegisterModules(), meterRegistry);
+    private final ExecutorService leaderThread = Executors.newSingleThreadExecutor();
+    private final ExecutorService followerThread = Executors.newSingleThreadExecutor();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @After
+    public void tearDown() {
+        leaderThread.shutdownNow();
+        followerThread.shutdownNow();
+    }
+
+    @Test
+    public void givenIdenticalDownloadInFlight_shouldShareItsResult() throws Throwable {
+        byte[] bytes = {1, 2, 3};
+        ProceedingJoinPoint joinPoint = joinPoint("http://dm-store/documents/1");
+        given(joinPoint.proceed()).willAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return bytes;
+        });
+
+        Future<Object> leader = leaderThread.submit(() -> share(aspect::dmStore, joinPoint));
+        awaitInFlight();
+        Future<Object> follower = followerThread.submit(() -> share(aspect::dmStore, joinPoint));
+        awaitSharing(DOWNLOAD);
+
+        assertSame(bytes, leader.get(5, TimeUnit.SECONDS));
+        byte[] shared = (byte[]) follower.get(5, TimeUnit.SECONDS);
+        assertArrayEquals(bytes, shared);
+        assertNotSame(bytes, shared);
+        verify(joinPoint, times(1)).proceed();
+        assertEquals(0, aspect.inFlight());
+    }
+
+    @Test
+    public void givenIdenticalCaseReadInFlight_shouldGiveTheSharingCallerItsOwnCopy() throws Throwable {
+        SscsCaseDetails caseDetails = SscsCaseDetails.builder().id(123L)
+            .data(SscsCaseData.builder().ccdCaseId("123").region("LEEDS").build()).build();
+        ProceedingJoinPoint joinPoint = joinPoint(123L);
+        given(joinPoint.proceed()).willAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return caseDetails;
+        });
+
+        Future<Object> leader = leaderThread.submit(() -> share(aspect::ccd, joinPoint));
+        awaitInFlight();
+        Future<Object> follower = followerThread.submit(() -> share(aspect::ccd, joinPoint));
+        awaitSharing(GET_CASE);
+
+        assertSame(caseDetails, leader.get(5, TimeUnit.SECONDS));
+        caseDetails.getData().setRegion("CARDIFF");
+        SscsCaseDetails shared = (SscsCaseDetails) follower.get(5, TimeUnit.SECONDS);
+        assertEquals(Long.valueOf(123L), shared.getId());
+        assertEquals("LEEDS", shared.getData().getRegion());
+        verify(joinPoint, times(1)).proceed();
+    }
+
+    @Test
+    public void givenNoOneSharesTheCaseRead_shouldNotCopyIt() throws Throwable {
+        ObjectMapper objectMapper = spy(new ObjectMapper().findAndRegisterModules());
+        SingleFlightAspect aspect = new SingleFlightAspect(objectMapper, meterRegistry);
+        SscsCaseDetails caseDetails = SscsCaseDetails.builder().id(123L)
+            .data(SscsCaseData.builder().ccdCaseId("123").build()).build();
+        ProceedingJoinPoint joinPoint = joinPoint(123L);
+        given(joinPoint.proceed()).willReturn(caseDetails);
+
+        assertSame(caseDetails, aspect.ccd(joinPoint));
+
+        verify(objectMapper, never()).writeValueAsBytes(any());
+        assertEquals(0, aspect.inFlight());
+    }
+
+    @Test
+    public void givenCaseUpdatedWhileReadInFlight_shouldNotShareThatReadWithLaterReads() throws Throwable {
+        SscsCaseDetails beforeUpdate = SscsCaseDetails.builder().id(123L)
+            .data(SscsCaseData.builder().ccdCaseId("123").region("LEEDS").build()).build();
+        SscsCaseDetails afterUpdate = SscsCaseDetails.builder().id(123L)
+            .data(SscsCaseData.builder().ccdCaseId("123").region("CARDIFF").build()).build();
+        ProceedingJoinPoint inFlightRead = joinPoint(123L);
+        given(inFlightRead.proceed()).willAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return beforeUpdate;
+        });
+        ProceedingJoinPoint laterRead = joinPoint(123L);
+        given(laterRead.proceed()).willReturn(afterUpdate);
+        ProceedingJoinPoint update = mock(ProceedingJoinPoint.class);
+        given(update.getArgs()).willReturn(new Object[] {afterUpdate.getData(), 123L, "caseUpdated"});
+        given(update.proceed()).willThrow(new IllegalStateException("conflict"));
+
+        Future<Object> leader = leaderThread.submit(() -> share(aspect::ccd, inFlightRead));
+        awaitInFlight();
+        try {
+            aspect.ccdUpdate(update);
+        } catch (IllegalStateException expected) {
+            // the update may still have been applied, so later reads must not share the one in flight
+        }
+
+        SscsCaseDetails read = (SscsCaseDetails) aspect.ccd(laterRead);
+        release.countDown();
+
+        assertEquals("CARDIFF", read.getData().getRegion());
+        assertSame(beforeUpdate, leader.get(5, TimeUnit.SECONDS));
+        verify(laterRead).proceed();
+        assertEquals(0.0, count(GET_CASE, "shared"), 0);
+        assertEquals(0, aspect.inFlight());
+    }
+
+    @Test
+    public void givenAnotherCaseUpdated_shouldStillShareTheRead() throws Throwable {
+        ProceedingJoinPoint joinPoint = joinPoint(123L);
+        given(joinPoint.proceed()).willAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return SscsCaseDetails.builder().id(123L).data(SscsCaseData.builder().ccdCaseId("123").build()).build();
+        });
+        ProceedingJoinPoint update = mock(ProceedingJoinPoint.class);
+        given(update.getArgs()).willReturn(new Object[] {SscsCaseData.builder().ccdCaseId("456").build(), "caseUpdated"});
+
+        Future<Object> leader = leaderThread.submit(() -> share(aspect::ccd, joinPoint));
+        awaitInFlight();
+        aspect.ccdUpdate(update);
+        Future<Object> follower = followerThread.submit(() -> share(aspect::ccd, joinPoint));
+        awaitSharing(GET_CASE);
+
+        leader.get(5, TimeUnit.SECONDS);
+        follower.get(5, TimeUnit.SECONDS);
+        verify(joinPoint, times(1)).proceed();
+    }
+
+    @Test
+    public void givenInFlightCallFails_shouldShareTheFailure() throws Throwable {
+        ProceedingJoinPoint joinPoint = joinPoint("http://dm-store/documents/1");
+        given(joinPoint.proceed()).willAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            throw new IllegalStateException("dm-store down");
+        });
+
+        Future<Object> leader = leaderThread.submit(() -> share(aspect::dmStore, joinPoint));
+        awaitInFlight();
+        Future<Object> follower = followerThread.submit(() -> share(aspect::dmStore, joinPoint));
+        awaitSharing(DOWNLOAD);
+
+        assertFailedWith(leader, "dm-store down");
+        assertFailedWith(follower, "dm-store down");
+        verify(joinPoint, times(1)).proceed();
+        assertEquals(0, aspect.inFlight());
+    }
+
+    @Test
+    public void givenCallsOneAfterAnother_shouldMakeEachOfThem() throws Throwable {
+        ProceedingJoinPoint joinPoint = joinPoint("http://dm-store/documents/1");
+        given(joinPoint.proceed()).willReturn(new byte[] {1});
+
+        aspect.dmStore(joinPoint);
+        aspect.dmStore(joinPoint);
+
+        verify(joinPoint, times(2)).proceed();
+        assertEquals(2.0, meterRegistry.get(SingleFlightAspect.CALL_COUNTER).tag("call", DOWNLOAD)
+            .tag("outcome", "called").counter().count(), 0);
+    }
+
+    @Test
+    public void givenDifferentArguments_shouldNotShare() throws Throwable {
+        ProceedingJoinPoint first = joinPoint("http://dm-store/documents/1");
+        ProceedingJoinPoint second = joinPoint("http://dm-store/documents/2");
+        given(second.proceed()).willReturn(new byte[] {2});
+        given(first.proceed()).willAnswer(invocation -> {
+            assertArrayEquals(new byte[] {2}, (byte[]) aspect.dmStore(second));
+            return new byte[] {1};
+        });
+
+        assertArrayEquals(new byte[] {1}, (byte[]) aspect.dmStore(first));
+
+        verify(second).proceed();
+        assertEquals(0.0, count(DOWNLOAD, "shared"), 0);
+    }
+
+    private ProceedingJoinPoint joinPoint(Object key) {
+        ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+        given(joinPoint.getArgs()).willReturn(new Object[] {key, null});
+        return joinPoint;
+    }
+
+    private void awaitInFlight() throws InterruptedException {
+        for (int i = 0; i < 500 && aspect.inFlight() == 0; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, aspect.inFlight());
+    }
+
+    private void awaitSharing(String call) throws InterruptedException {
+        for (int i = 0; i < 500 && count(call, "shared") == 0; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(1.0, count(call, "shared"), 0);
+        release.countDown();
+    }
+
+    private double count(String call, String outcome) {
+        return meterRegistry.find(SingleFlightAspect.CALL_COUNTER).tag("call", call).tag("outcome", outcome)
+            .counters().stream().mapToDouble(counter -> counter.count()).sum();
+    }
+
+    private static void assertFailedWith(Future<Object> future, String message) throws Exception {
+        try {
+            future.get(5, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            assertEquals(message, e.getCause().getMessage());
+            return;
+        }
+        throw new AssertionError("expected the call to fail");
+    }
+
+    private static Object share(ThrowingCall call, ProceedingJoinPoint joinPoint) throws Exception {
+        try {
+            return call.apply(joinPoint);
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private interface ThrowingCall {
+        Object apply(ProceedingJoinPoint joinPoint) throws Throwable;
+    }
+}
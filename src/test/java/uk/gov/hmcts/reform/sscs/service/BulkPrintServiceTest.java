@@ -8,6 +8,9 @@ import static org.mockito.Mockito.*;
 import static uk.gov.hmcts.reform.sscs.ccd.domain.EventType.ISSUE_FURTHER_EVIDENCE;
 import static uk.gov.hmcts.reform.sscs.domain.FurtherEvidenceLetterType.APPELLANT_LETTER;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -28,6 +31,8 @@ import uk.gov.hmcts.reform.sscs.docmosis.domain.Pdf;
 import uk.gov.hmcts.reform.sscs.exception.BulkPrintException;
 import uk.gov.hmcts.reform.sscs.exception.NonPdfBulkPrintException;
 import uk.gov.hmcts.reform.sscs.idam.IdamService;
+import uk.gov.hmcts.reform.sscs.resilience.ResilientCallExecutor;
+import uk.gov.hmcts.reform.sscs.resilience.TokenBucket;
 
 @RunWith(MockitoJUnitRunner.class)
 public class BulkPrintServiceTest {
@@ -45,6 +50,8 @@ public class BulkPrintServiceTest {
             .build())
         .build();
     private static final String AUTH_TOKEN = "Auth_Token";
+    private static final ResilientCallExecutor RESILIENT_CALL_EXECUTOR = new ResilientCallExecutor(
+        new SimpleMeterRegistry(), 100, new TokenBucket(1000, Clock.systemUTC()), Duration.ZERO, Duration.ZERO);
 
     private BulkPrintService bulkPrintService;
     @Mock
@@ -59,7 +66,7 @@ public class BulkPrintServiceTest {
 
     @Before
     public void setUp() {
-        this.bulkPrintService = new BulkPrintService(sendLetterApi, idamService, bulkPrintServiceHelper, true, 1);
+        this.bulkPrintService = new BulkPrintService(sendLetterApi, idamService, bulkPrintServiceHelper, true, 1, RESILIENT_CALL_EXECUTOR);
         when(idamService.generateServiceAuthorization()).thenReturn(AUTH_TOKEN);
     }
 
@@ -98,7 +105,7 @@ public class BulkPrintServiceTest {
 
     @Test
     public void sendLetterNotEnabledWillNotSendToBulkPrint() {
-        BulkPrintService notEnabledBulkPrint = new BulkPrintService(sendLetterApi, idamService, bulkPrintServiceHelper, false, 1);
+        BulkPrintService notEnabledBulkPrint = new BulkPrintService(sendLetterApi, idamService, bulkPrintServiceHelper, false, 1, RESILIENT_CALL_EXECUTOR);
         notEnabledBulkPrint.sendToBulkPrint(PDF_LIST, SSCS_CASE_DATA);
         verifyNoInteractions(idamService);
         verifyNoInteractions(sendLetterApi);
@@ -106,7 +113,7 @@ public class BulkPrintServiceTest {
 
     @Test
     public void willSendToBulkPrintWithReasonableAdjustment() {
-        this.bulkPrintService = new BulkPrintService(sendLetterApi, idamService, bulkPrintServiceHelper, true, 1);
+        this.bulkPrintService = new BulkPrintService(sendLetterApi, idamService, bulkPrintServiceHelper, true, 1, RESILIENT_CALL_EXECUTOR);
 
         SSCS_CASE_DATA.setReasonableAdjustments(ReasonableAdjustments.builder()
             .appellant(ReasonableAdjustmentDetails.builder()
@@ -0,0 +1,84 @@
+package uk.gov.hmcts.reform.sscs.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.Set;
+import org.junit.Test;
+import uk.gov.hmcts.reform.sscs.ccd.domain.EventType;
+import uk.gov.hmcts.reform.sscs.ccd.domain.SscsCaseData;
+import uk.gov.hmcts.reform.sscs.ccd.domain.SscsDocument;
+import uk.gov.hmcts.reform.sscs.ccd.domain.SscsDocumentDetails;
+
+public class CaseDataDiffTest {
+
+    private static final String CASE_UPDATED = EventType.CASE_UPDATED.getCcdType();
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CaseDataDiff caseDataDiff = new CaseDataDiff(objectMapper, meterRegistry);
+
+    @Test
+    public void givenNothingChanged_shouldSkipTheUpdateAndRecordTheBytesSaved() {
+        SscsCaseData caseData = caseData("No");
+        JsonNode before = caseDataDiff.snapshot(caseData);
+
+        assertFalse(caseDataDiff.needsUpdate(before, caseData, CASE_UPDATED));
+
+        assertEquals(1.0, count("skipped"), 0);
+        assertEquals(1, meterRegistry.get(CaseDataDiff.SAVED_SUMMARY).summary().count());
+        assertTrue(meterRegistry.get(CaseDataDiff.SAVED_SUMMARY).summary().totalAmount() > 0);
+    }
+
+    @Test
+    public void givenNestedFieldChanged_shouldSendTheUpdate() {
+        SscsCaseData caseData = caseData("No");
+        JsonNode before = caseDataDiff.snapshot(caseData);
+
+        caseData.getSscsDocument().get(0).getValue().setEvidenceIssued("Yes");
+
+        assertTrue(caseDataDiff.needsUpdate(before, caseData, CASE_UPDATED));
+        assertEquals(1.0, count("sent"), 0);
+    }
+
+    @Test
+    public void givenEventThatIsNotOnlyADataUpdate_shouldAlwaysSendIt() {
+        SscsCaseData caseData = caseData("No");
+        JsonNode before = caseDataDiff.snapshot(caseData);
+
+        assertTrue(caseDataDiff.needsUpdate(before, caseData, EventType.NOT_LISTABLE.getCcdType()));
+    }
+
+    @Test
+    public void givenNoSnapshot_shouldSendTheUpdate() {
+        assertTrue(caseDataDiff.needsUpdate(null, caseData("No"), CASE_UPDATED));
+    }
+
+    @Test
+    public void changedFieldsTreatsNullAsMissing() {
+        JsonNode before = objectMapper.createObjectNode().put("region", "LEEDS").putNull("dateSentToDwp");
+        JsonNode after = objectMapper.createObjectNode().put("region", "CARDIFF").put("isProgressingViaGaps", "Yes");
+
+        assertEquals(Set.of("region", "isProgressingViaGaps"), CaseDataDiff.changedFields(before, after));
+    }
+
+    private SscsCaseData caseData(String evidenceIssued) {
+        return SscsCaseData.builder()
+            .ccdCaseId("123")
+            .region("LEEDS")
+            .sscsDocument(List.of(SscsDocument.builder()
+                .value(SscsDocumentDetails.builder().evidenceIssued(evidenceIssued).build())
+                .build()))
+            .build();
+    }
+
+    private double count(String outcome) {
+        return meterRegistry.get(CaseDataDiff.UPDATE_COUNTER).tag("event", CASE_UPDATED).tag("outcome", outcome)
+            .counter().count();
+    }
+}
@@ -0,0 +1,131 @@
+package uk.gov.hmcts.reform.sscs.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import feign.FeignException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import uk.gov.hmcts.reform.sscs.ccd.domain.SscsCaseData;
+import uk.gov.hmcts.reform.sscs.ccd.domain.SscsCaseDetails;
+import uk.gov.hmcts.reform.sscs.ccd.service.CcdService;
+import uk.gov.hmcts.reform.sscs.idam.IdamTokens;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ConflictResolvingCaseUpdaterTest {
+
+    private static final Long CASE_ID = 123L;
+    private static final String EVENT = "caseUpdated";
+    private static final IdamTokens IDAM_TOKENS = IdamTokens.builder().build();
+
+    @Mock
+    private CcdService ccdService;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ConflictResolvingCaseUpdater caseUpdater;
+
+    @Before
+    public void setUp() {
+        caseUpdater = new ConflictResolvingCaseUpdater(ccdService, meterRegistry, 3);
+    }
+
+    @Test
+    public void givenNoConflict_shouldTriggerTheEventWithTheChanges() {
+        SscsCaseData caseData = SscsCaseData.builder().build();
+        SscsCaseDetails updated = SscsCaseDetails.builder().build();
+        given(ccdService.updateCase(caseData, CASE_ID, EVENT, "summary", "description", IDAM_TOKENS)).willReturn(updated);
+
+        assertSame(updated, update(caseData));
+
+        assertEquals("2021-03-01", caseData.getDateCaseSentToGaps());
+        verify(ccdService, never()).getByCaseId(any(), any());
+    }
+
+    @Test
+    public void givenConflict_shouldReapplyTheChangesToTheLatestCase() {
+        SscsCaseData caseData = SscsCaseData.builder().build();
+        SscsCaseData latest = SscsCaseData.builder().region("latest").build();
+        given(ccdService.updateCase(any(), eq(CASE_ID), eq(EVENT), any(), any(), eq(IDAM_TOKENS)))
+            .willThrow(new CustomFeignException(409))
+            .willReturn(SscsCaseDetails.builder().build());
+        given(ccdService.getByCaseId(CASE_ID, IDAM_TOKENS)).willReturn(SscsCaseDetails.builder().data(latest).build());
+
+        update(caseData);
+
+        verify(ccdService).updateCase(same(latest), eq(CASE_ID), eq(EVENT), any(), any(), eq(IDAM_TOKENS));
+        assertEquals("2021-03-01", latest.getDateCaseSentToGaps());
+        assertEquals("latest", latest.getRegion());
+        assertEquals(1.0, count("resolved"), 0);
+    }
+
+    @Test
+    public void givenConflictOnEveryAttempt_shouldGiveUp() {
+        given(ccdService.updateCase(any(), eq(CASE_ID), eq(EVENT), any(), any(), eq(IDAM_TOKENS)))
+            .willThrow(new CustomFeignException(409));
+        given(ccdService.getByCaseId(CASE_ID, IDAM_TOKENS))
+            .willReturn(SscsCaseDetails.builder().data(SscsCaseData.builder().build()).build());
+
+        try {
+            update(SscsCaseData.builder().build());
+            fail("FeignException expected");
+        } catch (FeignException e) {
+            assertEquals(409, e.status());
+        }
+
+        verify(ccdService, times(3)).updateCase(any(), eq(CASE_ID), eq(EVENT), any(), any(), eq(IDAM_TOKENS));
+        verify(ccdService, times(2)).getByCaseId(CASE_ID, IDAM_TOKENS);
+        assertEquals(1.0, count("exhausted"), 0);
+    }
+
+    @Test
+    public void givenOtherError_shouldNotReadTheCaseAgain() {
+        given(ccdService.updateCase(any(), eq(CASE_ID), eq(EVENT), any(), any(), eq(IDAM_TOKENS)))
+            .willThrow(new CustomFeignException(422));
+
+        try {
+            update(SscsCaseData.builder().build());
+            fail("FeignException expected");
+        } catch (FeignException e) {
+            assertEquals(422, e.status());
+        }
+
+        verify(ccdService, never()).getByCaseId(any(), any());
+    }
+
+    @Test
+    public void conflictIsFoundInTheCauseChain() {
+        assertTrue(ConflictResolvingCaseUpdater.isConflict(new IllegalStateException(new CustomFeignException(409))));
+        assertFalse(ConflictResolvingCaseUpdater.isConflict(new IllegalStateException(new CustomFeignException(500))));
+        assertFalse(ConflictResolvingCaseUpdater.isConflict(new IllegalStateException()));
+    }
+
+    private SscsCaseDetails update(SscsCaseData caseData) {
+        return caseUpdater.updateCase(caseData, CASE_ID, EVENT, "summary", "description", IDAM_TOKENS,
+            data -> data.setDateCaseSentToGaps("2021-03-01"));
+    }
+
+    private double count(String outcome) {
+        return meterRegistry.get(ConflictResolvingCaseUpdater.CONFLICT_COUNTER)
+            .tag("event", EVENT).tag("outcome", outcome).counter().count();
+    }
+
+    private static class CustomFeignException extends FeignException {
+        CustomFeignException(int status) {
+            super(status, "reason");
+        }
+    }
+}
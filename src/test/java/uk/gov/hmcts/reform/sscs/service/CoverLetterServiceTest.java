@@ -9,6 +9,9 @@ import static org.mockito.BDDMockito.when;
 import static org.mockito.Mockito.times;
 import static uk.gov.hmcts.reform.sscs.domain.FurtherEvidenceLetterType.APPELLANT_LETTER;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -32,6 +35,8 @@ import uk.gov.hmcts.reform.sscs.docmosis.domain.DocumentHolder;
 import uk.gov.hmcts.reform.sscs.docmosis.domain.Pdf;
 import uk.gov.hmcts.reform.sscs.docmosis.service.PdfGenerationService;
 import uk.gov.hmcts.reform.sscs.exception.UnableToContactThirdPartyException;
+import uk.gov.hmcts.reform.sscs.resilience.ResilientCallExecutor;
+import uk.gov.hmcts.reform.sscs.resilience.TokenBucket;
 import uk.gov.hmcts.reform.sscs.service.placeholders.FurtherEvidencePlaceholderService;
 
 @RunWith(JUnitParamsRunner.class)
@@ -49,7 +54,8 @@ public class CoverLetterServiceTest {
     @Before
     public void initMocks() {
         MockitoAnnotations.openMocks(this);
-        coverLetterService = new CoverLetterService(furtherEvidencePlaceholderService, pdfGenerationService, 3);
+        coverLetterService = new CoverLetterService(furtherEvidencePlaceholderService, pdfGenerationService, 3, new ResilientCallExecutor(
+            new SimpleMeterRegistry(), 100, new TokenBucket(1000, Clock.systemUTC()), Duration.ZERO, Duration.ZERO));
     }
 
     @Test
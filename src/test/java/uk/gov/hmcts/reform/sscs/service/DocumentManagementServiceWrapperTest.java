@@ -3,7 +3,10 @@ package uk.gov.hmcts.reform.sscs.service;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import org.junit.Test;
@@ -20,6 +23,8 @@ import uk.gov.hmcts.reform.sscs.exception.PdfGenerationException;
 import uk.gov.hmcts.reform.sscs.exception.PdfStoreException;
 import uk.gov.hmcts.reform.sscs.exception.UnableToContactThirdPartyException;
 import uk.gov.hmcts.reform.sscs.idam.IdamTokens;
+import uk.gov.hmcts.reform.sscs.resilience.ResilientCallExecutor;
+import uk.gov.hmcts.reform.sscs.resilience.TokenBucket;
 
 
 public class DocumentManagementServiceWrapperTest {
@@ -29,7 +34,8 @@ public class DocumentManagementServiceWrapperTest {
     private final Pdf pdf = mock(Pdf.class);
 
     private final DocumentManagementServiceWrapper service =
-        new DocumentManagementServiceWrapper(documentManagementService, ccdService,3);
+        new DocumentManagementServiceWrapper(documentManagementService, ccdService, 3, new ResilientCallExecutor(
+            new SimpleMeterRegistry(), 100, new TokenBucket(1000, Clock.systemUTC()), Duration.ZERO, Duration.ZERO));
     private final DocumentHolder holder = DocumentHolder.builder().build();
     private final SscsCaseData caseData = SscsCaseData.builder().ccdCaseId("1").build();
     private final IdamTokens idamTokens = IdamTokens.builder().build();
@@ -134,6 +140,38 @@ public class DocumentManagementServiceWrapperTest {
         verifyNoMoreInteractions(documentManagementService);
     }
 
+    @Test
+    public void givenAMessageIsRedeliveredAfterTheDlWasAdded_theCaseIsReadFromCcdAndTheDlIsNotGeneratedAgain() {
+        when(documentManagementService.generateDocumentAndAddToCcd(any(), any())).thenReturn(pdf);
+        SscsDocument dl6 = SscsDocument.builder().value(SscsDocumentDetails.builder().documentType("dl6").build()).build();
+        when(ccdService.getByCaseId(any(), any()))
+            .thenReturn(SscsCaseDetails.builder().id(1L).data(SscsCaseData.builder().ccdCaseId("1").build()).build())
+            .thenReturn(SscsCaseDetails.builder().id(1L)
+                .data(SscsCaseData.builder().ccdCaseId("1").sscsDocument(List.of(dl6)).build()).build());
+
+        service.generateDocumentAndAddToCcd(holder, caseData, idamTokens);
+        service.generateDocumentAndAddToCcd(holder, caseData, idamTokens);
+
+        verify(documentManagementService).generateDocumentAndAddToCcd(eq(holder), eq(caseData));
+        verify(ccdService, times(2)).getByCaseId(eq(1L), any());
+    }
+
+    @Test
+    public void givenARetry_theCaseIsReadFromCcdAgainToSeeIfTheFailedAttemptAddedTheDocument() {
+        when(documentManagementService.generateDocumentAndAddToCcd(any(), any()))
+            .thenThrow(new RuntimeException("blah"));
+        SscsDocument dl6 = SscsDocument.builder().value(SscsDocumentDetails.builder().documentType("dl6").build()).build();
+        when(ccdService.getByCaseId(any(), any()))
+            .thenReturn(SscsCaseDetails.builder().id(1L).data(SscsCaseData.builder().ccdCaseId("1").build()).build())
+            .thenReturn(SscsCaseDetails.builder().id(1L)
+                .data(SscsCaseData.builder().ccdCaseId("1").sscsDocument(List.of(dl6)).build()).build());
+
+        service.generateDocumentAndAddToCcd(holder, caseData, idamTokens);
+
+        verify(documentManagementService).generateDocumentAndAddToCcd(eq(holder), eq(caseData));
+        verify(ccdService, times(2)).getByCaseId(eq(1L), any());
+    }
+
     @Test(expected = RuntimeException.class)
     public void anExceptionWillBeCaughtAndRetriedUntilItFails() {
         when(documentManagementService.generateDocumentAndAddToCcd(any(), any()))
@@ -0,0 +1,132 @@
+package uk.gov.hmcts.reform.sscs.service;
+
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.times;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+import org.mockito.quality.Strictness;
+
+public class DocumentPrefetcherTest {
+
+    private static final URI DOCUMENT = URI.create("http://dm-store/documents/1");
+
+    @Rule
+    public MockitoRule rule = MockitoJUnit.rule().strictness(Strictness.STRICT_STUBS);
+
+    @Mock
+    private EvidenceManagementService evidenceManagementService;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    public void givenDocumentWasPrefetched_shouldHandOutACopyWithoutDownloadingItAgain() {
+        byte[] bytes = {1, 2, 3};
+        given(evidenceManagementService.download(DOCUMENT, "sscs")).willReturn(bytes);
+        DocumentPrefetcher prefetcher = prefetcher(Runnable::run, true);
+
+        try (DocumentPrefetcher.Scope ignored = prefetcher.prefetch(Arrays.asList(DOCUMENT.toString(), DOCUMENT.toString()))) {
+            byte[] first = prefetcher.download(DOCUMENT, null);
+            byte[] second = prefetcher.download(DOCUMENT, null);
+
+            assertArrayEquals(bytes, first);
+            assertNotSame(bytes, first);
+            assertNotSame(first, second);
+        }
+
+        then(evidenceManagementService).should(times(1)).download(DOCUMENT, "sscs");
+        assertEquals(2.0, count("hit"), 0);
+    }
+
+    @Test
+    public void givenDocumentWasNotPrefetched_shouldDownloadIt() {
+        given(evidenceManagementService.download(DOCUMENT, null)).willReturn(new byte[] {1});
+        DocumentPrefetcher prefetcher = prefetcher(Runnable::run, true);
+
+        try (DocumentPrefetcher.Scope ignored = prefetcher.prefetch(Collections.emptyList())) {
+            assertArrayEquals(new byte[] {1}, prefetcher.download(DOCUMENT, null));
+        }
+
+        assertEquals(1.0, count("miss"), 0);
+    }
+
+    @Test
+    public void givenPrefetchFailed_shouldDownloadTheDocumentAgain() {
+        given(evidenceManagementService.download(DOCUMENT, "sscs")).willThrow(new IllegalStateException("dm-store down"));
+        given(evidenceManagementService.download(DOCUMENT, null)).willReturn(new byte[] {1});
+        DocumentPrefetcher prefetcher = prefetcher(Runnable::run, true);
+
+        try (DocumentPrefetcher.Scope ignored = prefetcher.prefetch(singletonList(DOCUMENT.toString()))) {
+            assertArrayEquals(new byte[] {1}, prefetcher.download(DOCUMENT, null));
+        }
+
+        assertEquals(1.0, count("failed"), 0);
+    }
+
+    @Test
+    public void givenPrefetchRejected_shouldDownloadTheDocumentWhenAskedFor() {
+        given(evidenceManagementService.download(DOCUMENT, null)).willReturn(new byte[] {1});
+        DocumentPrefetcher prefetcher = prefetcher(task -> {
+            throw new RejectedExecutionException();
+        }, true);
+
+        try (DocumentPrefetcher.Scope ignored = prefetcher.prefetch(singletonList(DOCUMENT.toString()))) {
+            assertArrayEquals(new byte[] {1}, prefetcher.download(DOCUMENT, null));
+        }
+
+        then(evidenceManagementService).should(times(1)).download(DOCUMENT, null);
+    }
+
+    @Test
+    public void givenNoMessageBeingDispatched_shouldDownloadTheDocument() {
+        given(evidenceManagementService.download(DOCUMENT, "sscs")).willReturn(new byte[] {1});
+
+        assertArrayEquals(new byte[] {1}, prefetcher(Runnable::run, true).download(DOCUMENT, "sscs"));
+
+        assertEquals(0, meterRegistry.find(DocumentPrefetcher.PREFETCH_COUNTER).counters().size());
+    }
+
+    @Test
+    public void givenPrefetchedDocumentIsNotUsed_shouldCountItWhenTheScopeCloses() {
+        given(evidenceManagementService.download(DOCUMENT, "sscs")).willReturn(new byte[] {1});
+        DocumentPrefetcher prefetcher = prefetcher(Runnable::run, true);
+
+        prefetcher.prefetch(singletonList(DOCUMENT.toString())).close();
+
+        assertEquals(1.0, count("unused"), 0);
+    }
+
+    @Test
+    public void givenPrefetchDisabled_shouldNotStartAnyDownloads() {
+        given(evidenceManagementService.download(DOCUMENT, null)).willReturn(new byte[] {1});
+        DocumentPrefetcher prefetcher = prefetcher(Runnable::run, false);
+
+        try (DocumentPrefetcher.Scope ignored = prefetcher.prefetch(singletonList(DOCUMENT.toString()))) {
+            assertArrayEquals(new byte[] {1}, prefetcher.download(DOCUMENT, null));
+        }
+
+        then(evidenceManagementService).should(times(1)).download(DOCUMENT, null);
+    }
+
+    private DocumentPrefetcher prefetcher(Executor executor, boolean enabled) {
+        return new DocumentPrefetcher(evidenceManagementService, executor, meterRegistry, enabled);
+    }
+
+    private double count(String outcome) {
+        return meterRegistry.get(DocumentPrefetcher.PREFETCH_COUNTER).tag("outcome", outcome).counter().count();
+    }
+}
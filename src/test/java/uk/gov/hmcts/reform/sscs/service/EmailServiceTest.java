@@ -1,9 +1,13 @@
 package uk.gov.hmcts.reform.sscs.service;
 
 import static java.util.Collections.emptyList;
+import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import javax.mail.internet.MimeMessage;
@@ -17,6 +21,8 @@ import org.springframework.mail.javamail.JavaMailSenderImpl;
 import uk.gov.hmcts.reform.sscs.domain.email.Email;
 import uk.gov.hmcts.reform.sscs.domain.email.EmailAttachment;
 import uk.gov.hmcts.reform.sscs.exception.EmailSendFailedException;
+import uk.gov.hmcts.reform.sscs.resilience.ResilientCallExecutor;
+import uk.gov.hmcts.reform.sscs.resilience.TokenBucket;
 
 @RunWith(MockitoJUnitRunner.class)
 public class EmailServiceTest {
@@ -37,7 +43,8 @@ public class EmailServiceTest {
     @Before
     public void beforeEachTest() {
         EmailSenderProvider emailSenderProvider = mock(EmailSenderProvider.class);
-        emailService = new EmailService(emailSenderProvider);
+        emailService = new EmailService(emailSenderProvider, new ResilientCallExecutor(
+            new SimpleMeterRegistry(), 100, new TokenBucket(1000, Clock.systemUTC()), Duration.ZERO, Duration.ZERO));
         when(emailSenderProvider.getMailSender()).thenReturn(javaMailSender);
         when(javaMailSender.createMimeMessage()).thenReturn(mimeMessage);
     }
@@ -75,6 +82,19 @@ public class EmailServiceTest {
         emailService.sendEmail(1L, emailData);
     }
 
+    @Test
+    public void testSendEmailIsRetriedBeforeGivingUp() {
+        Email emailData = SampleEmailData.getDefault();
+        doThrow(mock(MailException.class)).when(javaMailSender).send(any(MimeMessage.class));
+        try {
+            emailService.sendEmail(1L, emailData);
+        } catch (EmailSendFailedException e) {
+            verify(javaMailSender, times(3)).send(mimeMessage);
+            return;
+        }
+        fail("EmailSendFailedException expected");
+    }
+
     @Test(expected = EmailSendFailedException.class)
     public void testSendEmailThrowsInvalidArgumentExceptionForInvalidTo() {
         Email emailData = SampleEmailData.getWithToNull();
@@ -0,0 +1,72 @@
+package uk.gov.hmcts.reform.sscs.service;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.launchdarkly.sdk.LDUser;
+import com.launchdarkly.sdk.LDValue;
+import com.launchdarkly.sdk.server.LDClient;
+import com.launchdarkly.sdk.server.interfaces.FlagTracker;
+import com.launchdarkly.sdk.server.interfaces.FlagValueChangeEvent;
+import com.launchdarkly.sdk.server.interfaces.FlagValueChangeListener;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class FeatureToggleServiceTest {
+
+    @Mock
+    private LDClient ldClient;
+
+    @Mock
+    private FlagTracker flagTracker;
+
+    @Captor
+    private ArgumentCaptor<FlagValueChangeListener> listener;
+
+    private FeatureToggleService service;
+
+    @Before
+    public void setUp() {
+        given(ldClient.getFlagTracker()).willReturn(flagTracker);
+        service = new FeatureToggleService(ldClient, "sscs");
+    }
+
+    @Test
+    public void flagIsEvaluatedOnceAndThenServedFromTheSnapshot() {
+        given(ldClient.boolVariation(eq(FeatureToggleService.SEND_GRID), any(LDUser.class), eq(false))).willReturn(true);
+
+        assertTrue(service.isSendGridEnabled());
+        assertTrue(service.isSendGridEnabled());
+
+        verify(ldClient, times(1)).boolVariation(eq(FeatureToggleService.SEND_GRID), any(LDUser.class), eq(false));
+        verify(flagTracker, times(1)).addFlagValueChangeListener(eq(FeatureToggleService.SEND_GRID), any(LDUser.class), any());
+    }
+
+    @Test
+    public void snapshotFollowsFlagChanges() {
+        given(ldClient.boolVariation(eq(FeatureToggleService.SEND_GRID), any(LDUser.class), eq(false))).willReturn(false);
+        assertFalse(service.isSendGridEnabled());
+        verify(flagTracker).addFlagValueChangeListener(eq(FeatureToggleService.SEND_GRID), any(LDUser.class), listener.capture());
+
+        listener.getValue().onFlagValueChange(
+            new FlagValueChangeEvent(FeatureToggleService.SEND_GRID, LDValue.of(false), LDValue.of(true)));
+        assertTrue(service.isSendGridEnabled());
+
+        listener.getValue().onFlagValueChange(
+            new FlagValueChangeEvent(FeatureToggleService.SEND_GRID, LDValue.of(true), LDValue.ofNull()));
+        assertFalse(service.isSendGridEnabled());
+
+        verify(ldClient, times(1)).boolVariation(eq(FeatureToggleService.SEND_GRID), any(LDUser.class), eq(false));
+    }
+}
@@ -0,0 +1,44 @@
+package uk.gov.hmcts.reform.sscs.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import java.util.Set;
+import org.junit.Test;
+
+public class NinoCaseIndexTest {
+
+    private static final Instant NOW = Instant.parse("2021-04-01T10:00:00Z");
+
+    @Test
+    public void givenSearchForTheSameCase_shouldServeItWhateverTheNinoFormat() {
+        NinoCaseIndex index = new NinoCaseIndex(Duration.ofMinutes(10), Clock.fixed(NOW, ZoneOffset.UTC));
+
+        index.put("AB 00 00 00 Y", 1L, Set.of(2L, 3L));
+
+        assertEquals(Optional.of(Set.of(2L, 3L)), index.find("ab000000y", 1L));
+    }
+
+    @Test
+    public void givenSearchForAnotherCase_shouldNotServeItAsCasesMayHaveBeenCreatedSince() {
+        NinoCaseIndex index = new NinoCaseIndex(Duration.ofMinutes(10), Clock.fixed(NOW, ZoneOffset.UTC));
+
+        index.put("AB000000Y", 1L, Set.of(2L, 3L));
+
+        assertTrue(index.find("AB000000Y", 4L).isEmpty());
+    }
+
+    @Test
+    public void givenSearchHasExpired_shouldNotServeIt() {
+        NinoCaseIndex index = new NinoCaseIndex(Duration.ZERO, Clock.fixed(NOW, ZoneOffset.UTC));
+
+        index.put("AB000000Y", 1L, Set.of(2L));
+
+        assertTrue(index.find("AB000000Y", 1L).isEmpty());
+    }
+}
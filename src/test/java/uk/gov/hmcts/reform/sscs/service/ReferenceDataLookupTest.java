@@ -0,0 +1,166 @@
+package uk.gov.hmcts.reform.sscs.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.Optional;
+import junitparams.JUnitParamsRunner;
+import junitparams.Parameters;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+import org.mockito.quality.Strictness;
+import uk.gov.hmcts.reform.sscs.ccd.domain.Address;
+import uk.gov.hmcts.reform.sscs.ccd.domain.Appeal;
+import uk.gov.hmcts.reform.sscs.ccd.domain.Appellant;
+import uk.gov.hmcts.reform.sscs.ccd.domain.BenefitType;
+import uk.gov.hmcts.reform.sscs.ccd.domain.MrnDetails;
+import uk.gov.hmcts.reform.sscs.ccd.domain.RegionalProcessingCenter;
+import uk.gov.hmcts.reform.sscs.ccd.domain.SscsCaseData;
+import uk.gov.hmcts.reform.sscs.model.dwp.OfficeMapping;
+
+@RunWith(JUnitParamsRunner.class)
+public class ReferenceDataLookupTest {
+
+    @Rule
+    public MockitoRule rule = MockitoJUnit.rule().strictness(Strictness.STRICT_STUBS);
+
+    @Mock
+    private DwpAddressLookupService dwpAddressLookupService;
+
+    @Mock
+    private RegionalProcessingCenterService regionalProcessingCenterService;
+
+    private ReferenceDataLookup lookup;
+
+    @Before
+    public void setUp() {
+        lookup = new ReferenceDataLookup(dwpAddressLookupService, regionalProcessingCenterService);
+    }
+
+    @Test
+    public void officeMappingIsOnlyResolvedOncePerBenefitAndOffice() {
+        OfficeMapping mapping = OfficeMapping.builder().code("1").build();
+        given(dwpAddressLookupService.getDwpMappingByOffice("PIP", "1")).willReturn(Optional.of(mapping));
+        given(dwpAddressLookupService.getDwpMappingByOffice("ESA", "1")).willReturn(Optional.empty());
+
+        assertSame(mapping, lookup.getDwpMappingByOffice("PIP", "1").get());
+        assertSame(mapping, lookup.getDwpMappingByOffice("PIP", "1").get());
+        assertEquals(Optional.empty(), lookup.getDwpMappingByOffice("ESA", "1"));
+        assertEquals(Optional.empty(), lookup.getDwpMappingByOffice("ESA", "1"));
+
+        verify(dwpAddressLookupService, times(1)).getDwpMappingByOffice("PIP", "1");
+        verify(dwpAddressLookupService, times(1)).getDwpMappingByOffice("ESA", "1");
+    }
+
+    @Test
+    public void dwpAddressIsSharedByCasesWithTheSameBenefitAndIssuingOffice() {
+        Address address = Address.builder().line1("DWP").build();
+        SscsCaseData first = caseData("PIP", "3");
+        SscsCaseData second = caseData("PIP", "3");
+        given(dwpAddressLookupService.lookupDwpAddress(first)).willReturn(address);
+
+        assertSame(address, lookup.lookupDwpAddress(first));
+        assertSame(address, lookup.lookupDwpAddress(second));
+
+        verify(dwpAddressLookupService, times(1)).lookupDwpAddress(first);
+    }
+
+    @Test
+    public void dwpAddressForIncompleteCaseIsNotIndexed() {
+        SscsCaseData caseData = SscsCaseData.builder().appeal(Appeal.builder().build()).build();
+
+        lookup.lookupDwpAddress(caseData);
+        lookup.lookupDwpAddress(caseData);
+
+        verify(dwpAddressLookupService, times(2)).lookupDwpAddress(caseData);
+        assertEquals(0, lookup.size());
+    }
+
+    @Test
+    public void regionalProcessingCenterIsSharedByPostcodesWithTheSameOutwardCode() {
+        RegionalProcessingCenter rpc = RegionalProcessingCenter.builder().name("LIVERPOOL").build();
+        given(regionalProcessingCenterService.getByPostcode("CH5 1AA")).willReturn(rpc);
+
+        assertSame(rpc, lookup.getByPostcode("CH5 1AA"));
+        assertSame(rpc, lookup.getByPostcode("CH5 2BB"));
+        assertSame(rpc, lookup.getByPostcode("CH52BB"));
+        assertSame(rpc, lookup.getByPostcode(" ch5  2bb "));
+
+        verify(regionalProcessingCenterService, times(1)).getByPostcode("CH5 1AA");
+        assertEquals(1, lookup.size());
+    }
+
+    @Test
+    public void regionalProcessingCenterIsLookedUpWithThePostcodeInItsUsualForm() {
+        RegionalProcessingCenter rpc = RegionalProcessingCenter.builder().name("LIVERPOOL").build();
+        given(regionalProcessingCenterService.getByPostcode("CH5 1AA")).willReturn(rpc);
+
+        assertSame(rpc, lookup.getByPostcode("ch51aa"));
+    }
+
+    @Test
+    @Parameters({"1AA", "AA", "CH5", "CH5 1A", "SW1A 1AAA", "not a postcode"})
+    public void postcodeThatIsNotShapedLikeAPostcodeIsNotIndexed(String postcode) {
+        lookup.getByPostcode(postcode);
+        lookup.getByPostcode(postcode);
+
+        verify(regionalProcessingCenterService, times(2)).getByPostcode(postcode);
+        assertEquals(0, lookup.size());
+    }
+
+    @Test
+    public void unknownPostcodeIsIndexedAsMissing() {
+        assertNull(lookup.getByPostcode("ZZ9 9ZZ"));
+        assertNull(lookup.getByPostcode("ZZ9 9ZZ"));
+
+        verify(regionalProcessingCenterService, times(1)).getByPostcode("ZZ9 9ZZ");
+    }
+
+    @Test
+    @Parameters({"SW1A 1AA", "SW1A1AA", "sw1a 1aa", " SW1A  1AA ", "SW 1A1 AA"})
+    public void postcodeIsNormalisedWhateverItsCaseOrSpacing(String postcode) {
+        assertEquals(Optional.of("SW1A 1AA"), ReferenceDataLookup.normalise(postcode));
+        assertEquals("SW1A", ReferenceDataLookup.outwardCode("SW1A 1AA"));
+    }
+
+    @Test
+    public void outwardCodeDropsTheInwardCode() {
+        assertEquals("M1", ReferenceDataLookup.outwardCode(ReferenceDataLookup.normalise("M1 1AA").get()));
+        assertEquals("CR2", ReferenceDataLookup.outwardCode(ReferenceDataLookup.normalise("CR2 6XH").get()));
+        assertEquals("DN55", ReferenceDataLookup.outwardCode(ReferenceDataLookup.normalise("DN55 1PT").get()));
+        assertEquals(Optional.empty(), ReferenceDataLookup.normalise(null));
+    }
+
+    @Test
+    public void dwpAddressFromTheReferenceDataOnlyDependsOnTheBenefitAndIssuingOffice() {
+        DwpAddressLookupService referenceData = new DwpAddressLookupService();
+        SscsCaseData first = caseData("PIP", "3");
+        SscsCaseData second = caseData("PIP", "3");
+        second.getAppeal().setReceivedVia("Online");
+        second.getAppeal().setAppellant(Appellant.builder()
+            .address(Address.builder().postcode("G1 1AA").build())
+            .build());
+        second.setRegionalProcessingCenter(RegionalProcessingCenter.builder().name("GLASGOW").build());
+        second.setCreatedInGapsFrom("readyToList");
+
+        assertEquals(referenceData.lookupDwpAddress(first), referenceData.lookupDwpAddress(second));
+    }
+
+    private static SscsCaseData caseData(String benefitCode, String issuingOffice) {
+        return SscsCaseData.builder()
+            .appeal(Appeal.builder()
+                .benefitType(BenefitType.builder().code(benefitCode).build())
+                .mrnDetails(MrnDetails.builder().dwpIssuingOffice(issuingOffice).build())
+                .build())
+            .build();
+    }
+}
@@ -9,6 +9,7 @@ import static org.mockito.MockitoAnnotations.openMocks;
 import static uk.gov.hmcts.reform.sscs.ccd.domain.State.*;
 import static uk.gov.hmcts.reform.sscs.ccd.util.CaseDataUtils.buildCaseData;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.net.URI;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
@@ -64,6 +65,9 @@ public class RoboticsServiceTest {
     @Mock
     DwpAddressLookupService dwpAddressLookupService;
 
+    @Mock
+    RegionalProcessingCenterService regionalProcessingCenterService;
+
     @Mock
     CcdService ccdService;
 
@@ -94,14 +98,14 @@ public class RoboticsServiceTest {
         convertService = new SscsCcdConvertService();
 
         roboticsService = new RoboticsService(
-            evidenceManagementService,
+            new DocumentPrefetcher(evidenceManagementService, Runnable::run, new SimpleMeterRegistry(), true),
             emailService,
             emailHelper,
             roboticsJsonMapper,
             roboticsJsonValidator,
             roboticsEmailTemplate,
             evidenceShareConfig,
-            dwpAddressLookupService,
+            new ReferenceDataLookup(dwpAddressLookupService, regionalProcessingCenterService),
             ccdService,
             idamService,
             1,
@@ -358,6 +362,46 @@ public class RoboticsServiceTest {
         verify(ccdService, never()).updateCase(any(), any(), anyString(), anyString(), anyString(), any());
     }
 
+    @Test
+    public void givenCaseIsDigitalAndHasAdditionalEvidence_doNotDownloadTheEvidence() {
+        sscsCaseData.getAppeal().setReceivedVia("Online");
+        sscsCaseData.setSscsDocument(Collections.singletonList(SscsDocument.builder()
+            .value(SscsDocumentDetails.builder()
+                .documentType("appellantEvidence")
+                .documentFileName("test.jpg")
+                .documentLink(DocumentLink.builder().documentUrl("www.download.com").documentFilename("fileName.pdf").build())
+                .build())
+            .build()));
+        sscsCaseData.setCreatedInGapsFrom(READY_TO_LIST.getId());
+
+        roboticsService.sendCaseToRobotics(new CaseDetails<>(1L, null, APPEAL_CREATED, sscsCaseData, null));
+
+        verify(roboticsEmailTemplate).generateEmail(eq("Bloggs_123 for Robot [1]"), captor.capture(), eq(false), eq(false));
+        assertThat(captor.getValue().size(), is(1));
+        verify(evidenceManagementService, never()).download(any(), any());
+        assertThat(roboticsService.documentsToDownload(sscsCaseData).isEmpty(), is(true));
+    }
+
+    @Test
+    public void givenNonDigitalCaseWithEvidenceAndSscs1_thenListTheDocumentsThatWillBeDownloaded() {
+        sscsCaseData.getAppeal().setReceivedVia("Online");
+        sscsCaseData.setSscsDocument(Arrays.asList(
+            SscsDocument.builder().value(SscsDocumentDetails.builder()
+                .documentType("appellantEvidence")
+                .documentLink(DocumentLink.builder().documentUrl("www.evidence.com").documentFilename("evidence.pdf").build())
+                .build()).build(),
+            SscsDocument.builder().value(SscsDocumentDetails.builder()
+                .documentType("appellantEvidence")
+                .documentLink(DocumentLink.builder().documentUrl("www.unnamed.com").build())
+                .build()).build(),
+            SscsDocument.builder().value(SscsDocumentDetails.builder()
+                .documentType("sscs1")
+                .documentLink(DocumentLink.builder().documentUrl("www.sscs1.com").documentFilename("sscs1.pdf").build())
+                .build()).build()));
+
+        assertThat(roboticsService.documentsToDownload(sscsCaseData), is(Arrays.asList("www.evidence.com", "www.sscs1.com")));
+    }
+
     @Test
     @Parameters({"ESA, Balham DRT, Watford DRT", "PIP, DWP PIP (1), DWP PIP (2)", "PIP, PIP (AE), DWP PIP (AE)"})
     public void givenACaseAndDwpIssuingOfficeIsClosed_thenFindNewIssuingOfficeAndUpdateCaseInCcdAndRobotics(String benefitType, String existingOffice, String newOffice) {
@@ -1,16 +1,20 @@
 package uk.gov.hmcts.reform.sscs.service;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.when;
 import static uk.gov.hmcts.reform.sscs.ccd.callback.DocumentType.*;
 
 import java.net.URI;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.function.Consumer;
@@ -90,6 +94,36 @@ public class SscsDocumentServiceTest {
         assertEquals(expectedPdfDocument, actualPdfs.get(0));
     }
 
+    @Test
+    public void givenDocumentAlreadyResized_thenUseTheResizedDocumentWithoutResizingItAgain() {
+        given(evidenceManagementService.download(eq(URI.create("http://resizedUrl")), eq("sscs")))
+            .willReturn(new byte[]{'r'});
+        List<SscsDocument> testDocs = createTestData(false);
+        testDocs.get(0).getValue().setResizedDocumentLink(DocumentLink.builder().documentUrl("http://resizedUrl").build());
+
+        List<PdfDocument> actualPdfs = sscsDocumentService.getPdfsForGivenDocTypeNotIssued(testDocs, APPELLANT_EVIDENCE, false);
+        List<PdfDocument> normalisedPdfs = sscsDocumentService.sizeNormalisePdfs(actualPdfs);
+
+        assertEquals(PdfDocument.builder().pdf(new Pdf(new byte[]{'r'}, "appellantEvidenceDoc")).document(testDocs.get(0)).resized(true).build(),
+            normalisedPdfs.get(0));
+        assertEquals("http://resizedUrl", normalisedPdfs.get(0).getDocument().getValue().getResizedDocumentLink().getDocumentUrl());
+        then(pdfHelper).shouldHaveNoInteractions();
+        then(evidenceManagementService).should(never()).upload(any(), any());
+    }
+
+    @Test
+    public void givenEditedDocumentAndResizedDocument_thenDownloadTheEditedDocument() {
+        given(evidenceManagementService.download(eq(URI.create("http://editedDocumentUrl")), eq("sscs")))
+            .willReturn(new byte[]{'e'});
+        List<SscsDocument> testDocs = createTestData(true);
+        testDocs.get(0).getValue().setResizedDocumentLink(DocumentLink.builder().documentUrl("http://resizedUrl").build());
+
+        List<PdfDocument> actualPdfs = sscsDocumentService.getPdfsForGivenDocTypeNotIssued(testDocs, APPELLANT_EVIDENCE, true);
+
+        assertEquals(PdfDocument.builder().pdf(new Pdf(new byte[]{'e'}, "appellantEvidenceDoc")).document(testDocs.get(0)).build(),
+            actualPdfs.get(0));
+    }
+
     @Test
     public void savesAndUpdatesDocumentCorrectly() {
 
@@ -113,6 +147,114 @@ public class SscsDocumentServiceTest {
         assertEquals(null, result.getValue().getResizedDocumentLink());
     }
 
+    @Test
+    public void sizeNormalisePdfsUploadsAllResizedDocumentsTogether() throws Exception {
+        byte[] pdfContent = IOUtils.toByteArray(getClass().getClassLoader().getResourceAsStream("myPdf.pdf"));
+        given(pdfHelper.scaleToA4(any())).willAnswer(invocation -> Optional.of(PDDocument.load(pdfContent)));
+        UploadResponse uploadResponse = createUploadResponse(
+            storedDocument("appellantEvidenceDoc.pdf", "first.com"), storedDocument("repsEvidenceDoc.pdf", "second.com"));
+        given(evidenceManagementService.upload(any(), eq("sscs"))).willReturn(uploadResponse);
+        List<SscsDocument> testDocs = createTestData(false);
+
+        List<PdfDocument> result = sscsDocumentService.sizeNormalisePdfs(Arrays.asList(
+            PdfDocument.builder().pdf(new Pdf(pdfContent, "first.pdf")).document(testDocs.get(0)).build(),
+            PdfDocument.builder().pdf(new Pdf(pdfContent, "second.pdf")).document(testDocs.get(2)).build()));
+
+        then(evidenceManagementService).should(times(1)).upload(argThat(files -> files.size() == 2), eq("sscs"));
+        assertEquals("first.com", result.get(0).getDocument().getValue().getResizedDocumentLink().getDocumentUrl());
+        assertEquals("second.com", result.get(1).getDocument().getValue().getResizedDocumentLink().getDocumentUrl());
+    }
+
+    @Test
+    public void sizeNormalisePdfsMatchesStoredDocumentsByNameWhateverOrderTheyComeBackIn() throws Exception {
+        byte[] pdfContent = IOUtils.toByteArray(getClass().getClassLoader().getResourceAsStream("myPdf.pdf"));
+        given(pdfHelper.scaleToA4(any())).willAnswer(invocation -> Optional.of(PDDocument.load(pdfContent)));
+        UploadResponse uploadResponse = createUploadResponse(
+            storedDocument("repsEvidenceDoc.pdf", "second.com"), storedDocument("appellantEvidenceDoc.pdf", "first.com"));
+        given(evidenceManagementService.upload(any(), eq("sscs"))).willReturn(uploadResponse);
+        List<SscsDocument> testDocs = createTestData(false);
+
+        List<PdfDocument> result = sscsDocumentService.sizeNormalisePdfs(Arrays.asList(
+            PdfDocument.builder().pdf(new Pdf(pdfContent, "first.pdf")).document(testDocs.get(0)).build(),
+            PdfDocument.builder().pdf(new Pdf(pdfContent, "second.pdf")).document(testDocs.get(2)).build()));
+
+        then(evidenceManagementService).should(times(1)).upload(any(), eq("sscs"));
+        assertEquals("first.com", result.get(0).getDocument().getValue().getResizedDocumentLink().getDocumentUrl());
+        assertEquals("second.com", result.get(1).getDocument().getValue().getResizedDocumentLink().getDocumentUrl());
+    }
+
+    @Test
+    public void sizeNormalisePdfsLeavesDocumentsUnlinkedWithoutUploadingAgainWhenTheStoredNamesAreMissing() throws Exception {
+        byte[] pdfContent = IOUtils.toByteArray(getClass().getClassLoader().getResourceAsStream("myPdf.pdf"));
+        given(pdfHelper.scaleToA4(any())).willAnswer(invocation -> Optional.of(PDDocument.load(pdfContent)));
+        UploadResponse unnamed = createUploadResponse("unknown1.com", "unknown2.com");
+        given(evidenceManagementService.upload(any(), eq("sscs"))).willReturn(unnamed);
+        List<SscsDocument> testDocs = createTestData(false);
+
+        List<PdfDocument> result = sscsDocumentService.sizeNormalisePdfs(Arrays.asList(
+            PdfDocument.builder().pdf(new Pdf(pdfContent, "first.pdf")).document(testDocs.get(0)).build(),
+            PdfDocument.builder().pdf(new Pdf(pdfContent, "second.pdf")).document(testDocs.get(2)).build()));
+
+        then(evidenceManagementService).should(times(1)).upload(any(), eq("sscs"));
+        assertNull(result.get(0).getDocument().getValue().getResizedDocumentLink());
+        assertNull(result.get(1).getDocument().getValue().getResizedDocumentLink());
+    }
+
+    @Test
+    public void sizeNormalisePdfsLeavesDocumentsUnlinkedWithoutUploadingAgainWhenTooFewAreStored() throws Exception {
+        byte[] pdfContent = IOUtils.toByteArray(getClass().getClassLoader().getResourceAsStream("myPdf.pdf"));
+        given(pdfHelper.scaleToA4(any())).willAnswer(invocation -> Optional.of(PDDocument.load(pdfContent)));
+        UploadResponse uploadResponse = createUploadResponse(storedDocument("appellantEvidenceDoc.pdf", "first.com"));
+        given(evidenceManagementService.upload(any(), eq("sscs"))).willReturn(uploadResponse);
+        List<SscsDocument> testDocs = createTestData(false);
+
+        List<PdfDocument> result = sscsDocumentService.sizeNormalisePdfs(Arrays.asList(
+            PdfDocument.builder().pdf(new Pdf(pdfContent, "first.pdf")).document(testDocs.get(0)).build(),
+            PdfDocument.builder().pdf(new Pdf(pdfContent, "second.pdf")).document(testDocs.get(2)).build()));
+
+        then(evidenceManagementService).should(times(1)).upload(any(), eq("sscs"));
+        assertNull(result.get(0).getDocument().getValue().getResizedDocumentLink());
+        assertNull(result.get(1).getDocument().getValue().getResizedDocumentLink());
+    }
+
+    @Test
+    public void sizeNormalisePdfsUploadsDocumentsWithTheSameNameOneAtATime() throws Exception {
+        byte[] pdfContent = IOUtils.toByteArray(getClass().getClassLoader().getResourceAsStream("myPdf.pdf"));
+        given(pdfHelper.scaleToA4(any())).willAnswer(invocation -> Optional.of(PDDocument.load(pdfContent)));
+        UploadResponse first = createUploadResponse("first.com");
+        UploadResponse second = createUploadResponse("second.com");
+        given(evidenceManagementService.upload(any(), eq("sscs"))).willReturn(first, second);
+        List<SscsDocument> testDocs = createTestData(false);
+
+        List<PdfDocument> result = sscsDocumentService.sizeNormalisePdfs(Arrays.asList(
+            PdfDocument.builder().pdf(new Pdf(pdfContent, "first.pdf")).document(testDocs.get(0)).build(),
+            PdfDocument.builder().pdf(new Pdf(pdfContent, "second.pdf")).document(testDocs.get(1)).build()));
+
+        then(evidenceManagementService).should(times(2)).upload(argThat(files -> files.size() == 1), eq("sscs"));
+        assertEquals("first.com", result.get(0).getDocument().getValue().getResizedDocumentLink().getDocumentUrl());
+        assertEquals("second.com", result.get(1).getDocument().getValue().getResizedDocumentLink().getDocumentUrl());
+    }
+
+    @Test
+    public void sizeNormalisePdfsUploadsDocumentsOneAtATimeWhenTheBatchFails() throws Exception {
+        byte[] pdfContent = IOUtils.toByteArray(getClass().getClassLoader().getResourceAsStream("myPdf.pdf"));
+        given(pdfHelper.scaleToA4(any())).willAnswer(invocation -> Optional.of(PDDocument.load(pdfContent)));
+        UploadResponse uploadResponse = createUploadResponse("second.com");
+        given(evidenceManagementService.upload(any(), eq("sscs")))
+            .willThrow(new UnsupportedDocumentTypeException(new Exception()))
+            .willThrow(new UnsupportedDocumentTypeException(new Exception()))
+            .willReturn(uploadResponse);
+        List<SscsDocument> testDocs = createTestData(false);
+
+        List<PdfDocument> result = sscsDocumentService.sizeNormalisePdfs(Arrays.asList(
+            PdfDocument.builder().pdf(new Pdf(pdfContent, "first.pdf")).document(testDocs.get(0)).build(),
+            PdfDocument.builder().pdf(new Pdf(pdfContent, "second.pdf")).document(testDocs.get(2)).build()));
+
+        then(evidenceManagementService).should(times(3)).upload(any(), eq("sscs"));
+        assertNull(result.get(0).getDocument().getValue().getResizedDocumentLink());
+        assertEquals("second.com", result.get(1).getDocument().getValue().getResizedDocumentLink().getDocumentUrl());
+    }
+
     @Test
     public void resizedPdfHandlesWithinSize() throws Exception {
         when(pdfHelper.scaleToA4(any())).thenReturn(Optional.empty());
@@ -186,19 +328,28 @@ public class SscsDocumentServiceTest {
         return Arrays.asList(sscsDocumentAppellantType, sscsDocumentAppellantTypeIssued, sscsDocumentRepsType, sscsDocumentOtherType);
     }
 
-    private UploadResponse createUploadResponse(String linkHref) {
+    private UploadResponse createUploadResponse(String... linkHrefs) {
+        return createUploadResponse(Arrays.stream(linkHrefs)
+            .map(linkHref -> storedDocument(null, linkHref))
+            .toArray(Document[]::new));
+    }
+
+    private UploadResponse createUploadResponse(Document... documents) {
+        UploadResponse response = mock(UploadResponse.class);
+        UploadResponse.Embedded embedded = mock(UploadResponse.Embedded.class);
+        when(response.getEmbedded()).thenReturn(embedded);
+        when(embedded.getDocuments()).thenReturn(Arrays.asList(documents));
+        return response;
+    }
 
+    private static Document storedDocument(String originalDocumentName, String linkHref) {
         Document document = new Document();
         Document.Links links = new Document.Links();
         Document.Link link = new Document.Link();
         link.href = linkHref;
         links.self = link;
         document.links = links;
-
-        UploadResponse response = mock(UploadResponse.class);
-        UploadResponse.Embedded embedded = mock(UploadResponse.Embedded.class);
-        when(response.getEmbedded()).thenReturn(embedded);
-        when(embedded.getDocuments()).thenReturn(Collections.singletonList(document));
-        return response;
+        document.originalDocumentName = originalDocumentName;
+        return document;
     }
 }
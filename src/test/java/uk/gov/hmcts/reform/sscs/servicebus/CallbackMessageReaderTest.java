@@ -0,0 +1,66 @@
+package uk.gov.hmcts.reform.sscs.servicebus;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import org.junit.Test;
+import uk.gov.hmcts.reform.sscs.ccd.domain.EventType;
+
+public class CallbackMessageReaderTest {
+
+    private final CallbackMessageReader reader = new CallbackMessageReader();
+
+    @Test
+    public void readsEventCaseIdAndStateWithoutCaseData() throws IOException {
+        String message = "{\"case_details\":{\"id\":1563382899630221,\"case_data\":{\"appeal\":{\"benefitType\":{\"code\":\"PIP\"}},"
+            + "\"sscsDocument\":[{\"id\":\"1\"}]},\"state\":\"withDwp\"},\"event_id\":\"dwpUploadResponse\"}";
+
+        CallbackMessageSummary summary = reader.read(message);
+
+        assertEquals("dwpUploadResponse", summary.getEventId());
+        assertEquals(EventType.DWP_UPLOAD_RESPONSE, summary.getEvent());
+        assertEquals("1563382899630221", summary.getCaseId());
+        assertEquals("withDwp", summary.getState());
+        assertFalse(summary.hasCaseDetailsBefore());
+    }
+
+    @Test
+    public void readsUrgentCaseFlagFromCaseData() throws IOException {
+        String message = "{\"case_details\":{\"id\":1,\"case_data\":{\"appeal\":{\"urgentCase\":\"No\"},"
+            + "\"urgentCase\":\"Yes\"}},\"event_id\":\"dwpUploadResponse\"}";
+
+        CallbackMessageSummary summary = reader.read(message);
+
+        assertEquals("Yes", summary.getUrgentCase());
+        assertTrue(summary.isUrgent());
+        assertFalse(reader.read("{\"case_details\":{\"id\":1,\"case_data\":{}}}").isUrgent());
+    }
+
+    @Test
+    public void givenUnknownEvent_shouldLeaveEventUnset() throws IOException {
+        CallbackMessageSummary summary = reader.read("{\"event_id\":\"somethingNew\",\"case_details\":{\"id\":\"1\"}}");
+
+        assertEquals("somethingNew", summary.getEventId());
+        assertNull(summary.getEvent());
+        assertEquals("1", summary.getCaseId());
+    }
+
+    @Test
+    public void removesOnlyCaseDetailsBefore() throws IOException {
+        String message = "{\"event_id\":\"validAppealCreated\",\"case_details_before\":{\"id\":1,\"case_data\":{\"a\":[{},{}]}},"
+            + "\"case_details\":{\"id\":1,\"case_data\":{\"a\":[]}}}";
+
+        String stripped = reader.read(message).withoutCaseDetailsBefore(message);
+
+        assertEquals("{\"event_id\":\"validAppealCreated\",\"case_details_before\":null,"
+            + "\"case_details\":{\"id\":1,\"case_data\":{\"a\":[]}}}", stripped);
+    }
+
+    @Test(expected = IOException.class)
+    public void givenMessageIsNotJson_shouldThrow() throws IOException {
+        reader.read("message");
+    }
+}
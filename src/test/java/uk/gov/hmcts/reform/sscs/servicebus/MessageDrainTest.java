@@ -0,0 +1,72 @@
+package uk.gov.hmcts.reform.sscs.servicebus;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.jms.config.JmsListenerEndpointRegistry;
+
+@RunWith(MockitoJUnitRunner.class)
+public class MessageDrainTest {
+
+    @Mock
+    private JmsListenerEndpointRegistry jmsListenerEndpointRegistry;
+
+    @Mock
+    private TopicConsumer topicConsumer;
+
+    @Mock
+    private PriorityLanes priorityLanes;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Before
+    public void setUp() {
+        when(priorityLanes.getQueued()).thenReturn(0);
+    }
+
+    @Test
+    public void stopsConsumingThenWaitsForInFlightWork() {
+        when(topicConsumer.getInFlight()).thenReturn(2, 1, 0);
+        MessageDrain drain = newDrain(Duration.ofSeconds(10));
+        drain.start();
+        assertTrue(drain.isRunning());
+
+        drain.stop();
+
+        InOrder inOrder = inOrder(jmsListenerEndpointRegistry, topicConsumer);
+        inOrder.verify(jmsListenerEndpointRegistry).stop();
+        inOrder.verify(topicConsumer, atLeast(3)).getInFlight();
+        assertFalse(drain.isRunning());
+        assertEquals(0, drain.remaining());
+    }
+
+    @Test
+    public void givesUpAtTheDeadline() {
+        when(topicConsumer.getInFlight()).thenReturn(1);
+        MessageDrain drain = newDrain(Duration.ofMillis(300));
+        drain.start();
+
+        long start = System.nanoTime();
+        drain.stop();
+
+        assertTrue(System.nanoTime() - start < Duration.ofSeconds(5).toNanos());
+        assertFalse(drain.isRunning());
+        assertEquals(1.0, meterRegistry.get(MessageDrain.REMAINING_GAUGE).gauge().value(), 0);
+    }
+
+    private MessageDrain newDrain(Duration timeout) {
+        return new MessageDrain(jmsListenerEndpointRegistry, topicConsumer, priorityLanes, meterRegistry, timeout);
+    }
+}
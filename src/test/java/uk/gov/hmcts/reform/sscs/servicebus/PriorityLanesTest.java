@@ -0,0 +1,150 @@
+package uk.gov.hmcts.reform.sscs.servicebus;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PriorityLanesTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final List<CompletableFuture<Void>> heavyWork = new ArrayList<>();
+    private PriorityLanes priorityLanes;
+
+    @Before
+    public void setUp() {
+        Map<MessageLane, ThreadPoolExecutor> executors = new EnumMap<>(MessageLane.class);
+        executors.put(MessageLane.HEAVY, PriorityLanes.newLaneExecutor(MessageLane.HEAVY, 1, 1));
+        executors.put(MessageLane.URGENT, PriorityLanes.newLaneExecutor(MessageLane.URGENT, 1, 1));
+        priorityLanes = new PriorityLanes(executors, meterRegistry);
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        release.countDown();
+        priorityLanes.shutdown();
+    }
+
+    @Test
+    public void givenHeavyLaneIsSaturated_urgentMessageFromTheSameListenerStillCompletes() throws Exception {
+        fillHeavyLane();
+
+        CountDownLatch urgentDone = new CountDownLatch(1);
+        CompletableFuture<Void> urgent = priorityLanes.submit(MessageLane.URGENT, urgentDone::countDown);
+
+        assertTrue(urgentDone.await(5, TimeUnit.SECONDS));
+        urgent.get(5, TimeUnit.SECONDS);
+        assertTrue(heavyWork.stream().noneMatch(CompletableFuture::isDone));
+        assertEquals(1.0, meterRegistry.get(PriorityLanes.QUEUED_GAUGE).tag("lane", "heavy").gauge().value(), 0);
+    }
+
+    @Test
+    public void freeCapacityCountsIdleThreadsAndQueueSpace() {
+        assertEquals(4, priorityLanes.freeCapacity());
+        assertEquals(2, priorityLanes.getThreads());
+
+        fillHeavyLane();
+
+        assertEquals(2, priorityLanes.freeCapacity());
+    }
+
+    @Test
+    public void givenLaneIsFull_shouldWaitForRoomBeforeHandingOverMore() throws Exception {
+        fillHeavyLane();
+
+        CountDownLatch handedOver = new CountDownLatch(1);
+        Thread listener = new Thread(() -> {
+            priorityLanes.submit(MessageLane.HEAVY, () -> { });
+            handedOver.countDown();
+        });
+        listener.start();
+
+        assertFalse(handedOver.await(200, TimeUnit.MILLISECONDS));
+        release.countDown();
+        assertTrue(handedOver.await(5, TimeUnit.SECONDS));
+        listener.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    @Test
+    public void shouldRunTheWorkOnItsLaneAndCompleteOnceItHasRun() throws Exception {
+        AtomicReference<Thread> ranOn = new AtomicReference<>();
+
+        priorityLanes.submit(MessageLane.URGENT, () -> ranOn.set(Thread.currentThread())).get(5, TimeUnit.SECONDS);
+
+        assertNotEquals(Thread.currentThread(), ranOn.get());
+    }
+
+    @Test
+    public void givenWorkThrows_shouldCompleteExceptionally() throws Exception {
+        IllegalStateException failure = new IllegalStateException("ccd down");
+
+        try {
+            priorityLanes.submit(MessageLane.URGENT, () -> {
+                throw failure;
+            }).get(5, TimeUnit.SECONDS);
+            fail("Expected the work's exception");
+        } catch (ExecutionException e) {
+            assertSame(failure, e.getCause());
+        }
+    }
+
+    @Test
+    public void givenLaneWithoutExecutor_shouldRunOnTheCallingThread() {
+        AtomicReference<Thread> ranOn = new AtomicReference<>();
+        CompletableFuture<Void> done = priorityLanes.submit(MessageLane.LIGHT, () -> ranOn.set(Thread.currentThread()));
+
+        assertTrue(done.isDone());
+        assertEquals(Thread.currentThread(), ranOn.get());
+    }
+
+    @Test
+    public void givenNoExecutors_shouldBeDisabled() {
+        assertTrue(priorityLanes.isEnabled());
+        assertFalse(new PriorityLanes(Map.of(), meterRegistry).isEnabled());
+    }
+
+    @Test
+    public void givenLaneIsShutDown_shouldStillRunTheWork() throws InterruptedException {
+        release.countDown();
+        priorityLanes.shutdown();
+
+        AtomicReference<Thread> ranOn = new AtomicReference<>();
+        CompletableFuture<Void> done = priorityLanes.submit(MessageLane.URGENT, () -> ranOn.set(Thread.currentThread()));
+
+        assertTrue(done.isDone());
+        assertEquals(Thread.currentThread(), ranOn.get());
+    }
+
+    // one message running on the heavy lane's thread and one waiting in its queue, both handed over by this thread
+    private void fillHeavyLane() {
+        for (int i = 0; i < 2; i++) {
+            heavyWork.add(priorityLanes.submit(MessageLane.HEAVY, this::awaitRelease));
+        }
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,9 +1,27 @@
 package uk.gov.hmcts.reform.sscs.servicebus;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
+import brave.Tracing;
+import brave.handler.MutableSpan;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import javax.jms.Message;
+import org.apache.qpid.jms.message.JmsMessageSupport;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -16,6 +34,10 @@ import uk.gov.hmcts.reform.sscs.ccd.domain.CaseDetails;
 import uk.gov.hmcts.reform.sscs.ccd.domain.EventType;
 import uk.gov.hmcts.reform.sscs.ccd.domain.SscsCaseData;
 import uk.gov.hmcts.reform.sscs.exception.*;
+import uk.gov.hmcts.reform.sscs.resilience.ResilientCallExecutor;
+import uk.gov.hmcts.reform.sscs.resilience.TokenBucket;
+import uk.gov.hmcts.reform.sscs.servicebus.messaging.MessageLockMonitor;
+import uk.gov.hmcts.reform.sscs.tracing.InMemorySpanHandler;
 
 @RunWith(MockitoJUnitRunner.class)
 public class TopicConsumerTest {
@@ -23,6 +45,7 @@ public class TopicConsumerTest {
     private static final String MESSAGE = "message";
     private static final Exception EXCEPTION = new RuntimeException("blah");
     private static final int RETRY_THREE_TIMES = 3;
+    private static final Duration LOCK_DURATION = Duration.ofSeconds(60);
 
     @Mock
     private CallbackDispatcher<SscsCaseData> dispatcher;
@@ -30,12 +53,29 @@ public class TopicConsumerTest {
     @Mock
     private SscsCaseCallbackDeserializer deserializer;
 
+    private SimpleMeterRegistry meterRegistry;
+    private InMemorySpanHandler spans;
     private TopicConsumer topicConsumer;
     private Exception exception;
+    private ResilientCallExecutor resilientCallExecutor;
 
     @Before
     public void setup() {
-        topicConsumer = new TopicConsumer(RETRY_THREE_TIMES, dispatcher, deserializer);
+        meterRegistry = new SimpleMeterRegistry();
+        spans = new InMemorySpanHandler();
+        resilientCallExecutor = newResilientCallExecutor(100);
+        topicConsumer = newTopicConsumer(new PriorityLanes(Map.of(), meterRegistry));
+    }
+
+    private TopicConsumer newTopicConsumer(PriorityLanes priorityLanes) {
+        return new TopicConsumer(RETRY_THREE_TIMES, dispatcher, deserializer, new CallbackMessageReader(), meterRegistry,
+            Tracing.newBuilder().addSpanHandler(spans).build().tracer(), priorityLanes,
+            new MessageLockMonitor(meterRegistry, LOCK_DURATION), resilientCallExecutor);
+    }
+
+    private ResilientCallExecutor newResilientCallExecutor(int budgetPerMessage) {
+        return new ResilientCallExecutor(meterRegistry, budgetPerMessage, new TokenBucket(1000, Clock.systemUTC()),
+            Duration.ZERO, Duration.ZERO);
     }
 
     @Test
@@ -123,4 +163,225 @@ public class TopicConsumerTest {
         verify(dispatcher).handle(any(), any());
     }
 
+    @Test
+    public void recordsPayloadSizeAndReturnsInFlightToZero() {
+        topicConsumer.onMessage(MESSAGE, "1");
+
+        assertEquals(1, meterRegistry.get(TopicConsumer.PAYLOAD_SUMMARY).summary().count());
+        assertEquals(MESSAGE.length(), meterRegistry.get(TopicConsumer.PAYLOAD_SUMMARY).summary().totalAmount(), 0);
+        assertEquals(0, meterRegistry.get(TopicConsumer.IN_FLIGHT_GAUGE).gauge().value(), 0);
+    }
+
+    @Test
+    public void tagsMessageSpanWithMessageIdAndCaseId() {
+        CaseDetails<SscsCaseData> caseDetails = new CaseDetails<>(123L, "jurisdiction", null, SscsCaseData.builder().build(), null);
+        when(deserializer.deserialize(any())).thenReturn(new Callback<>(caseDetails, Optional.empty(), EventType.EVIDENCE_RECEIVED, false));
+
+        topicConsumer.onMessage(MESSAGE, "1");
+
+        assertEquals(1, spans.getSpans().size());
+        MutableSpan span = spans.getSpans().get(0);
+        assertEquals("process-message", span.name());
+        assertEquals("1", span.tag("message.id"));
+        assertEquals("123", span.tag("case.id"));
+    }
+
+    @Test
+    public void givenNoHandlerForEvent_shouldNotDeserialiseTheCallback() {
+        when(dispatcher.canHandleEvent(EventType.EVIDENCE_RECEIVED)).thenReturn(false);
+
+        topicConsumer.onMessage(callbackJson(EventType.EVIDENCE_RECEIVED), "1");
+
+        verify(deserializer, never()).deserialize(any());
+        verify(dispatcher, never()).handle(any(), any());
+    }
+
+    @Test
+    public void givenNoHandlerUsesCaseDetailsBefore_shouldDeserialiseWithoutThem() {
+        when(dispatcher.canHandleEvent(EventType.VALID_APPEAL_CREATED)).thenReturn(true);
+        when(dispatcher.usesCaseDetailsBefore(EventType.VALID_APPEAL_CREATED)).thenReturn(false);
+
+        topicConsumer.onMessage(callbackJson(EventType.VALID_APPEAL_CREATED), "1");
+
+        verify(deserializer, atLeastOnce()).deserialize(
+            "{\"case_details\":{\"id\":123,\"state\":\"validAppeal\",\"case_data\":{}},"
+                + "\"case_details_before\":null,\"event_id\":\"validAppealCreated\"}");
+    }
+
+    @Test
+    public void givenDownstreamUnavailable_shouldThrowWithoutRetryingSoTheMessageIsRedelivered() {
+        givenCallback();
+        DownstreamUnavailableException unavailable = new DownstreamUnavailableException("dm-store", "its circuit is open", null);
+        doThrow(unavailable).when(dispatcher).handle(any(), any());
+
+        try {
+            topicConsumer.onMessage(MESSAGE, "1", null, mock(Message.class));
+            fail("Expected the message to be left for redelivery");
+        } catch (DownstreamUnavailableException e) {
+            assertSame(unavailable, e);
+        }
+
+        verify(dispatcher, times(1)).handle(any(), any());
+        assertEquals(1, meterRegistry.get("evidence_share.messages.lock_held").timer().count());
+    }
+
+    @Test
+    public void givenDownstreamBusy_shouldRetryTheMessageRatherThanHandItBack() {
+        givenCallback();
+        doThrow(new DownstreamBusyException("ccd", "too many calls are already in flight", null))
+            .doNothing()
+            .when(dispatcher).handle(any(), any());
+
+        topicConsumer.onMessage(MESSAGE, "1");
+
+        verify(dispatcher, times(2)).handle(any(), any());
+    }
+
+    @Test
+    public void givenDownstreamStaysBusy_shouldHandTheMessageBackOnceItsRetriesAreUsed() {
+        givenCallback();
+        DownstreamBusyException busy = new DownstreamBusyException("ccd", "too many calls are already in flight", null);
+        doThrow(new UnableToContactThirdPartyException("ccd", busy)).when(dispatcher).handle(any(), any());
+
+        try {
+            topicConsumer.onMessage(MESSAGE, "1");
+            fail("Expected the message to be left for redelivery");
+        } catch (DownstreamBusyException e) {
+            assertSame(busy, e);
+        }
+
+        verify(dispatcher, times(RETRY_THREE_TIMES + 1)).handle(any(), any());
+    }
+
+    @Test
+    public void givenDownstreamUnavailableWrappedInUnrecoverableException_shouldStillThrowSoTheMessageIsRedelivered() {
+        givenCallback();
+        DownstreamUnavailableException unavailable = new DownstreamUnavailableException("docmosis", "its circuit is open", null);
+        doThrow(new UnableToContactThirdPartyException("docmosis", unavailable)).when(dispatcher).handle(any(), any());
+
+        try {
+            topicConsumer.onMessage(MESSAGE, "1");
+            fail("Expected the message to be left for redelivery");
+        } catch (DownstreamUnavailableException e) {
+            assertSame(unavailable, e);
+        }
+
+        verify(dispatcher, times(1)).handle(any(), any());
+    }
+
+    @Test
+    public void givenPriorityLanes_shouldRouteUrgentHeavyAndLightMessagesToTheirOwnLane() {
+        PriorityLanes priorityLanes = mock(PriorityLanes.class);
+        when(priorityLanes.isEnabled()).thenReturn(true);
+        when(priorityLanes.submit(any(), any())).thenReturn(CompletableFuture.completedFuture(null));
+        when(dispatcher.isHeavy(EventType.ISSUE_FURTHER_EVIDENCE)).thenReturn(true);
+        when(dispatcher.isHeavy(EventType.DWP_UPLOAD_RESPONSE)).thenReturn(false);
+        topicConsumer = newTopicConsumer(priorityLanes);
+
+        topicConsumer.onMessage(callbackJson(EventType.ISSUE_FURTHER_EVIDENCE), "1");
+        topicConsumer.onMessage(callbackJson(EventType.DWP_UPLOAD_RESPONSE), "2");
+        topicConsumer.onMessage(callbackJson(EventType.DWP_UPLOAD_RESPONSE).replace("\"case_data\":{}",
+            "\"case_data\":{\"urgentCase\":\"Yes\"}"), "3");
+
+        verify(priorityLanes).submit(eq(MessageLane.HEAVY), any());
+        verify(priorityLanes).submit(eq(MessageLane.LIGHT), any());
+        verify(priorityLanes).submit(eq(MessageLane.URGENT), any());
+        verify(dispatcher, never()).handle(any(), any());
+    }
+
+    @Test
+    public void givenHeavyLaneIsSaturated_urgentMessageIsProcessedAndAcknowledgedWithoutWaitingForIt() throws Exception {
+        PriorityLanes priorityLanes = newPriorityLanes();
+        topicConsumer = newTopicConsumer(priorityLanes);
+        givenCallback();
+        when(dispatcher.canHandleEvent(EventType.ISSUE_FURTHER_EVIDENCE)).thenReturn(true);
+        when(dispatcher.isHeavy(EventType.ISSUE_FURTHER_EVIDENCE)).thenReturn(true);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch urgentHandled = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            if (Thread.currentThread().getName().startsWith("lane-heavy-")) {
+                release.await(5, TimeUnit.SECONDS);
+            } else {
+                urgentHandled.countDown();
+            }
+            return null;
+        }).when(dispatcher).handle(any(), any());
+        Message heavy = mock(Message.class);
+        Message urgent = mock(Message.class);
+
+        try {
+            // one heavy message running and one queued, both taken by this listener without waiting for them
+            topicConsumer.onMessage(callbackJson(EventType.ISSUE_FURTHER_EVIDENCE), "1", null, heavy);
+            topicConsumer.onMessage(callbackJson(EventType.ISSUE_FURTHER_EVIDENCE), "2", null, heavy);
+            topicConsumer.onMessage(callbackJson(EventType.ISSUE_FURTHER_EVIDENCE).replace("\"case_data\":{}",
+                "\"case_data\":{\"urgentCase\":\"Yes\"}"), "3", null, urgent);
+
+            assertTrue(urgentHandled.await(5, TimeUnit.SECONDS));
+            verify(urgent, timeout(5000)).acknowledge();
+            verify(heavy, never()).acknowledge();
+        } finally {
+            release.countDown();
+            priorityLanes.shutdown();
+        }
+        verify(heavy, times(2)).acknowledge();
+    }
+
+    @Test
+    public void givenPriorityLanesAndMessageFails_shouldAbandonItOnItsLane() throws Exception {
+        PriorityLanes priorityLanes = newPriorityLanes();
+        topicConsumer = newTopicConsumer(priorityLanes);
+        givenCallback();
+        doThrow(new DownstreamUnavailableException("ccd", "its circuit is open", null)).when(dispatcher).handle(any(), any());
+        Message jmsMessage = mock(Message.class);
+
+        topicConsumer.onMessage(MESSAGE, "1", null, jmsMessage);
+        priorityLanes.shutdown();
+
+        verify(jmsMessage).setIntProperty(JmsMessageSupport.JMS_AMQP_ACK_TYPE, JmsMessageSupport.MODIFIED_FAILED);
+        verify(jmsMessage).acknowledge();
+        assertEquals(1, meterRegistry.get("evidence_share.messages.lock_held").timer().count());
+    }
+
+    @Test
+    public void givenRedeliveredMessage_shouldCountItAndTimeTheLock() {
+        topicConsumer.onMessage(callbackJson(EventType.EVIDENCE_RECEIVED), "1", true, mock(Message.class));
+        topicConsumer.onMessage(callbackJson(EventType.EVIDENCE_RECEIVED), "2", null, mock(Message.class));
+
+        assertEquals(1.0, meterRegistry.get("evidence_share.messages.redelivered").counter().count(), 0);
+        assertEquals(2, meterRegistry.get("evidence_share.messages.lock_held").timer().count());
+        assertEquals(0.0, meterRegistry.get("evidence_share.messages.lock_expired").counter().count(), 0);
+    }
+
+    @Test
+    public void givenRetryBudgetUsed_shouldStopRetryingTheMessage() {
+        resilientCallExecutor = newResilientCallExecutor(1);
+        topicConsumer = newTopicConsumer(new PriorityLanes(Map.of(), meterRegistry));
+        givenCallback();
+        doThrow(new NullPointerException()).when(dispatcher).handle(any(), any());
+
+        topicConsumer.onMessage(MESSAGE, "1");
+
+        verify(dispatcher, times(2)).handle(any(), any());
+        assertEquals(1.0, meterRegistry.get("evidence_share.retries").tag("outcome", "budget_exhausted").counter().count(), 0);
+    }
+
+    private PriorityLanes newPriorityLanes() {
+        Map<MessageLane, ThreadPoolExecutor> executors = new EnumMap<>(MessageLane.class);
+        for (MessageLane lane : MessageLane.values()) {
+            executors.put(lane, PriorityLanes.newLaneExecutor(lane, 1, 1));
+        }
+        return new PriorityLanes(executors, meterRegistry);
+    }
+
+    private void givenCallback() {
+        CaseDetails<SscsCaseData> caseDetails = new CaseDetails<>(123L, "jurisdiction", null, SscsCaseData.builder().build(), null);
+        when(deserializer.deserialize(any())).thenReturn(new Callback<>(caseDetails, Optional.empty(), EventType.EVIDENCE_RECEIVED, false));
+    }
+
+    private static String callbackJson(EventType eventType) {
+        return "{\"case_details\":{\"id\":123,\"state\":\"validAppeal\",\"case_data\":{}},"
+            + "\"case_details_before\":{\"id\":123,\"case_data\":{\"appeal\":{}}},"
+            + "\"event_id\":\"" + eventType.getCcdType() + "\"}";
+    }
+
 }
@@ -0,0 +1,71 @@
+package uk.gov.hmcts.reform.sscs.servicebus.messaging;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.qpid.jms.JmsTopic;
+import org.apache.qpid.jms.policy.JmsPrefetchPolicy;
+import org.junit.Test;
+import uk.gov.hmcts.reform.sscs.servicebus.MessageLane;
+import uk.gov.hmcts.reform.sscs.servicebus.PriorityLanes;
+
+public class CreditPrefetchPolicyTest {
+
+    private final JmsTopic topic = new JmsTopic("test.topic");
+
+    @Test
+    public void grantsTheCreditAvailableWhenTheConsumerOpens() {
+        AtomicInteger capacity = new AtomicInteger(12);
+        CreditPrefetchPolicy policy = new CreditPrefetchPolicy(capacity::get);
+        JmsPrefetchPolicy copy = policy.copy();
+
+        assertEquals(12, copy.getConfiguredPrefetch(null, topic, true, false));
+        capacity.set(-1);
+        assertEquals(0, copy.getConfiguredPrefetch(null, topic, true, false));
+        assertEquals(0, policy.getLastGranted());
+    }
+
+    @Test
+    public void fixedAndPullPoliciesIgnoreCapacity() {
+        assertEquals(20, CreditPrefetchPolicy.fixed(20).getConfiguredPrefetch(null, topic, true, false));
+        assertEquals(0, CreditPrefetchPolicy.pull().getConfiguredPrefetch(null, topic, true, false));
+    }
+
+    @Test
+    public void capacityGrantsEachConsumerOneMessageWhileThereIsAWorkerForEach() {
+        AtomicInteger free = new AtomicInteger(10);
+        CreditPrefetchPolicy policy = CreditPrefetchPolicy.capacity(free::get, 4, 2);
+
+        assertEquals(1, policy.copy().getConfiguredPrefetch(null, topic, true, false));
+        free.set(1);
+        assertEquals(0, policy.copy().getConfiguredPrefetch(null, topic, true, false));
+        assertEquals(0, CreditPrefetchPolicy.capacity(() -> 10, 1, 2).getConfiguredPrefetch(null, topic, true, false));
+    }
+
+    @Test
+    public void creditAcrossAllConsumersNeverExceedsTheLaneWorkerThreads() throws InterruptedException {
+        Map<MessageLane, ThreadPoolExecutor> executors = new EnumMap<>(MessageLane.class);
+        executors.put(MessageLane.URGENT, PriorityLanes.newLaneExecutor(MessageLane.URGENT, 1, 2));
+        executors.put(MessageLane.LIGHT, PriorityLanes.newLaneExecutor(MessageLane.LIGHT, 2, 8));
+        executors.put(MessageLane.HEAVY, PriorityLanes.newLaneExecutor(MessageLane.HEAVY, 1, 4));
+        PriorityLanes priorityLanes = new PriorityLanes(executors, new SimpleMeterRegistry());
+        try {
+            for (int consumers = 1; consumers <= 8; consumers++) {
+                CreditPrefetchPolicy policy = CreditPrefetchPolicy.capacity(priorityLanes::freeCapacity,
+                    priorityLanes.getThreads(), consumers);
+                int total = 0;
+                for (int consumer = 0; consumer < consumers; consumer++) {
+                    total += policy.copy().getConfiguredPrefetch(null, topic, true, false);
+                }
+                assertTrue(consumers + " consumers were granted " + total, total <= priorityLanes.getThreads());
+            }
+        } finally {
+            priorityLanes.shutdown();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package uk.gov.hmcts.reform.sscs.servicebus.messaging;
+
+import static org.junit.Assert.assertEquals;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+public class MessageLockMonitorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MessageLockMonitor monitor = new MessageLockMonitor(meterRegistry, Duration.ofSeconds(60));
+
+    @Test
+    public void countsMessagesHeldLongerThanTheLock() {
+        monitor.settled("1", TimeUnit.SECONDS.toNanos(5));
+        monitor.settled("2", TimeUnit.SECONDS.toNanos(61));
+
+        assertEquals(2, meterRegistry.get(MessageLockMonitor.LOCK_HELD_TIMER).timer().count());
+        assertEquals(1.0, meterRegistry.get(MessageLockMonitor.LOCK_EXPIRED_COUNTER).counter().count(), 0);
+    }
+
+    @Test
+    public void countsRedeliveries() {
+        monitor.received("1", true);
+        monitor.received("2", false);
+        monitor.received("3", null);
+
+        assertEquals(1.0, meterRegistry.get(MessageLockMonitor.REDELIVERED_COUNTER).counter().count(), 0);
+    }
+}
@@ -0,0 +1,35 @@
+package uk.gov.hmcts.reform.sscs.tracing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import brave.Tracing;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class FileSpanHandlerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void writesEachFinishedSpanAsOneJsonLine() throws Exception {
+        Path path = folder.getRoot().toPath().resolve("traces/spans.json");
+
+        try (FileSpanHandler handler = new FileSpanHandler(path);
+             Tracing tracing = Tracing.newBuilder().addSpanHandler(handler).build()) {
+            tracing.tracer().nextSpan().name("first").start().finish();
+            tracing.tracer().nextSpan().name("second").tag("case.id", "123").start().finish();
+        }
+
+        List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).contains("\"name\":\"first\""));
+        assertTrue(lines.get(1).contains("\"case.id\":\"123\""));
+    }
+}